@@ -0,0 +1,74 @@
+package com.example.carturestibackend.catalog;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for the catalog listings: the sort value and the id of the last product
+ * on the previous page, encoded as URL-safe Base64 so it can travel as a query parameter.
+ */
+@Getter
+@AllArgsConstructor
+public class CatalogCursor {
+
+    private static final char SEPARATOR = '\n';
+
+    private final String sortValue;
+    private final String id;
+
+    public String encode() {
+        String raw = sortValue + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public double sortValueAsDouble() {
+        try {
+            return Double.parseDouble(sortValue);
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException("Invalid catalog cursor");
+        }
+    }
+
+    /**
+     * @return The sort value of a cursor holding the position of the next product in a ranking.
+     * @throws InvalidCursorException if the sort value is not such a position.
+     */
+    public int sortValueAsOffset() {
+        try {
+            int offset = Integer.parseInt(sortValue);
+            if (offset >= 0) {
+                return offset;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below.
+        }
+        throw new InvalidCursorException("Invalid catalog cursor");
+    }
+
+    /**
+     * Decodes a cursor produced by {@link #encode()}.
+     *
+     * @param cursor The encoded cursor, or null for the first page.
+     * @return The decoded cursor, or null when no cursor was given.
+     * @throws InvalidCursorException if the cursor is malformed.
+     */
+    public static CatalogCursor decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid catalog cursor");
+        }
+        int separator = raw.lastIndexOf(SEPARATOR);
+        if (separator < 0) {
+            throw new InvalidCursorException("Invalid catalog cursor");
+        }
+        return new CatalogCursor(raw.substring(0, separator), raw.substring(separator + 1));
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.carturestibackend.catalog;
+
+import com.example.carturestibackend.dtos.ProductCatalogDTO;
+
+/**
+ * An in-memory index over the catalog, maintained by ProductCatalogIndexer.
+ * Products are addressed by ordinal: a dense int assigned once per product id and never reused,
+ * so indexes can use arrays and bitmaps instead of string keys.
+ */
+public interface CatalogIndex {
+
+    /**
+     * Replaces the whole index content.
+     *
+     * @param products The catalog by ordinal; deleted ordinals hold null.
+     */
+    void rebuild(ProductCatalogDTO[] products);
+
+    /**
+     * Applies a single product change.
+     *
+     * @param ordinal  The ordinal of the changed product.
+     * @param previous The indexed state of the product, or null when it is new.
+     * @param current  The new state of the product, or null when it was deleted.
+     */
+    void update(int ordinal, ProductCatalogDTO previous, ProductCatalogDTO current);
+
+    /**
+     * The price a customer pays: the promotional price while a promotion applies, the list price otherwise.
+     */
+    static double effectivePrice(ProductCatalogDTO product) {
+        return product.getId_promotion() != null ? product.getPrice_promotion() : product.getPrice();
+    }
+}
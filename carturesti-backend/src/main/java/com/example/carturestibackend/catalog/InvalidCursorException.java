@@ -0,0 +1,16 @@
+package com.example.carturestibackend.catalog;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown for a listing cursor that was not issued by this application or no longer applies.
+ * Answered with 400, since only the client can fix it, by starting the listing over.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidCursorException extends IllegalArgumentException {
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.carturestibackend.catalog;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown for a listing order the application does not support.
+ * Answered with 400, since only the client can fix it, by asking for one of the supported orders.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidSortException extends IllegalArgumentException {
+
+    public InvalidSortException(String message) {
+        super(message);
+    }
+}
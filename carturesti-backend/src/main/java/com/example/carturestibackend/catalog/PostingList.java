@@ -0,0 +1,84 @@
+package com.example.carturestibackend.catalog;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of (ordinal, weight) pairs kept sorted by ordinal, so that lists can be
+ * intersected with binary search and updated in place when a single product changes.
+ */
+final class PostingList {
+
+    private int[] ordinals = new int[4];
+    private float[] weights = new float[4];
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    int ordinalAt(int index) {
+        return ordinals[index];
+    }
+
+    float weightAt(int index) {
+        return weights[index];
+    }
+
+    /**
+     * Returns the weight stored for the ordinal, or 0 when the ordinal is not in the list.
+     */
+    float weightOf(int ordinal) {
+        int index = Arrays.binarySearch(ordinals, 0, size, ordinal);
+        return index >= 0 ? weights[index] : 0f;
+    }
+
+    /**
+     * Appends an ordinal greater than every ordinal already in the list.
+     */
+    void append(int ordinal, float weight) {
+        ensureCapacity(size + 1);
+        ordinals[size] = ordinal;
+        weights[size] = weight;
+        size++;
+    }
+
+    void appendAll(PostingList other) {
+        ensureCapacity(size + other.size);
+        System.arraycopy(other.ordinals, 0, ordinals, size, other.size);
+        System.arraycopy(other.weights, 0, weights, size, other.size);
+        size += other.size;
+    }
+
+    void put(int ordinal, float weight) {
+        int index = Arrays.binarySearch(ordinals, 0, size, ordinal);
+        if (index >= 0) {
+            weights[index] = weight;
+            return;
+        }
+        int insertAt = -index - 1;
+        ensureCapacity(size + 1);
+        System.arraycopy(ordinals, insertAt, ordinals, insertAt + 1, size - insertAt);
+        System.arraycopy(weights, insertAt, weights, insertAt + 1, size - insertAt);
+        ordinals[insertAt] = ordinal;
+        weights[insertAt] = weight;
+        size++;
+    }
+
+    void remove(int ordinal) {
+        int index = Arrays.binarySearch(ordinals, 0, size, ordinal);
+        if (index < 0) {
+            return;
+        }
+        System.arraycopy(ordinals, index + 1, ordinals, index, size - index - 1);
+        System.arraycopy(weights, index + 1, weights, index, size - index - 1);
+        size--;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > ordinals.length) {
+            int newCapacity = Math.max(capacity, ordinals.length * 2);
+            ordinals = Arrays.copyOf(ordinals, newCapacity);
+            weights = Arrays.copyOf(weights, newCapacity);
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package com.example.carturestibackend.catalog;
+
+import com.example.carturestibackend.dtos.ProductCatalogDTO;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Type-ahead index over product names and authors.
+ * Every distinct name or author is a completion, weighted by the number of products carrying it.
+ * Completions are stored in a trie keyed by the normalized text and by each of its later words,
+ * so "crea" completes both "Creangă" and "Ion Creangă". Each node keeps the best completions
+ * below it, which makes a lookup a walk down the prefix; inserts and deletes only refresh
+ * the nodes on the paths of the changed completions.
+ */
+@Component
+public class ProductAutocompleteIndex implements CatalogIndex {
+
+    public static final int MAX_SUGGESTIONS = 10;
+    private static final int MAX_KEYS_PER_COMPLETION = 8;
+
+    private static final Comparator<Completion> BEST_FIRST = Comparator
+            .comparingInt((Completion completion) -> completion.count).reversed()
+            .thenComparing(completion -> completion.text);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Node root = new Node();
+    private Map<String, Completion> completions = new HashMap<>();
+
+    /**
+     * A name or author offered as a suggestion, with the number of products it belongs to.
+     */
+    private static final class Completion {
+        private final String text;
+        private final List<String> keys;
+        private int count;
+
+        private Completion(String text, List<String> keys) {
+            this.text = text;
+            this.keys = keys;
+        }
+    }
+
+    /**
+     * Trie node; children are kept in parallel arrays sorted by label.
+     */
+    private static final class Node {
+        private char[] labels = new char[0];
+        private Node[] children = new Node[0];
+        private Completion[] terminals = new Completion[0];
+        private Completion[] top = new Completion[0];
+
+        private Node child(char label) {
+            int i = Arrays.binarySearch(labels, label);
+            return i >= 0 ? children[i] : null;
+        }
+
+        private Node addChild(char label) {
+            int i = Arrays.binarySearch(labels, label);
+            if (i >= 0) {
+                return children[i];
+            }
+            int at = -i - 1;
+            Node node = new Node();
+            labels = insertChar(labels, at, label);
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, at);
+            grown[at] = node;
+            System.arraycopy(children, at, grown, at + 1, children.length - at);
+            children = grown;
+            return node;
+        }
+
+        private void removeChild(char label) {
+            int i = Arrays.binarySearch(labels, label);
+            if (i < 0) {
+                return;
+            }
+            char[] labelsLeft = new char[labels.length - 1];
+            System.arraycopy(labels, 0, labelsLeft, 0, i);
+            System.arraycopy(labels, i + 1, labelsLeft, i, labels.length - i - 1);
+            Node[] childrenLeft = new Node[children.length - 1];
+            System.arraycopy(children, 0, childrenLeft, 0, i);
+            System.arraycopy(children, i + 1, childrenLeft, i, children.length - i - 1);
+            labels = labelsLeft;
+            children = childrenLeft;
+        }
+
+        private boolean isEmpty() {
+            return children.length == 0 && terminals.length == 0;
+        }
+
+        /**
+         * Recomputes the best completions of this node from its own terminals and its children's best.
+         */
+        private void refreshTop() {
+            Set<Completion> candidates = new LinkedHashSet<>(Arrays.asList(terminals));
+            for (Node child : children) {
+                candidates.addAll(Arrays.asList(child.top));
+            }
+            top = candidates.stream().sorted(BEST_FIRST).limit(MAX_SUGGESTIONS).toArray(Completion[]::new);
+        }
+
+        private static char[] insertChar(char[] array, int at, char value) {
+            char[] grown = new char[array.length + 1];
+            System.arraycopy(array, 0, grown, 0, at);
+            grown[at] = value;
+            System.arraycopy(array, at, grown, at + 1, array.length - at);
+            return grown;
+        }
+    }
+
+    @Override
+    public void rebuild(ProductCatalogDTO[] products) {
+        Map<String, Completion> counted = new HashMap<>();
+        for (ProductCatalogDTO product : products) {
+            if (product != null) {
+                for (String text : texts(product)) {
+                    counted.computeIfAbsent(TextNormalizer.normalize(text).trim(), normalized -> new Completion(text.trim(), keys(normalized))).count++;
+                }
+            }
+        }
+        Node rebuilt = new Node();
+        for (Completion completion : counted.values()) {
+            for (String key : completion.keys) {
+                Node node = rebuilt;
+                for (int i = 0; i < key.length(); i++) {
+                    node = node.addChild(key.charAt(i));
+                }
+                node.terminals = append(node.terminals, completion);
+            }
+        }
+        refreshAll(rebuilt);
+        lock.writeLock().lock();
+        try {
+            root = rebuilt;
+            completions = counted;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void refreshAll(Node node) {
+        for (Node child : node.children) {
+            refreshAll(child);
+        }
+        node.refreshTop();
+    }
+
+    @Override
+    public void update(int ordinal, ProductCatalogDTO previous, ProductCatalogDTO current) {
+        lock.writeLock().lock();
+        try {
+            if (previous != null) {
+                for (String text : texts(previous)) {
+                    String normalized = TextNormalizer.normalize(text).trim();
+                    Completion completion = completions.get(normalized);
+                    if (completion != null && --completion.count == 0) {
+                        completions.remove(normalized);
+                        completion.keys.forEach(key -> remove(key, completion));
+                    } else if (completion != null) {
+                        completion.keys.forEach(this::refreshPath);
+                    }
+                }
+            }
+            if (current != null) {
+                for (String text : texts(current)) {
+                    String normalized = TextNormalizer.normalize(text).trim();
+                    Completion completion = completions.get(normalized);
+                    if (completion == null) {
+                        Completion added = new Completion(text.trim(), keys(normalized));
+                        added.count = 1;
+                        completions.put(normalized, added);
+                        added.keys.forEach(key -> insert(key, added));
+                    } else {
+                        completion.count++;
+                        completion.keys.forEach(this::refreshPath);
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void insert(String key, Completion completion) {
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.addChild(key.charAt(i));
+        }
+        node.terminals = append(node.terminals, completion);
+        refreshPath(key);
+    }
+
+    private void remove(String key, Completion completion) {
+        Node[] path = path(key);
+        Node last = path[key.length()];
+        if (last == null) {
+            return;
+        }
+        last.terminals = Arrays.stream(last.terminals).filter(terminal -> terminal != completion).toArray(Completion[]::new);
+        for (int depth = key.length(); depth >= 0; depth--) {
+            Node node = path[depth];
+            if (depth > 0 && node.isEmpty()) {
+                path[depth - 1].removeChild(key.charAt(depth - 1));
+            } else {
+                node.refreshTop();
+            }
+        }
+    }
+
+    /**
+     * Refreshes the best completions of every node on the key's path, deepest first.
+     */
+    private void refreshPath(String key) {
+        Node[] path = path(key);
+        for (int depth = key.length(); depth >= 0; depth--) {
+            if (path[depth] != null) {
+                path[depth].refreshTop();
+            }
+        }
+    }
+
+    private Node[] path(String key) {
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < key.length() && path[i] != null; i++) {
+            path[i + 1] = path[i].child(key.charAt(i));
+        }
+        return path;
+    }
+
+    /**
+     * Returns the best completions for a prefix.
+     *
+     * @param prefix The text typed so far.
+     * @param limit  The maximum number of completions, at most MAX_SUGGESTIONS.
+     * @return The completions, most common first.
+     */
+    public List<String> complete(String prefix, int limit) {
+        String key = TextNormalizer.normalize(prefix).stripLeading();
+        if (key.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.child(key.charAt(i));
+            }
+            if (node == null) {
+                return Collections.emptyList();
+            }
+            List<String> result = new ArrayList<>(Math.min(limit, node.top.length));
+            for (int i = 0; i < node.top.length && i < limit; i++) {
+                result.add(node.top[i].text);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static List<String> texts(ProductCatalogDTO product) {
+        List<String> texts = new ArrayList<>(2);
+        if (product.getName() != null && !product.getName().isBlank()) {
+            texts.add(product.getName());
+        }
+        if (product.getAuthor() != null && !product.getAuthor().isBlank() && !product.getAuthor().equals(product.getName())) {
+            texts.add(product.getAuthor());
+        }
+        return texts;
+    }
+
+    /**
+     * The keys a completion is reachable from: the whole text and the text from each later word on.
+     */
+    private static List<String> keys(String normalized) {
+        List<String> keys = new ArrayList<>();
+        keys.add(normalized);
+        for (int i = 1; i < normalized.length() && keys.size() < MAX_KEYS_PER_COMPLETION; i++) {
+            if (!Character.isLetterOrDigit(normalized.charAt(i - 1)) && Character.isLetterOrDigit(normalized.charAt(i))) {
+                keys.add(normalized.substring(i));
+            }
+        }
+        return keys;
+    }
+
+    private static Completion[] append(Completion[] array, Completion value) {
+        Completion[] grown = Arrays.copyOf(array, array.length + 1);
+        grown[array.length] = value;
+        return grown;
+    }
+}
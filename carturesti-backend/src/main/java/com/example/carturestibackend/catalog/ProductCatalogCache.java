@@ -0,0 +1,115 @@
+package com.example.carturestibackend.catalog;
+
+import com.example.carturestibackend.dtos.CatalogCacheStatsDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, least-recently-used cache for the catalog reads of ProductService.
+ * Entries are keyed either by a single product ("product:{id}") or by a listing; listings depend on
+ * every product, so any catalog change drops them, while single-product entries are only dropped
+ * for the products named in the change event.
+ */
+@Component
+public class ProductCatalogCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProductCatalogCache.class);
+    private static final String PRODUCT_KEY_PREFIX = "product:";
+
+    private final int maxEntries;
+    private final LinkedHashMap<String, Object> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private long generation;
+
+    public ProductCatalogCache(@Value("${catalog.cache.max-entries:256}") int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+                if (size() > ProductCatalogCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public static String productKey(String productId) {
+        return PRODUCT_KEY_PREFIX + productId;
+    }
+
+    /**
+     * Returns the cached value for the key, loading and caching it on a miss.
+     * A value loaded while an invalidation was running is returned but not cached,
+     * so a reader can never re-insert data that a concurrent write has just made stale.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Supplier<T> loader) {
+        long loadGeneration;
+        synchronized (entries) {
+            Object cached = entries.get(key);
+            if (cached != null) {
+                hits.increment();
+                return (T) cached;
+            }
+            loadGeneration = generation;
+        }
+        misses.increment();
+        T value = loader.get();
+        if (value != null) {
+            synchronized (entries) {
+                if (generation == loadGeneration) {
+                    entries.put(key, value);
+                }
+            }
+        }
+        return value;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(ProductCatalogChangedEvent event) {
+        synchronized (entries) {
+            generation++;
+            if (event.getProductIds().isEmpty()) {
+                entries.clear();
+                return;
+            }
+            for (String productId : event.getProductIds()) {
+                entries.remove(productKey(productId));
+            }
+            Iterator<String> keys = entries.keySet().iterator();
+            while (keys.hasNext()) {
+                if (!keys.next().startsWith(PRODUCT_KEY_PREFIX)) {
+                    keys.remove();
+                }
+            }
+        }
+        LOGGER.debug("Catalog cache invalidated for products {}", event.getProductIds());
+    }
+
+    public CatalogCacheStatsDTO getStats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return CatalogCacheStatsDTO.builder()
+                .hits(hits.sum())
+                .misses(misses.sum())
+                .evictions(evictions.sum())
+                .size(size)
+                .maxEntries(maxEntries)
+                .build();
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.carturestibackend.catalog;
+
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Published by the services whenever products visible in the catalog are inserted, updated, deleted,
+ * repriced or have their stock changed. Listeners receive it after the surrounding transaction commits.
+ */
+@Getter
+public class ProductCatalogChangedEvent {
+
+    private final Set<String> productIds;
+
+    public ProductCatalogChangedEvent(Collection<String> productIds) {
+        this.productIds = productIds == null
+                ? Collections.emptySet()
+                : Collections.unmodifiableSet(new LinkedHashSet<>(productIds));
+    }
+
+    public static ProductCatalogChangedEvent of(String productId) {
+        return new ProductCatalogChangedEvent(Collections.singleton(productId));
+    }
+}
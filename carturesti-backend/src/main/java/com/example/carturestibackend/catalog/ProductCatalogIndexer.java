@@ -0,0 +1,186 @@
+package com.example.carturestibackend.catalog;
+
+import com.example.carturestibackend.dtos.ProductCatalogDTO;
+import com.example.carturestibackend.repositories.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps the in-memory catalog indexes in sync with the database.
+ * At startup it loads the catalog projection once, assigns an ordinal to every product and rebuilds
+ * all CatalogIndex beans in parallel. Afterwards it reloads only the products named by each
+ * ProductCatalogChangedEvent and forwards the differences to every index.
+ * Reloads run one at a time, each querying and installing under reloadLock, so a reload always
+ * queries after the previous one was installed and an older snapshot never replaces a newer one.
+ * Readers only wait for the install, not for the query.
+ */
+@Component
+public class ProductCatalogIndexer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProductCatalogIndexer.class);
+
+    private final ProductRepository productRepository;
+    private final List<CatalogIndex> indexes;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object reloadLock = new Object();
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private ProductCatalogDTO[] products = new ProductCatalogDTO[0];
+    private int size;
+    private volatile boolean ready;
+    private final Set<String> pendingChanges = new HashSet<>();
+    private boolean pendingFullReload;
+
+    public ProductCatalogIndexer(ProductRepository productRepository, List<CatalogIndex> indexes) {
+        this.productRepository = productRepository;
+        this.indexes = indexes;
+    }
+
+    /**
+     * True once the initial build has completed; until then callers fall back to the database.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public ProductCatalogDTO getProduct(int ordinal) {
+        lock.readLock().lock();
+        try {
+            return ordinal >= 0 && ordinal < size ? products[ordinal] : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Resolves ordinals to products, skipping ordinals of deleted products.
+     */
+    public List<ProductCatalogDTO> getProducts(int[] ordinalList, int from, int to) {
+        List<ProductCatalogDTO> result = new ArrayList<>(Math.max(0, to - from));
+        lock.readLock().lock();
+        try {
+            for (int i = from; i < to; i++) {
+                int ordinal = ordinalList[i];
+                if (ordinal < size && products[ordinal] != null) {
+                    result.add(products[ordinal]);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        ProductCatalogDTO[] snapshot;
+        synchronized (reloadLock) {
+            List<ProductCatalogDTO> catalog = productRepository.findCatalog();
+            lock.writeLock().lock();
+            try {
+                ordinals.clear();
+                products = new ProductCatalogDTO[Math.max(16, catalog.size())];
+                size = 0;
+                for (ProductCatalogDTO product : catalog) {
+                    assignOrdinal(product);
+                }
+                snapshot = Arrays.copyOf(products, size);
+                indexes.parallelStream().forEach(index -> index.rebuild(snapshot));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        Set<String> missed;
+        boolean missedAll;
+        synchronized (pendingChanges) {
+            ready = true;
+            missed = new HashSet<>(pendingChanges);
+            missedAll = pendingFullReload;
+            pendingChanges.clear();
+            pendingFullReload = false;
+        }
+        LOGGER.info("Catalog indexes built for {} products in {} ms", snapshot.length, (System.nanoTime() - start) / 1_000_000);
+        if (missedAll) {
+            rebuild();
+        } else if (!missed.isEmpty()) {
+            apply(missed);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(ProductCatalogChangedEvent event) {
+        synchronized (pendingChanges) {
+            if (!ready) {
+                // The initial build is still loading; replay the change once it completes.
+                pendingChanges.addAll(event.getProductIds());
+                pendingFullReload |= event.getProductIds().isEmpty();
+                return;
+            }
+        }
+        if (event.getProductIds().isEmpty()) {
+            rebuild();
+        } else {
+            apply(event.getProductIds());
+        }
+    }
+
+    private void apply(Set<String> productIds) {
+        synchronized (reloadLock) {
+            Map<String, ProductCatalogDTO> reloaded = new HashMap<>();
+            for (ProductCatalogDTO product : productRepository.findCatalogByIds(productIds)) {
+                reloaded.put(product.getId_product(), product);
+            }
+            lock.writeLock().lock();
+            try {
+                for (String productId : productIds) {
+                    ProductCatalogDTO current = reloaded.get(productId);
+                    Integer ordinal = ordinals.get(productId);
+                    if (ordinal == null) {
+                        if (current == null) {
+                            continue;
+                        }
+                        ordinal = assignOrdinal(current);
+                        for (CatalogIndex index : indexes) {
+                            index.update(ordinal, null, current);
+                        }
+                    } else {
+                        ProductCatalogDTO previous = products[ordinal];
+                        products[ordinal] = current;
+                        if (current == null) {
+                            ordinals.remove(productId);
+                        }
+                        for (CatalogIndex index : indexes) {
+                            index.update(ordinal, previous, current);
+                        }
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private int assignOrdinal(ProductCatalogDTO product) {
+        if (size == products.length) {
+            products = Arrays.copyOf(products, Math.max(16, size * 2));
+        }
+        int ordinal = size++;
+        products[ordinal] = product;
+        ordinals.put(product.getId_product(), ordinal);
+        return ordinal;
+    }
+}
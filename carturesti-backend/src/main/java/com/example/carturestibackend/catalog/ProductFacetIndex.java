@@ -0,0 +1,299 @@
+package com.example.carturestibackend.catalog;
+
+import com.example.carturestibackend.dtos.ProductCatalogDTO;
+import com.example.carturestibackend.dtos.ProductFilterDTO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Bitmap indexes over product ordinals for the filterable dimensions of the catalog:
+ * category, author, price bucket, on promotion and in stock.
+ * A filter is the intersection of the bitmaps of its dimensions (the union of the bitmaps
+ * of the values within one dimension); facet counts walk the matching ordinals and look up
+ * each product's value in flat per-ordinal arrays.
+ */
+@Component
+public class ProductFacetIndex implements CatalogIndex {
+
+    /**
+     * Lower bounds of the price buckets; the last bucket is open ended.
+     */
+    static final double[] PRICE_BUCKETS = {0, 25, 50, 100, 200};
+    static final int TOP_AUTHORS = 20;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private BitSet live = new BitSet();
+    private Map<String, BitSet> byCategory = new HashMap<>();
+    private Map<String, BitSet> byAuthor = new HashMap<>();
+    private Map<String, String> authorLabels = new HashMap<>();
+    private BitSet[] byPrice = newPriceBitmaps();
+    private BitSet onPromotion = new BitSet();
+    private BitSet inStock = new BitSet();
+    private String[] categoryOf = new String[0];
+    private String[] authorOf = new String[0];
+    private double[] priceOf = new double[0];
+
+    /**
+     * Ordinals matching a filter and the facet counts of the filter.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class FacetResult {
+        private final BitSet matches;
+        private final Map<String, Long> categories;
+        private final Map<String, Long> authors;
+        private final Map<String, Long> prices;
+        private final long onPromotion;
+        private final long inStock;
+    }
+
+    private static BitSet[] newPriceBitmaps() {
+        BitSet[] bitmaps = new BitSet[PRICE_BUCKETS.length];
+        Arrays.setAll(bitmaps, i -> new BitSet());
+        return bitmaps;
+    }
+
+    @Override
+    public void rebuild(ProductCatalogDTO[] products) {
+        lock.writeLock().lock();
+        try {
+            live = new BitSet(products.length);
+            byCategory = new HashMap<>();
+            byAuthor = new HashMap<>();
+            authorLabels = new HashMap<>();
+            byPrice = newPriceBitmaps();
+            onPromotion = new BitSet(products.length);
+            inStock = new BitSet(products.length);
+            categoryOf = new String[products.length];
+            authorOf = new String[products.length];
+            priceOf = new double[products.length];
+            for (int ordinal = 0; ordinal < products.length; ordinal++) {
+                if (products[ordinal] != null) {
+                    add(ordinal, products[ordinal]);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void update(int ordinal, ProductCatalogDTO previous, ProductCatalogDTO current) {
+        lock.writeLock().lock();
+        try {
+            if (previous != null) {
+                remove(ordinal);
+            }
+            if (current != null) {
+                if (ordinal >= priceOf.length) {
+                    int capacity = Math.max(16, Math.max(ordinal + 1, priceOf.length * 2));
+                    categoryOf = Arrays.copyOf(categoryOf, capacity);
+                    authorOf = Arrays.copyOf(authorOf, capacity);
+                    priceOf = Arrays.copyOf(priceOf, capacity);
+                }
+                add(ordinal, current);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void add(int ordinal, ProductCatalogDTO product) {
+        live.set(ordinal);
+        double price = CatalogIndex.effectivePrice(product);
+        priceOf[ordinal] = price;
+        byPrice[priceBucket(price)].set(ordinal);
+        if (product.getId_category() != null) {
+            categoryOf[ordinal] = product.getId_category();
+            byCategory.computeIfAbsent(product.getId_category(), c -> new BitSet()).set(ordinal);
+        }
+        String author = authorKey(product.getAuthor());
+        if (!author.isEmpty()) {
+            authorOf[ordinal] = author;
+            authorLabels.putIfAbsent(author, product.getAuthor().trim());
+            byAuthor.computeIfAbsent(author, a -> new BitSet()).set(ordinal);
+        }
+        if (product.getId_promotion() != null) {
+            onPromotion.set(ordinal);
+        }
+        if (product.getStock() > 0) {
+            inStock.set(ordinal);
+        }
+    }
+
+    private void remove(int ordinal) {
+        live.clear(ordinal);
+        byPrice[priceBucket(priceOf[ordinal])].clear(ordinal);
+        if (categoryOf[ordinal] != null) {
+            clear(byCategory, categoryOf[ordinal], ordinal);
+            categoryOf[ordinal] = null;
+        }
+        if (authorOf[ordinal] != null) {
+            if (clear(byAuthor, authorOf[ordinal], ordinal)) {
+                authorLabels.remove(authorOf[ordinal]);
+            }
+            authorOf[ordinal] = null;
+        }
+        onPromotion.clear(ordinal);
+        inStock.clear(ordinal);
+    }
+
+    /**
+     * Clears the ordinal from the value's bitmap, dropping the bitmap once empty.
+     *
+     * @return true when the value no longer has any product.
+     */
+    private static boolean clear(Map<String, BitSet> bitmaps, String value, int ordinal) {
+        BitSet bitmap = bitmaps.get(value);
+        if (bitmap == null) {
+            return true;
+        }
+        bitmap.clear(ordinal);
+        if (bitmap.isEmpty()) {
+            bitmaps.remove(value);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Applies a filter and computes its facet counts.
+     *
+     * @param filter The filter; null or empty dimensions do not filter.
+     * @return The matching ordinals and the facet counts.
+     */
+    public FacetResult query(ProductFilterDTO filter) {
+        lock.readLock().lock();
+        try {
+            BitSet categories = union(byCategory, filter.getCategories(), value -> value);
+            BitSet authors = union(byAuthor, filter.getAuthors(), ProductFacetIndex::authorKey);
+            BitSet prices = priceRange(filter.getMinPrice(), filter.getMaxPrice());
+            BitSet promotion = filter.isOnPromotion() ? onPromotion : null;
+            BitSet stock = filter.isInStock() ? inStock : null;
+
+            BitSet matches = intersect(categories, authors, prices, promotion, stock);
+            Map<String, Long> categoryCounts = count(intersect(authors, prices, promotion, stock), ordinal -> categoryOf[ordinal]);
+            Map<String, Long> authorCounts = new LinkedHashMap<>();
+            count(intersect(categories, prices, promotion, stock), ordinal -> authorOf[ordinal]).entrySet().stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                    .limit(TOP_AUTHORS)
+                    .forEach(entry -> authorCounts.put(authorLabels.get(entry.getKey()), entry.getValue()));
+            Map<String, Long> priceCounts = new LinkedHashMap<>();
+            BitSet withoutPrice = intersect(categories, authors, promotion, stock);
+            for (int bucket = 0; bucket < PRICE_BUCKETS.length; bucket++) {
+                BitSet inBucket = (BitSet) byPrice[bucket].clone();
+                inBucket.and(withoutPrice);
+                priceCounts.put(priceLabel(bucket), (long) inBucket.cardinality());
+            }
+            BitSet promotionCount = intersect(categories, authors, prices, onPromotion, stock);
+            BitSet stockCount = intersect(categories, authors, prices, promotion, inStock);
+            return new FacetResult(matches, categoryCounts, authorCounts, priceCounts,
+                    promotionCount.cardinality(), stockCount.cardinality());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static BitSet union(Map<String, BitSet> bitmaps, Collection<String> values, Function<String, String> key) {
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        BitSet union = new BitSet();
+        for (String value : values) {
+            BitSet bitmap = bitmaps.get(key.apply(value));
+            if (bitmap != null) {
+                union.or(bitmap);
+            }
+        }
+        return union;
+    }
+
+    /**
+     * Products whose effective price lies within [min, max]; buckets wholly inside the range
+     * are taken as they are, only the products of the boundary buckets are checked one by one.
+     */
+    private BitSet priceRange(Double min, Double max) {
+        if (min == null && max == null) {
+            return null;
+        }
+        double low = min == null ? Double.NEGATIVE_INFINITY : min;
+        double high = max == null ? Double.POSITIVE_INFINITY : max;
+        BitSet range = new BitSet();
+        for (int bucket = 0; bucket < PRICE_BUCKETS.length; bucket++) {
+            double bucketLow = bucket == 0 ? Double.NEGATIVE_INFINITY : PRICE_BUCKETS[bucket];
+            double bucketHigh = bucket + 1 < PRICE_BUCKETS.length ? PRICE_BUCKETS[bucket + 1] : Double.POSITIVE_INFINITY;
+            if (bucketHigh <= low || bucketLow > high) {
+                continue;
+            }
+            if (bucketLow >= low && bucketHigh <= high) {
+                range.or(byPrice[bucket]);
+                continue;
+            }
+            BitSet bitmap = byPrice[bucket];
+            for (int ordinal = bitmap.nextSetBit(0); ordinal >= 0; ordinal = bitmap.nextSetBit(ordinal + 1)) {
+                if (priceOf[ordinal] >= low && priceOf[ordinal] <= high) {
+                    range.set(ordinal);
+                }
+            }
+        }
+        return range;
+    }
+
+    /**
+     * Intersects the live products with the given bitmaps; null bitmaps do not filter.
+     */
+    private BitSet intersect(BitSet... bitmaps) {
+        BitSet result = (BitSet) live.clone();
+        for (BitSet bitmap : bitmaps) {
+            if (bitmap != null) {
+                result.and(bitmap);
+            }
+        }
+        return result;
+    }
+
+    private static Map<String, Long> count(BitSet ordinals, IntFunction<String> valueOf) {
+        Map<String, Long> counts = new HashMap<>();
+        for (int ordinal = ordinals.nextSetBit(0); ordinal >= 0; ordinal = ordinals.nextSetBit(ordinal + 1)) {
+            String value = valueOf.apply(ordinal);
+            if (value != null) {
+                counts.merge(value, 1L, Long::sum);
+            }
+        }
+        return counts;
+    }
+
+    static int priceBucket(double price) {
+        int bucket = 0;
+        while (bucket + 1 < PRICE_BUCKETS.length && price >= PRICE_BUCKETS[bucket + 1]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    static String priceLabel(int bucket) {
+        return bucket + 1 < PRICE_BUCKETS.length
+                ? formatPrice(PRICE_BUCKETS[bucket]) + "-" + formatPrice(PRICE_BUCKETS[bucket + 1])
+                : formatPrice(PRICE_BUCKETS[bucket]) + "+";
+    }
+
+    private static String formatPrice(double price) {
+        return price == Math.rint(price) ? String.valueOf((long) price) : String.valueOf(price);
+    }
+
+    private static String authorKey(String author) {
+        return TextNormalizer.normalize(author).trim();
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.carturestibackend.catalog;
+
+import com.example.carturestibackend.dtos.ProductCatalogDTO;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Inverted index over the normalized name, author and description of every product.
+ * A query matches products containing all of its terms (the last term also matches as a prefix,
+ * so partially typed words still find results); when no product contains all of them, products
+ * containing any term are returned instead. Results are ranked by the sum of tf-idf weights,
+ * with matches in the name counting more than matches in the author, and those more than in the description.
+ */
+@Component
+public class ProductSearchIndex implements CatalogIndex {
+
+    static final float NAME_WEIGHT = 3f;
+    static final float AUTHOR_WEIGHT = 2f;
+    static final float DESCRIPTION_WEIGHT = 1f;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final int REBUILD_CHUNK_SIZE = 4096;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private TreeMap<String, PostingList> dictionary = new TreeMap<>();
+    private int documentCount;
+
+    @Override
+    public void rebuild(ProductCatalogDTO[] products) {
+        int chunks = (products.length + REBUILD_CHUNK_SIZE - 1) / REBUILD_CHUNK_SIZE;
+        // Each chunk covers an ascending ordinal range, so appending the chunks in order keeps every list sorted.
+        List<Map<String, PostingList>> partial = IntStream.range(0, chunks)
+                .parallel()
+                .mapToObj(chunk -> indexChunk(products, chunk * REBUILD_CHUNK_SIZE, Math.min(products.length, (chunk + 1) * REBUILD_CHUNK_SIZE)))
+                .collect(Collectors.toList());
+        TreeMap<String, PostingList> rebuilt = new TreeMap<>();
+        for (Map<String, PostingList> chunk : partial) {
+            chunk.forEach((term, postings) -> rebuilt.computeIfAbsent(term, t -> new PostingList()).appendAll(postings));
+        }
+        int count = 0;
+        for (ProductCatalogDTO product : products) {
+            if (product != null) {
+                count++;
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            dictionary = rebuilt;
+            documentCount = count;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static Map<String, PostingList> indexChunk(ProductCatalogDTO[] products, int from, int to) {
+        Map<String, PostingList> postings = new HashMap<>();
+        for (int ordinal = from; ordinal < to; ordinal++) {
+            if (products[ordinal] == null) {
+                continue;
+            }
+            int current = ordinal;
+            termWeights(products[ordinal]).forEach((term, weight) ->
+                    postings.computeIfAbsent(term, t -> new PostingList()).append(current, weight));
+        }
+        return postings;
+    }
+
+    @Override
+    public void update(int ordinal, ProductCatalogDTO previous, ProductCatalogDTO current) {
+        lock.writeLock().lock();
+        try {
+            if (previous != null) {
+                for (String term : termWeights(previous).keySet()) {
+                    PostingList postings = dictionary.get(term);
+                    if (postings != null) {
+                        postings.remove(ordinal);
+                        if (postings.size() == 0) {
+                            dictionary.remove(term);
+                        }
+                    }
+                }
+                documentCount--;
+            }
+            if (current != null) {
+                termWeights(current).forEach((term, weight) ->
+                        dictionary.computeIfAbsent(term, t -> new PostingList()).put(ordinal, weight));
+                documentCount++;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Searches the index.
+     *
+     * @param query The raw query typed by the user.
+     * @return The ordinals of the matching products, best match first.
+     */
+    public int[] search(String query) {
+        List<String> tokens = TextNormalizer.tokenize(query);
+        if (tokens.isEmpty()) {
+            return new int[0];
+        }
+        lock.readLock().lock();
+        try {
+            List<Map<Integer, Float>> matches = new ArrayList<>(tokens.size());
+            for (int i = 0; i < tokens.size(); i++) {
+                matches.add(termMatches(tokens.get(i), i == tokens.size() - 1));
+            }
+            Map<Integer, Float> scores = intersect(matches);
+            if (scores.isEmpty() && matches.size() > 1) {
+                scores = union(matches);
+            }
+            return scores.entrySet().stream()
+                    .sorted(Map.Entry.<Integer, Float>comparingByValue(Comparator.reverseOrder())
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .mapToInt(Map.Entry::getKey)
+                    .toArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Scores of the products containing the token; a prefix token also matches longer terms.
+     */
+    private Map<Integer, Float> termMatches(String token, boolean prefix) {
+        Map<Integer, Float> scores = new HashMap<>();
+        PostingList exact = dictionary.get(token);
+        if (exact != null) {
+            accumulate(scores, exact);
+        }
+        if (prefix) {
+            NavigableMap<String, PostingList> expansions = dictionary.subMap(token, false, token + Character.MAX_VALUE, false);
+            int expanded = 0;
+            for (PostingList postings : expansions.values()) {
+                if (expanded++ == MAX_PREFIX_EXPANSIONS) {
+                    break;
+                }
+                accumulate(scores, postings);
+            }
+        }
+        return scores;
+    }
+
+    private void accumulate(Map<Integer, Float> scores, PostingList postings) {
+        float idf = (float) Math.log(1 + (double) documentCount / postings.size());
+        for (int i = 0; i < postings.size(); i++) {
+            scores.merge(postings.ordinalAt(i), postings.weightAt(i) * idf, Math::max);
+        }
+    }
+
+    private static Map<Integer, Float> intersect(List<Map<Integer, Float>> matches) {
+        Map<Integer, Float> smallest = matches.stream().min(Comparator.comparingInt(Map::size)).orElseThrow();
+        Map<Integer, Float> scores = new HashMap<>();
+        for (Map.Entry<Integer, Float> candidate : smallest.entrySet()) {
+            float score = 0f;
+            boolean inAll = true;
+            for (Map<Integer, Float> match : matches) {
+                Float weight = match.get(candidate.getKey());
+                if (weight == null) {
+                    inAll = false;
+                    break;
+                }
+                score += weight;
+            }
+            if (inAll) {
+                scores.put(candidate.getKey(), score);
+            }
+        }
+        return scores;
+    }
+
+    private static Map<Integer, Float> union(List<Map<Integer, Float>> matches) {
+        Map<Integer, Float> scores = new HashMap<>();
+        for (Map<Integer, Float> match : matches) {
+            match.forEach((ordinal, weight) -> scores.merge(ordinal, weight, Float::sum));
+        }
+        return scores;
+    }
+
+    static Map<String, Float> termWeights(ProductCatalogDTO product) {
+        Map<String, Float> weights = new HashMap<>();
+        addField(weights, product.getName(), NAME_WEIGHT);
+        addField(weights, product.getAuthor(), AUTHOR_WEIGHT);
+        addField(weights, product.getDescription(), DESCRIPTION_WEIGHT);
+        return weights;
+    }
+
+    private static void addField(Map<String, Float> weights, String text, float fieldWeight) {
+        for (String token : TextNormalizer.tokenize(text)) {
+            weights.merge(token, fieldWeight, Float::sum);
+        }
+    }
+}
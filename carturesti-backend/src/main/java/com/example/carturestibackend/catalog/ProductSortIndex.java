@@ -0,0 +1,274 @@
+package com.example.carturestibackend.catalog;
+
+import com.example.carturestibackend.dtos.ProductCatalogDTO;
+import org.springframework.stereotype.Component;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * Product ordinals kept sorted by price, by effective (promotional) price, by average rating and by
+ * name in Romanian collation order, each with the product ID as tie-breaker. The numeric orders are the
+ * same as the keyset queries of ProductRepository; the name order is not, since the database collates
+ * with its own rules, so ProductService never resumes one from a cursor of the other.
+ * A page is located by binary search on the cursor's sort value and ID and
+ * then read straight off the array, in either direction.
+ * Updates move a single ordinal within each array.
+ */
+@Component
+public class ProductSortIndex implements CatalogIndex {
+
+    public enum SortKey {
+        PRICE, EFFECTIVE_PRICE, RATING, NAME
+    }
+
+    private static final Locale ROMANIAN = new Locale("ro", "RO");
+
+    private final ThreadLocal<Collator> collators = ThreadLocal.withInitial(() -> Collator.getInstance(ROMANIAN));
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<SortKey, int[]> views = new EnumMap<>(SortKey.class);
+    private int size;
+    private String[] idOf = new String[0];
+    private double[] priceOf = new double[0];
+    private double[] effectivePriceOf = new double[0];
+    private double[] ratingOf = new double[0];
+    private CollationKey[] nameKeyOf = new CollationKey[0];
+
+    public ProductSortIndex() {
+        for (SortKey key : SortKey.values()) {
+            views.put(key, new int[0]);
+        }
+    }
+
+    @Override
+    public void rebuild(ProductCatalogDTO[] products) {
+        String[] ids = new String[products.length];
+        double[] prices = new double[products.length];
+        double[] effectivePrices = new double[products.length];
+        double[] ratings = new double[products.length];
+        CollationKey[] nameKeys = new CollationKey[products.length];
+        IntStream.range(0, products.length).parallel()
+                .filter(ordinal -> products[ordinal] != null)
+                .forEach(ordinal -> {
+                    ProductCatalogDTO product = products[ordinal];
+                    ids[ordinal] = product.getId_product();
+                    prices[ordinal] = product.getPrice();
+                    effectivePrices[ordinal] = CatalogIndex.effectivePrice(product);
+                    ratings[ordinal] = product.getAverage_rating();
+                    nameKeys[ordinal] = nameKey(product.getName());
+                });
+        Integer[] live = IntStream.range(0, products.length).filter(ordinal -> products[ordinal] != null).boxed().toArray(Integer[]::new);
+        Map<SortKey, int[]> sorted = new EnumMap<>(SortKey.class);
+        Arrays.stream(SortKey.values()).parallel().forEach(key -> {
+            Integer[] view = live.clone();
+            Arrays.sort(view, comparator(key, ids, prices, effectivePrices, ratings, nameKeys));
+            int[] ordinals = Arrays.stream(view).mapToInt(Integer::intValue).toArray();
+            synchronized (sorted) {
+                sorted.put(key, ordinals);
+            }
+        });
+        lock.writeLock().lock();
+        try {
+            idOf = ids;
+            priceOf = prices;
+            effectivePriceOf = effectivePrices;
+            ratingOf = ratings;
+            nameKeyOf = nameKeys;
+            views.putAll(sorted);
+            size = live.length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static Comparator<Integer> comparator(SortKey key, String[] ids, double[] prices, double[] effectivePrices, double[] ratings,
+                                                  CollationKey[] nameKeys) {
+        Comparator<Integer> byValue;
+        switch (key) {
+            case PRICE:
+                byValue = Comparator.comparingDouble(ordinal -> prices[ordinal]);
+                break;
+            case EFFECTIVE_PRICE:
+                byValue = Comparator.comparingDouble(ordinal -> effectivePrices[ordinal]);
+                break;
+            case RATING:
+                byValue = Comparator.comparingDouble(ordinal -> ratings[ordinal]);
+                break;
+            default:
+                byValue = (a, b) -> nameKeys[a].compareTo(nameKeys[b]);
+        }
+        return byValue.thenComparing(ordinal -> ids[ordinal]);
+    }
+
+    @Override
+    public void update(int ordinal, ProductCatalogDTO previous, ProductCatalogDTO current) {
+        lock.writeLock().lock();
+        try {
+            if (previous != null && ordinal < idOf.length && idOf[ordinal] != null) {
+                for (SortKey key : SortKey.values()) {
+                    int[] view = views.get(key);
+                    int position = find(key, view, ordinal);
+                    if (position >= 0) {
+                        System.arraycopy(view, position + 1, view, position, size - position - 1);
+                    }
+                }
+                size--;
+                idOf[ordinal] = null;
+            }
+            if (current != null) {
+                if (ordinal >= idOf.length) {
+                    int capacity = Math.max(16, Math.max(ordinal + 1, idOf.length * 2));
+                    idOf = Arrays.copyOf(idOf, capacity);
+                    priceOf = Arrays.copyOf(priceOf, capacity);
+                    effectivePriceOf = Arrays.copyOf(effectivePriceOf, capacity);
+                    ratingOf = Arrays.copyOf(ratingOf, capacity);
+                    nameKeyOf = Arrays.copyOf(nameKeyOf, capacity);
+                }
+                idOf[ordinal] = current.getId_product();
+                priceOf[ordinal] = current.getPrice();
+                effectivePriceOf[ordinal] = CatalogIndex.effectivePrice(current);
+                ratingOf[ordinal] = current.getAverage_rating();
+                nameKeyOf[ordinal] = nameKey(current.getName());
+                for (SortKey key : SortKey.values()) {
+                    int[] view = views.get(key);
+                    if (size == view.length) {
+                        view = Arrays.copyOf(view, Math.max(16, size * 2));
+                        views.put(key, view);
+                    }
+                    int position = insertionPoint(key, view, ordinal);
+                    System.arraycopy(view, position, view, position + 1, size - position);
+                    view[position] = ordinal;
+                }
+                size++;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ordinals of one page.
+     *
+     * @param key       The sort order.
+     * @param ascending True for ascending order, false for descending order.
+     * @param after     The cursor of the last product of the previous page, or null for the first page.
+     * @param limit     The maximum number of ordinals returned.
+     * @return The ordinals of the products following the cursor in the requested direction.
+     */
+    public int[] page(SortKey key, boolean ascending, CatalogCursor after, int limit) {
+        CollationKey afterName = after != null && key == SortKey.NAME ? nameKey(after.getSortValue()) : null;
+        double afterPrice = after != null && key != SortKey.NAME ? after.sortValueAsDouble() : 0;
+        lock.readLock().lock();
+        try {
+            int[] view = views.get(key);
+            int[] page = new int[Math.max(0, Math.min(limit, size))];
+            int count = 0;
+            if (ascending) {
+                // First position strictly after the cursor.
+                int position = after == null ? 0 : upperBound(key, view, afterPrice, afterName, after.getId());
+                for (; position < size && count < page.length; position++) {
+                    page[count++] = view[position];
+                }
+            } else {
+                // Last position strictly before the cursor.
+                int position = after == null ? size - 1 : lowerBound(key, view, afterPrice, afterName, after.getId()) - 1;
+                for (; position >= 0 && count < page.length; position--) {
+                    page[count++] = view[position];
+                }
+            }
+            return Arrays.copyOf(page, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Compares the product at an ordinal with a (sort value, id) probe.
+     */
+    private int compare(SortKey key, int ordinal, double price, CollationKey name, String id) {
+        int byValue;
+        switch (key) {
+            case PRICE:
+                byValue = Double.compare(priceOf[ordinal], price);
+                break;
+            case EFFECTIVE_PRICE:
+                byValue = Double.compare(effectivePriceOf[ordinal], price);
+                break;
+            case RATING:
+                byValue = Double.compare(ratingOf[ordinal], price);
+                break;
+            default:
+                byValue = nameKeyOf[ordinal].compareTo(name);
+        }
+        return byValue != 0 ? byValue : idOf[ordinal].compareTo(id);
+    }
+
+    /**
+     * First position whose product sorts at or after the probe.
+     */
+    private int lowerBound(SortKey key, int[] view, double price, CollationKey name, String id) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compare(key, view[middle], price, name, id) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * First position whose product sorts strictly after the probe.
+     */
+    private int upperBound(SortKey key, int[] view, double price, CollationKey name, String id) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compare(key, view[middle], price, name, id) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int find(SortKey key, int[] view, int ordinal) {
+        int position = insertionPoint(key, view, ordinal);
+        return position < size && view[position] == ordinal ? position : -1;
+    }
+
+    /**
+     * Position of the ordinal's own sort value and ID within the view.
+     */
+    private int insertionPoint(SortKey key, int[] view, int ordinal) {
+        double price;
+        switch (key) {
+            case EFFECTIVE_PRICE:
+                price = effectivePriceOf[ordinal];
+                break;
+            case RATING:
+                price = ratingOf[ordinal];
+                break;
+            default:
+                price = priceOf[ordinal];
+        }
+        return lowerBound(key, view, price, nameKeyOf[ordinal], idOf[ordinal]);
+    }
+
+    private CollationKey nameKey(String name) {
+        return collators.get().getCollationKey(name == null ? "" : name);
+    }
+}
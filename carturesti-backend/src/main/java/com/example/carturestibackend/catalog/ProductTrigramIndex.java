@@ -0,0 +1,355 @@
+package com.example.carturestibackend.catalog;
+
+import com.example.carturestibackend.dtos.ProductCatalogDTO;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Typo-tolerant lookup over the words of product names and authors.
+ * Every distinct word is split into padded trigrams ("$ab", "abc", ..., "yz$"); a misspelled word
+ * still shares most of its trigrams with the intended one, at nearly the same positions, so
+ * candidates are the words sharing enough aligned trigrams, and only those are checked with
+ * a bounded Levenshtein distance. The postings of each trigram are bucketed by word length,
+ * so a lookup only scans words whose length is within the allowed distance. Candidates are then
+ * screened by a bitmask of their letters; the survivors are compared against the characters of
+ * all words stored back to back in one array, which keeps the scan clear of scattered strings.
+ * Word ids are never reused: a word no product contains any more keeps its id with a zero
+ * frequency until the next full rebuild.
+ */
+@Component
+public class ProductTrigramIndex implements CatalogIndex {
+
+    private static final char PADDING = '$';
+    private static final int LONGEST_BUCKET = 32;
+
+    // Per-thread scratch space of the lookups, which would otherwise allocate on every keystroke.
+    private final ThreadLocal<int[]> sharedCounts = ThreadLocal.withInitial(() -> new int[0]);
+    private final ThreadLocal<Postings> touchedWords = ThreadLocal.withInitial(Postings::new);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<String, Integer> termIds = new HashMap<>();
+    private String[] terms = new String[0];
+    private int[] frequencies = new int[0];
+    private long[] signatures = new long[0];
+    private char[] characters = new char[0];
+    private int[] offsets = new int[1];
+    private int termCount;
+    private Map<String, Postings[]> trigrams = new HashMap<>();
+
+    /**
+     * Growable list of word ids, with the position of the trigram in each word.
+     */
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private byte[] positions = new byte[4];
+        private int size;
+
+        private void add(int id, int position) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                positions = Arrays.copyOf(positions, size * 2);
+            }
+            ids[size] = id;
+            positions[size++] = (byte) Math.min(position, Byte.MAX_VALUE);
+        }
+    }
+
+    @Override
+    public void rebuild(ProductCatalogDTO[] products) {
+        Map<String, Long> counted = Arrays.stream(products)
+                .parallel()
+                .filter(product -> product != null)
+                .flatMap(product -> words(product).stream())
+                .collect(Collectors.groupingByConcurrent(Function.identity(), Collectors.counting()));
+        String[] sorted = counted.keySet().toArray(new String[0]);
+        Arrays.sort(sorted);
+        Map<String, Integer> ids = new HashMap<>(sorted.length * 2);
+        int[] counts = new int[Math.max(16, sorted.length)];
+        long[] letters = new long[counts.length];
+        int[] starts = new int[counts.length + 1];
+        for (int id = 0; id < sorted.length; id++) {
+            starts[id + 1] = starts[id] + sorted[id].length();
+        }
+        char[] chars = new char[Math.max(16, starts[sorted.length])];
+        Map<String, Postings[]> grams = new HashMap<>();
+        for (int id = 0; id < sorted.length; id++) {
+            ids.put(sorted[id], id);
+            counts[id] = counted.get(sorted[id]).intValue();
+            letters[id] = signature(sorted[id]);
+            sorted[id].getChars(0, sorted[id].length(), chars, starts[id]);
+            addTrigrams(grams, sorted[id], id);
+        }
+        lock.writeLock().lock();
+        try {
+            termIds = ids;
+            terms = Arrays.copyOf(sorted, counts.length);
+            frequencies = counts;
+            signatures = letters;
+            characters = chars;
+            offsets = starts;
+            termCount = sorted.length;
+            trigrams = grams;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void update(int ordinal, ProductCatalogDTO previous, ProductCatalogDTO current) {
+        lock.writeLock().lock();
+        try {
+            if (previous != null) {
+                for (String word : words(previous)) {
+                    Integer id = termIds.get(word);
+                    if (id != null && frequencies[id] > 0) {
+                        frequencies[id]--;
+                    }
+                }
+            }
+            if (current != null) {
+                for (String word : words(current)) {
+                    Integer id = termIds.get(word);
+                    if (id == null) {
+                        id = addTerm(word);
+                    }
+                    frequencies[id]++;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int addTerm(String word) {
+        if (termCount == terms.length) {
+            terms = Arrays.copyOf(terms, Math.max(16, termCount * 2));
+            frequencies = Arrays.copyOf(frequencies, terms.length);
+            signatures = Arrays.copyOf(signatures, terms.length);
+            offsets = Arrays.copyOf(offsets, terms.length + 1);
+        }
+        int id = termCount++;
+        terms[id] = word;
+        signatures[id] = signature(word);
+        if (offsets[id] + word.length() > characters.length) {
+            characters = Arrays.copyOf(characters, Math.max(characters.length * 2, offsets[id] + word.length()));
+        }
+        word.getChars(0, word.length(), characters, offsets[id]);
+        offsets[id + 1] = offsets[id] + word.length();
+        termIds.put(word, id);
+        addTrigrams(trigrams, word, id);
+        return id;
+    }
+
+    private static void addTrigrams(Map<String, Postings[]> grams, String word, int id) {
+        int bucket = Math.min(word.length(), LONGEST_BUCKET);
+        List<String> wordGrams = trigramsOf(word);
+        for (int position = 0; position < wordGrams.size(); position++) {
+            Postings[] buckets = grams.computeIfAbsent(wordGrams.get(position), g -> new Postings[LONGEST_BUCKET + 1]);
+            if (buckets[bucket] == null) {
+                buckets[bucket] = new Postings();
+            }
+            buckets[bucket].add(id, position);
+        }
+    }
+
+    /**
+     * Finds the indexed words closest to a possibly misspelled word.
+     *
+     * @param word  The word as typed.
+     * @param limit The maximum number of words returned.
+     * @return Words within the allowed edit distance, closest and then most frequent first;
+     * the word itself when it is indexed.
+     */
+    public List<String> similarWords(String word, int limit) {
+        String token = TextNormalizer.normalize(word).trim();
+        if (token.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            Integer exact = termIds.get(token);
+            if (exact != null && frequencies[exact] > 0) {
+                return List.of(token);
+            }
+            int maxDistance = maxDistance(token.length());
+            if (maxDistance == 0) {
+                return Collections.emptyList();
+            }
+            List<String> grams = trigramsOf(token);
+            long tokenSignature = signature(token);
+            int[] shared = sharedCounts.get();
+            if (shared.length < termCount) {
+                shared = new int[terms.length];
+                sharedCounts.set(shared);
+            }
+            Postings touched = touchedWords.get();
+            touched.size = 0;
+            int[] previousRow = new int[token.length() + maxDistance + 1];
+            int[] currentRow = new int[previousRow.length];
+            List<int[]> matches = new ArrayList<>();
+            int shortest = Math.max(0, token.length() - maxDistance);
+            int longest = Math.min(LONGEST_BUCKET, token.length() + maxDistance);
+            for (int position = 0; position < grams.size(); position++) {
+                Postings[] buckets = trigrams.get(grams.get(position));
+                if (buckets == null) {
+                    continue;
+                }
+                for (int bucket = shortest; bucket <= longest; bucket++) {
+                    Postings postings = buckets[bucket];
+                    for (int i = 0; postings != null && i < postings.size; i++) {
+                        // Edits shift the trigrams that survive them by at most maxDistance positions.
+                        if (Math.abs(postings.positions[i] - position) > maxDistance) {
+                            continue;
+                        }
+                        int id = postings.ids[i];
+                        if (shared[id]++ == 0) {
+                            touched.add(id, bucket);
+                        }
+                    }
+                }
+            }
+            for (int i = 0; i < touched.size; i++) {
+                int id = touched.ids[i];
+                // A word of n letters has n padded trigrams and each edit changes at most three
+                // of them, so a close word shares all but 3 * maxDistance of the trigrams of both.
+                // The position of a touched word holds its length bucket.
+                boolean enoughShared = shared[id] >= Math.max(token.length(), touched.positions[i]) - 3 * maxDistance;
+                shared[id] = 0;
+                // Every letter one word has and the other lacks takes at least one edit.
+                if (!enoughShared
+                        || Long.bitCount(tokenSignature & ~signatures[id]) > maxDistance
+                        || Long.bitCount(signatures[id] & ~tokenSignature) > maxDistance
+                        || frequencies[id] == 0) {
+                    continue;
+                }
+                int distance = distance(token, characters, offsets[id], offsets[id + 1], maxDistance, previousRow, currentRow);
+                if (distance <= maxDistance) {
+                    matches.add(new int[]{distance, id});
+                }
+            }
+            return matches.stream()
+                    .sorted((a, b) -> a[0] != b[0] ? Integer.compare(a[0], b[0])
+                            : frequencies[a[1]] != frequencies[b[1]] ? Integer.compare(frequencies[b[1]], frequencies[a[1]])
+                            : terms[a[1]].compareTo(terms[b[1]]))
+                    .limit(limit)
+                    .map(match -> terms[match[1]])
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Suggests a corrected query by replacing every word that matches no name or author
+     * with its closest indexed word.
+     *
+     * @param query The query as typed.
+     * @return The normalized corrected query, or null when no word needed or allowed a correction.
+     */
+    public String suggest(String query) {
+        List<String> words = TextNormalizer.tokenize(query);
+        boolean corrected = false;
+        List<String> suggestion = new ArrayList<>(words.size());
+        for (String word : words) {
+            List<String> similar = similarWords(word, 1);
+            if (!similar.isEmpty() && !similar.get(0).equals(word)) {
+                corrected = true;
+                suggestion.add(similar.get(0));
+            } else {
+                suggestion.add(word);
+            }
+        }
+        return corrected ? String.join(" ", suggestion) : null;
+    }
+
+    /**
+     * Edit distance allowed for a word of the given length: none for very short words,
+     * where almost every other short word would be a match.
+     */
+    static int maxDistance(int length) {
+        return length <= 3 ? 0 : length <= 5 ? 1 : 2;
+    }
+
+    static int distance(String a, String b, int max) {
+        return distance(a, b.toCharArray(), 0, b.length(), max, new int[b.length() + 1], new int[b.length() + 1]);
+    }
+
+    /**
+     * Levenshtein distance between a word and the characters from..to of an array,
+     * or max + 1 as soon as it is known to exceed max. Only the cells within max of the
+     * diagonal are computed; the others cannot lead to a distance within the bound.
+     * The two rows must hold at least to - from + 1 cells.
+     */
+    private static int distance(String a, char[] chars, int from, int to, int max, int[] previous, int[] current) {
+        int n = a.length();
+        int m = to - from;
+        if (Math.abs(n - m) > max) {
+            return max + 1;
+        }
+        int beyond = max + 1;
+        for (int j = 0; j <= m; j++) {
+            previous[j] = Math.min(j, beyond);
+        }
+        for (int i = 1; i <= n; i++) {
+            int first = Math.max(1, i - max);
+            int last = Math.min(m, i + max);
+            current[first - 1] = first == 1 ? Math.min(i, beyond) : beyond;
+            int rowMin = current[first - 1];
+            char ca = a.charAt(i - 1);
+            for (int j = first; j <= last; j++) {
+                int cost = ca == chars[from + j - 1] ? 0 : 1;
+                int value = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                current[j] = Math.min(value, beyond);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (last < m) {
+                current[last + 1] = beyond;
+            }
+            if (rowMin > max) {
+                return beyond;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[m];
+    }
+
+    /**
+     * Bitmask of the letters of a word, folded into 64 bits.
+     */
+    private static long signature(String word) {
+        long signature = 0L;
+        for (int i = 0; i < word.length(); i++) {
+            signature |= 1L << (word.charAt(i) & 63);
+        }
+        return signature;
+    }
+
+    static List<String> trigramsOf(String word) {
+        String padded = PADDING + word + PADDING;
+        List<String> grams = new ArrayList<>(word.length());
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    private static Set<String> words(ProductCatalogDTO product) {
+        Set<String> words = new LinkedHashSet<>(TextNormalizer.tokenize(product.getName()));
+        words.addAll(TextNormalizer.tokenize(product.getAuthor()));
+        return words;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.carturestibackend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class BillJobConfig {
+
+    public static final String BILL_GENERATION_EXECUTOR = "billGenerationExecutor";
+    public static final String BILL_EXPORT_EXECUTOR = "billExportExecutor";
+
+    /**
+     * The bounded pool rendering bills for BillJobService, one thread per core by default since
+     * rendering is CPU bound. Its queue holds job runners, not individual orders.
+     */
+    @Bean(name = BILL_GENERATION_EXECUTOR)
+    public ThreadPoolTaskExecutor billGenerationExecutor(@Value("${bill.jobs.workers:0}") int workers,
+                                                        @Value("${bill.jobs.queue-capacity:100}") int queueCapacity) {
+        return boundedPool(workers, queueCapacity, "bill-generation-");
+    }
+
+    /**
+     * The bounded pool rendering bills ahead of the ZIP exports of BillExportService, apart from the
+     * bill jobs so that an export and the jobs never queue behind each other. Its queue holds single
+     * renders; BillExportService renders on the exporting thread whatever the pool rejects.
+     */
+    @Bean(name = BILL_EXPORT_EXECUTOR)
+    public ThreadPoolTaskExecutor billExportExecutor(@Value("${bill.export.workers:0}") int workers,
+                                                     @Value("${bill.export.queue-capacity:100}") int queueCapacity) {
+        return boundedPool(workers, queueCapacity, "bill-export-");
+    }
+
+    private static ThreadPoolTaskExecutor boundedPool(int workers, int queueCapacity, String threadNamePrefix) {
+        int threads = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        return executor;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.carturestibackend.config;
+
+import com.example.carturestibackend.dtos.NotificationRequestDTO;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Hands notifications to the message broker. Implemented over RabbitMQ by RabbitNotificationTransport;
+ * tests plug in an in-process stand-in.
+ */
+public interface NotificationTransport {
+
+    /**
+     * Publishes a notification without waiting for the broker.
+     *
+     * @param correlationId Identifies this publication in the confirm.
+     * @param payload       The notification.
+     * @return Completes with true when the broker confirms the message and false when it rejects it.
+     */
+    CompletableFuture<Boolean> publish(String correlationId, NotificationRequestDTO payload);
+}
@@ -0,0 +1,27 @@
+package com.example.carturestibackend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class OrderPlacementConfig {
+
+    public static final String ORDER_PLACEMENT_EXECUTOR = "orderPlacementExecutor";
+
+    /**
+     * The bounded pool running OrderPlacementWorker.drain(). At most one drain per worker thread is
+     * ever submitted, so the pool never rejects one.
+     */
+    @Bean(name = ORDER_PLACEMENT_EXECUTOR)
+    public ThreadPoolTaskExecutor orderPlacementExecutor(@Value("${order.placement.workers:4}") int workers) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(workers);
+        executor.setThreadNamePrefix("order-placement-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.carturestibackend.config;
+
+import com.example.carturestibackend.dtos.NotificationRequestDTO;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+
+import static com.example.carturestibackend.config.AMQPConfig.EXCHANGE_NAME;
+import static com.example.carturestibackend.config.AMQPConfig.ROUTING_KEY;
+
+/**
+ * Publishes to {@link AMQPConfig#EXCHANGE_NAME} with correlated publisher confirms. Every publication
+ * borrows a channel from the channel cache of the connection factory and gives it back right away,
+ * so concurrent publishers share a pool of channels instead of opening one each.
+ */
+@Component
+public class RabbitNotificationTransport implements NotificationTransport {
+
+    private final RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    public RabbitNotificationTransport(RabbitTemplate rabbitTemplate) {
+        this.rabbitTemplate = rabbitTemplate;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> publish(String correlationId, NotificationRequestDTO payload) {
+        CorrelationData correlation = new CorrelationData(correlationId);
+        rabbitTemplate.convertAndSend(EXCHANGE_NAME, ROUTING_KEY, payload, correlation);
+        return correlation.getFuture().thenApply(CorrelationData.Confirm::isAck);
+    }
+}
@@ -1,23 +1,39 @@
 package com.example.carturestibackend.config;
 
 import com.example.carturestibackend.dtos.NotificationRequestDTO;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import com.example.carturestibackend.entities.OutboxMessage;
+import com.example.carturestibackend.repositories.OutboxMessageRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import static com.example.carturestibackend.config.AMQPConfig.EXCHANGE_NAME;
-import static com.example.carturestibackend.config.AMQPConfig.ROUTING_KEY;
+import java.time.LocalDateTime;
 
 
 @Component
 public class RabbitSender {
 
     @Autowired
-    private RabbitTemplate rabbitTemplate;
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
 
 
+    /**
+     * Writes the notification to the outbox in the caller's transaction; NotificationOutboxRelay
+     * publishes it once that transaction has committed. Never waits on the broker.
+     */
     public void send(NotificationRequestDTO payload) {
-        rabbitTemplate.convertAndSend(EXCHANGE_NAME, ROUTING_KEY, payload);
+        try {
+            outboxMessageRepository.save(OutboxMessage.builder()
+                    .payload(objectMapper.writeValueAsString(payload))
+                    .created_at(LocalDateTime.now())
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Notification cannot be serialized: " + e.getMessage(), e);
+        }
     }
 }
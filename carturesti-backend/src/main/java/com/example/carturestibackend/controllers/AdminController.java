@@ -1,13 +1,25 @@
 package com.example.carturestibackend.controllers;
 
 import com.example.carturestibackend.services.AuthService;
+import com.example.carturestibackend.services.BillExportService;
+import com.example.carturestibackend.services.SalesAnalyticsService;
+import com.example.carturestibackend.strategy.BillFormat;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.ModelAndView;
 
+import java.io.IOException;
+import java.time.LocalDate;
+
 /**
  * Controller class for handling admin-related requests and rendering admin pages.
  */
@@ -16,10 +28,14 @@ import org.springframework.web.servlet.ModelAndView;
 public class AdminController {
 
     private final AuthService authService;
+    private final BillExportService billExportService;
+    private final SalesAnalyticsService salesAnalyticsService;
 
     @Autowired
-    public AdminController(AuthService authService) {
+    public AdminController(AuthService authService, BillExportService billExportService, SalesAnalyticsService salesAnalyticsService) {
         this.authService = authService;
+        this.billExportService = billExportService;
+        this.salesAnalyticsService = salesAnalyticsService;
     }
 
     /**
@@ -50,5 +66,76 @@ public class AdminController {
         return modelAndView;
     }
 
+    /**
+     * Streams a ZIP archive with the bills of every order placed in a date range.
+     *
+     * @param from     The first order date, inclusive.
+     * @param to       The last order date, inclusive.
+     * @param format   The format of the bills: pdf, txt or csv.
+     * @param request  The HttpServletRequest object representing the client request.
+     * @param response The response the archive is written to; 403 if the user is not an admin, 400 if the
+     *                 range is empty or the format unknown.
+     */
+    @GetMapping("/admin/bills/export")
+    public void exportBills(@RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                            @RequestParam(value = "format", defaultValue = "pdf") String format,
+                            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!authService.isAdmin(request)) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+        if (from.isAfter(to)) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "The start date " + from + " is after the end date " + to);
+            return;
+        }
+        BillFormat billFormat;
+        try {
+            billFormat = BillFormat.fromExtension(format);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+        response.setContentType("application/zip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("bills-" + from + "-" + to + "-" + billFormat.getExtension() + ".zip")
+                .build()
+                .toString());
+        billExportService.exportBills(from, to, billFormat, response.getOutputStream());
+    }
+
+    /**
+     * Renders the sales dashboard from the sales read model.
+     *
+     * @param from    The first order date of the revenue per day; defaults to 30 days ago.
+     * @param to      The last order date of the revenue per day; defaults to today.
+     * @param limit   The number of products, authors and categories ranked.
+     * @param request The HttpServletRequest object representing the client request.
+     * @return A ModelAndView object representing the sales view, or a redirect to the login page if the user is not an admin.
+     */
+    @GetMapping("/admin/sales")
+    public ModelAndView salesDashboard(@RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                       @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                       @RequestParam(value = "limit", defaultValue = "10") int limit,
+                                       HttpServletRequest request) {
+        if (!authService.isAdmin(request)) {
+            return new ModelAndView("redirect:/login");
+        }
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(30);
+        ModelAndView modelAndView = new ModelAndView("sales");
+        modelAndView.addObject("dashboard", salesAnalyticsService.getDashboard(start, end, limit));
+        modelAndView.addObject("from", start);
+        modelAndView.addObject("to", end);
+        return modelAndView;
+    }
 
+    @PostMapping("/admin/sales/rebuild")
+    public ModelAndView rebuildSales(HttpServletRequest request) {
+        if (!authService.isAdmin(request)) {
+            return new ModelAndView("redirect:/login");
+        }
+        salesAnalyticsService.rebuild();
+        return new ModelAndView("redirect:/admin/sales");
+    }
 }
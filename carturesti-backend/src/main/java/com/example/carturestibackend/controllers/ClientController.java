@@ -1,6 +1,6 @@
 package com.example.carturestibackend.controllers;
 
-import com.example.carturestibackend.dtos.ProductDTO;
+import com.example.carturestibackend.dtos.CatalogPageDTO;
 import com.example.carturestibackend.services.AuthService;
 import com.example.carturestibackend.services.ProductService;
 import jakarta.servlet.http.HttpServletRequest;
@@ -9,9 +9,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.ModelAndView;
-
-import java.util.List;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 /**
  * Controller class for handling client-related requests and rendering client pages.
@@ -31,12 +31,15 @@ public class ClientController {
      * Renders the client page with user-specific information and products.
      *
      * @param userId  The ID of the logged-in user.
+     * @param cursor  The cursor of the requested product page, or null for the first page.
+     * @param size    The maximum number of products on the page.
      * @param request The HttpServletRequest object representing the client request.
      * @return ModelAndView object representing the view and model for the client page.
      */
 
     @GetMapping("/client/{userId}")
-    public ModelAndView clientPage(@PathVariable String userId, HttpServletRequest request) {
+    public ModelAndView clientPage(@PathVariable String userId, @RequestParam(required = false) String cursor,
+                                   @RequestParam(defaultValue = "24") int size, HttpServletRequest request) {
         ModelAndView modelAndView = new ModelAndView();
         HttpSession session = request.getSession(false);
 
@@ -54,8 +57,13 @@ public class ClientController {
         String cartId = (String) session.getAttribute("cartId");
         modelAndView.addObject("cartId", cartId);
 
-        List<ProductDTO> products = productService.findProducts();
-        modelAndView.addObject("products", products);
+        CatalogPageDTO page = productService.findProductPage(cursor, size);
+        modelAndView.addObject("products", page.getProducts());
+        if (page.getNextCursor() != null) {
+            modelAndView.addObject("nextPageUrl", ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("cursor", page.getNextCursor())
+                    .toUriString());
+        }
 
         // Add user ID to the model
         modelAndView.addObject("userId", userId);
@@ -0,0 +1,66 @@
+package com.example.carturestibackend.controllers;
+
+import com.example.carturestibackend.services.AuthService;
+import com.example.carturestibackend.services.ExportService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.io.IOException;
+
+/**
+ * Controller class streaming whole tables to admins as CSV or JSON lines files.
+ */
+@Controller
+@RequestMapping(value = "/export")
+public class ExportController {
+
+    private final AuthService authService;
+    private final ExportService exportService;
+
+    @Autowired
+    public ExportController(AuthService authService, ExportService exportService) {
+        this.authService = authService;
+        this.exportService = exportService;
+    }
+
+    /**
+     * Streams every row of a dataset straight into the response.
+     *
+     * @param dataset  The dataset to export: orders, order-items or products.
+     * @param format   The format of the file: csv or jsonl.
+     * @param request  The HttpServletRequest object representing the client request.
+     * @param response The response the rows are written to; 403 if the user is not an admin, 400 if the
+     *                 dataset or the format is unknown.
+     */
+    @GetMapping("/{dataset}")
+    public void export(@PathVariable("dataset") String dataset, @RequestParam(value = "format", defaultValue = "csv") String format,
+                       HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!authService.isAdmin(request)) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+        ExportService.Dataset exportDataset;
+        ExportService.Format exportFormat;
+        try {
+            exportDataset = ExportService.Dataset.fromName(dataset);
+            exportFormat = ExportService.Format.fromExtension(format);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+        response.setContentType(exportFormat.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(dataset.toLowerCase() + "." + exportFormat.getExtension())
+                .build()
+                .toString());
+        exportService.export(exportDataset, exportFormat, response.getOutputStream());
+    }
+}
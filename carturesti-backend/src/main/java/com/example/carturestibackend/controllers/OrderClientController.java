@@ -1,6 +1,6 @@
 package com.example.carturestibackend.controllers;
 
-import com.example.carturestibackend.dtos.ProductDTO;
+import com.example.carturestibackend.dtos.ProductCatalogDTO;
 import com.example.carturestibackend.services.OrderService;
 import com.example.carturestibackend.services.ProductService;
 import org.slf4j.Logger;
@@ -42,7 +42,7 @@ public class OrderClientController {
     public ModelAndView orderclientPage() {
         ModelAndView modelAndView = new ModelAndView();
 
-        List<ProductDTO> products = productService.findProducts();
+        List<ProductCatalogDTO> products = productService.findProducts();
 
         modelAndView.addObject("products", products);
 
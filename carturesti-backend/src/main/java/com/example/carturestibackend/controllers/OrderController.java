@@ -2,9 +2,16 @@ package com.example.carturestibackend.controllers;
 
 import com.example.carturestibackend.constants.OrderItemLogger;
 import com.example.carturestibackend.constants.OrderLogger;
+import com.example.carturestibackend.dtos.BillJobDTO;
+import com.example.carturestibackend.dtos.NotificationPublisherStatsDTO;
 import com.example.carturestibackend.dtos.OrderDTO;
 import com.example.carturestibackend.dtos.OrderItemDTO;
+import com.example.carturestibackend.dtos.OrderStatusDTO;
+import com.example.carturestibackend.services.BatchingNotificationPublisher;
+import com.example.carturestibackend.services.BillJobService;
+import com.example.carturestibackend.services.OrderPlacementService;
 import com.example.carturestibackend.services.OrderService;
+import com.example.carturestibackend.strategy.BillFormat;
 import com.example.carturestibackend.strategy.CsvFileGenerationStrategy;
 import com.example.carturestibackend.strategy.FileGenerator;
 import com.example.carturestibackend.strategy.PdfFileGenerationStrategy;
@@ -12,6 +19,10 @@ import com.example.carturestibackend.strategy.TxtFileGenerationStrategy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Controller;
@@ -19,9 +30,11 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.ModelAndView;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 
@@ -35,16 +48,35 @@ public class OrderController {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(OrderController.class);
 
+    /**
+     * Retries of a checkout carry the key of the first attempt, as this header or as the idempotencyKey form field.
+     */
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final OrderService orderService;
+    private final OrderPlacementService orderPlacementService;
+    private final BatchingNotificationPublisher batchingNotificationPublisher;
+    private final BillJobService billJobService;
+    private final boolean asyncPlacement;
 
     /**
      * Constructs a new OrderController with the specified OrderService.
      *
-     * @param orderService The OrderService used to handle order-related business logic.
+     * @param orderService                  The OrderService used to handle order-related business logic.
+     * @param orderPlacementService         Places orders asynchronously.
+     * @param batchingNotificationPublisher Publishes the order notifications.
+     * @param billJobService                Generates and emails bills in the background.
+     * @param asyncPlacement                Whether /order/place returns before the order is completed.
      */
     @Autowired
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, OrderPlacementService orderPlacementService,
+                           BatchingNotificationPublisher batchingNotificationPublisher, BillJobService billJobService,
+                           @Value("${order.placement.async:false}") boolean asyncPlacement) {
         this.orderService = orderService;
+        this.orderPlacementService = orderPlacementService;
+        this.batchingNotificationPublisher = batchingNotificationPublisher;
+        this.billJobService = billJobService;
+        this.asyncPlacement = asyncPlacement;
     }
 
     /**
@@ -76,8 +108,10 @@ public class OrderController {
      * @return A ModelAndView containing the ID of the newly inserted order.
      */
     @PostMapping("/insert")
-    public ModelAndView insertOrder(@Valid @ModelAttribute OrderDTO orderDTO) {
-        String orderID = orderService.insert(orderDTO);
+    public ModelAndView insertOrder(@Valid @ModelAttribute OrderDTO orderDTO,
+                                    @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKeyHeader,
+                                    @RequestParam(value = "idempotencyKey", required = false) String idempotencyKey) {
+        String orderID = orderService.insert(orderDTO, idempotencyKeyHeader != null ? idempotencyKeyHeader : idempotencyKey);
         LOGGER.debug(OrderLogger.ORDER_INSERTED, orderID);
         ModelAndView modelAndView = new ModelAndView("/order");
         modelAndView.addObject("orderID", orderID);
@@ -85,35 +119,106 @@ public class OrderController {
     }
 
     @PostMapping("/place")
-    public ModelAndView placeOrder(@RequestParam("userId") String userId, @Validated OrderDTO orderDTO) {
-        String orderID = orderService.placeOrder(userId, (orderDTO)); // Asumând că metoda placeOrder acceptă și user ID-ul
-        LOGGER.debug(OrderLogger.ORDER_PLACED, orderID);
+    public ModelAndView placeOrder(@RequestParam("userId") String userId, @Validated OrderDTO orderDTO,
+                                   @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKeyHeader,
+                                   @RequestParam(value = "idempotencyKey", required = false) String idempotencyKey) {
+        String key = idempotencyKeyHeader != null ? idempotencyKeyHeader : idempotencyKey;
         ModelAndView modelAndView = new ModelAndView("/orderplaced");
-        modelAndView.addObject("orderID", orderID);
+        if (asyncPlacement) {
+            OrderStatusDTO order = orderPlacementService.submit(userId, orderDTO, key);
+            LOGGER.debug(OrderLogger.ORDER_PLACED, order.getId_order());
+            modelAndView.addObject("orderID", order.getId_order());
+            modelAndView.addObject("status", order.getStatus());
+        } else {
+            String orderID = orderService.placeOrder(userId, (orderDTO), key); // Asumând că metoda placeOrder acceptă și user ID-ul
+            LOGGER.debug(OrderLogger.ORDER_PLACED, orderID);
+            modelAndView.addObject("orderID", orderID);
+        }
         return modelAndView;
     }
 
+    /**
+     * Retrieves the status of an order, polled by the order placed page until it leaves PENDING.
+     *
+     * @param orderID The ID of the order.
+     * @return A ResponseEntity containing the OrderStatusDTO of the order.
+     */
+    @GetMapping("/status/{id_order}")
+    public ResponseEntity<OrderStatusDTO> getOrderStatus(@PathVariable("id_order") String orderID) {
+        return ResponseEntity.ok(orderService.findOrderStatus(orderID));
+    }
+
+    /**
+     * Retrieves the in-flight, retry and confirm latency counters of the notification publisher.
+     *
+     * @return A ResponseEntity containing the current publisher statistics.
+     */
+    @GetMapping("/notifications/stats")
+    public ResponseEntity<NotificationPublisherStatsDTO> getNotificationStats() {
+        return ResponseEntity.ok(batchingNotificationPublisher.getStats());
+    }
+
+    /**
+     * Streams the bill of an order straight to the client, without storing it.
+     *
+     * @param orderID  The ID of the order.
+     * @param format   The format of the bill: pdf, txt or csv.
+     * @param response The response the bill is written to.
+     */
+    @GetMapping("/bill/{id_order}")
+    public void downloadBill(@PathVariable("id_order") String orderID, @RequestParam(value = "format", defaultValue = "pdf") String format,
+                             HttpServletResponse response) throws IOException {
+        BillFormat billFormat = BillFormat.fromExtension(format);
+        response.setContentType(billFormat.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("bill-" + orderID + "." + billFormat.getExtension())
+                .build()
+                .toString());
+        orderService.writeBill(orderID, billFormat, response.getOutputStream());
+    }
+
     @PostMapping("/generateAndSendPdf")
     public ResponseEntity<String> generateAndSendPdf(@RequestParam String orderId) {
-        orderService.generateAndSendPdf(orderId);
-        return ResponseEntity.ok("PDF generated and sent successfully");
+        BillJobDTO job = billJobService.submit(List.of(orderId), BillFormat.PDF);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body("PDF bill job " + job.getId_job() + " started");
     }
 
     @PostMapping("/generateAndSendTxt")
     public ResponseEntity<String> generateAndSendTxt(@RequestParam String orderId) {
-        orderService.generateAndSendTxt(orderId);
-        return ResponseEntity.ok("TXT generated and sent successfully");
+        BillJobDTO job = billJobService.submit(List.of(orderId), BillFormat.TXT);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body("TXT bill job " + job.getId_job() + " started");
     }
 
     @PostMapping("/generateAndSendCsv")
     public ResponseEntity<String> generateAndSendCsv(@RequestParam String orderId) {
-        orderService.generateAndSendCsv(orderId);
-        return ResponseEntity.ok("CSV generated and sent successfully");
+        BillJobDTO job = billJobService.submit(List.of(orderId), BillFormat.CSV);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body("CSV bill job " + job.getId_job() + " started");
+    }
+
+    /**
+     * Starts generating and emailing the bills of one or many orders in the background.
+     *
+     * @param orderIds The IDs of the orders.
+     * @param format   The format of the bills: pdf, txt or csv.
+     * @return The initial progress of the job, to be polled at /order/bills/jobs/{id_job}.
+     */
+    @PostMapping("/bills/jobs")
+    public ResponseEntity<BillJobDTO> startBillJob(@RequestParam("orderIds") List<String> orderIds,
+                                                   @RequestParam(value = "format", defaultValue = "pdf") String format) {
+        BillJobDTO job = billJobService.submit(orderIds, BillFormat.fromExtension(format));
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
+    @GetMapping("/bills/jobs/{id_job}")
+    public ResponseEntity<BillJobDTO> getBillJob(@PathVariable("id_job") String jobId) {
+        return ResponseEntity.ok(billJobService.findJob(jobId));
     }
 
     @PostMapping("/insert2")
-    public ModelAndView insertOrderClient(@Valid @ModelAttribute OrderDTO orderDTO) {
-        String orderID = orderService.insert(orderDTO);
+    public ModelAndView insertOrderClient(@Valid @ModelAttribute OrderDTO orderDTO,
+                                          @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKeyHeader,
+                                          @RequestParam(value = "idempotencyKey", required = false) String idempotencyKey) {
+        String orderID = orderService.insert(orderDTO, idempotencyKeyHeader != null ? idempotencyKeyHeader : idempotencyKey);
         LOGGER.debug(OrderLogger.ORDER_INSERTED, orderID);
         ModelAndView modelAndView = new ModelAndView("/order");
         modelAndView.addObject("orderID", orderID);
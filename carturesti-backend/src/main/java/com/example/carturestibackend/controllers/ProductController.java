@@ -1,14 +1,24 @@
 package com.example.carturestibackend.controllers;
 
+import com.example.carturestibackend.catalog.ProductCatalogCache;
 import com.example.carturestibackend.constants.ProductLogger;
 import com.example.carturestibackend.constants.UserLogger;
+import com.example.carturestibackend.dtos.CatalogCacheStatsDTO;
+import com.example.carturestibackend.dtos.CatalogPageDTO;
 import com.example.carturestibackend.dtos.CategoryDTO;
+import com.example.carturestibackend.dtos.FlashSaleDTO;
+import com.example.carturestibackend.dtos.ProductCatalogDTO;
 import com.example.carturestibackend.dtos.ProductDTO;
+import com.example.carturestibackend.dtos.ProductFacetsDTO;
+import com.example.carturestibackend.dtos.ProductFilterDTO;
+import com.example.carturestibackend.dtos.ProductRatingDTO;
 import com.example.carturestibackend.dtos.UserDTO;
 import com.example.carturestibackend.entities.Category;
 import com.example.carturestibackend.entities.Product;
 import com.example.carturestibackend.entities.Review;
 import com.example.carturestibackend.services.CategoryService;
+import com.example.carturestibackend.services.FlashSaleInventory;
+import com.example.carturestibackend.services.ProductRatingService;
 import com.example.carturestibackend.services.ProductService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,6 +28,7 @@ import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import jakarta.validation.Valid;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
@@ -38,63 +49,159 @@ public class ProductController {
 
     private final ProductService productService;
     private final CategoryService categoryService;
+    private final ProductCatalogCache productCatalogCache;
+    private final FlashSaleInventory flashSaleInventory;
+    private final ProductRatingService productRatingService;
 
     /**
      * Constructs a new ProductController with the specified ProductService.
      *
-     * @param productService  The ProductService used to handle product-related business logic.
+     * @param productService      The ProductService used to handle product-related business logic.
      * @param categoryService
+     * @param productCatalogCache The cache in front of the catalog reads, exposed for its statistics.
+     * @param flashSaleInventory  Puts hot products in and out of flash-sale mode.
+     * @param productRatingService Reads the rating aggregates of the products.
      */
     @Autowired
-    public ProductController(ProductService productService, CategoryService categoryService) {
+    public ProductController(ProductService productService, CategoryService categoryService, ProductCatalogCache productCatalogCache, FlashSaleInventory flashSaleInventory, ProductRatingService productRatingService) {
         this.productService = productService;
         this.categoryService = categoryService;
+        this.productCatalogCache = productCatalogCache;
+        this.flashSaleInventory = flashSaleInventory;
+        this.productRatingService = productRatingService;
     }
 
     /**
-     * Retrieves all products.
+     * Retrieves one page of products.
      *
-     * @return A ModelAndView containing a list of ProductDTO objects representing the products.
+     * @param cursor The cursor of the requested page, or null for the first page.
+     * @param size   The maximum number of products on the page.
+     * @return A ModelAndView containing a page of ProductCatalogDTO objects and the link to the next page.
      */
     @GetMapping()
-    public ModelAndView getProducts() {
+    public ModelAndView getProducts(@RequestParam(required = false) String cursor, @RequestParam(defaultValue = "24") int size) {
         LOGGER.info(ProductLogger.ALL_PRODUCTS_RETRIEVED);
-        List<ProductDTO> dtos = productService.findProducts();
-        ModelAndView modelAndView = new ModelAndView("/product");
-        modelAndView.addObject("products", dtos);
-        return modelAndView;
+        return pageView("/product", productService.findProductPage(cursor, size));
+    }
+
+    /**
+     * Retrieves the hit, miss and eviction counters of the catalog cache.
+     *
+     * @return A ResponseEntity containing the current cache statistics.
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<CatalogCacheStatsDTO> getCacheStats() {
+        return ResponseEntity.ok(productCatalogCache.getStats());
+    }
+
+    /**
+     * Lists the products in flash-sale mode.
+     *
+     * @return A ResponseEntity containing the state of every flash sale.
+     */
+    @GetMapping("/flashsale")
+    public ResponseEntity<List<FlashSaleDTO>> getFlashSales() {
+        return ResponseEntity.ok(flashSaleInventory.findFlashSales());
+    }
+
+    /**
+     * Puts a product in flash-sale mode: its stock moves to in-memory shards until the sale is stopped.
+     *
+     * @param productId The ID of the product.
+     * @return A ResponseEntity containing the state of the sale.
+     */
+    @PostMapping("/flashsale/{id_product}")
+    public ResponseEntity<FlashSaleDTO> startFlashSale(@PathVariable("id_product") String productId) {
+        return ResponseEntity.ok(flashSaleInventory.start(productId));
+    }
+
+    /**
+     * Takes a product out of flash-sale mode.
+     *
+     * @param productId The ID of the product.
+     * @return A ResponseEntity containing the state of the sale when it was stopped.
+     */
+    @DeleteMapping("/flashsale/{id_product}")
+    public ResponseEntity<FlashSaleDTO> stopFlashSale(@PathVariable("id_product") String productId) {
+        return ResponseEntity.ok(flashSaleInventory.stop(productId));
     }
 
     @GetMapping("/categoryname")
-    public ModelAndView getProductsByCategoryName(@RequestParam String categoryName) {
-        List<Product> products = productService.getProductsByCategoryName(categoryName);
-        ModelAndView modelAndView = new ModelAndView("/client");
-        modelAndView.addObject("products", products);
-        return modelAndView;
+    public ModelAndView getProductsByCategoryName(@RequestParam String categoryName, @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "24") int size) {
+        return pageView("/client", productService.getProductsByCategoryName(categoryName, cursor, size));
     }
 
 
     @GetMapping("/search")
-    public ModelAndView searchProducts(@RequestParam String keyword) {
-        List<Product> products = productService.searchProducts(keyword);
-        ModelAndView modelAndView = new ModelAndView("/client");
-        modelAndView.addObject("products", products);
-        return modelAndView;
+    public ModelAndView searchProducts(@RequestParam String keyword, @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "24") int size) {
+        return pageView("/client", productService.searchProducts(keyword, cursor, size));
+    }
+
+    /**
+     * Suggests product names and authors for the search box.
+     *
+     * @param prefix The text typed so far.
+     * @param limit  The maximum number of suggestions.
+     * @return A ResponseEntity containing the suggestions, most common first.
+     */
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<String>> autocomplete(@RequestParam String prefix, @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(productService.autocomplete(prefix, limit));
+    }
+
+    /**
+     * Filters products on any combination of category, author, price range, promotion and stock.
+     *
+     * @param filter The filter, bound from the query parameters.
+     * @param cursor The cursor of the requested page, or null for the first page.
+     * @param size   The maximum number of products on the page.
+     * @return A ResponseEntity containing a page of matching products and the facet counts.
+     */
+    @GetMapping("/filter")
+    public ResponseEntity<ProductFacetsDTO> filterProducts(@ModelAttribute ProductFilterDTO filter, @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "24") int size) {
+        return ResponseEntity.ok(productService.filterProducts(filter, cursor, size));
     }
 
     @GetMapping("/sortprice")
-    public ModelAndView getProductsSortedByPrice(@RequestParam(defaultValue = "true") boolean ascending) {
-        List<Product> products = productService.getProductsSortedByPrice(ascending);
-        ModelAndView modelAndView = new ModelAndView("/client");
-        modelAndView.addObject("products", products);
-        return modelAndView;
+    public ModelAndView getProductsSortedByPrice(@RequestParam(defaultValue = "true") boolean ascending, @RequestParam(defaultValue = "false") boolean effective, @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "24") int size) {
+        return pageView("/client", productService.getProductsSortedByPrice(ascending, effective, cursor, size));
+    }
+
+    @GetMapping("/sortrating")
+    public ModelAndView getProductsSortedByRating(@RequestParam(defaultValue = "false") boolean ascending, @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "24") int size) {
+        return pageView("/client", productService.getProductsSortedByRating(ascending, cursor, size));
+    }
+
+    /**
+     * Retrieves the review count, average rating and rating histogram of a product, without loading its reviews.
+     *
+     * @param productId The ID of the product.
+     * @return A ResponseEntity containing the ProductRatingDTO.
+     */
+    @GetMapping("/rating/{id_product}")
+    public ResponseEntity<ProductRatingDTO> getProductRating(@PathVariable("id_product") String productId) {
+        return ResponseEntity.ok(productRatingService.findRating(productId));
     }
 
     @GetMapping("/sortname")
-    public ModelAndView getProductsSortedByName(@RequestParam(defaultValue = "true") boolean ascending) {
-        List<Product> products = productService.getProductsSortedByName(ascending);
-        ModelAndView modelAndView = new ModelAndView("/client");
-        modelAndView.addObject("products", products);
+    public ModelAndView getProductsSortedByName(@RequestParam(defaultValue = "true") boolean ascending, @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "24") int size) {
+        return pageView("/client", productService.getProductsSortedByName(ascending, cursor, size));
+    }
+
+    /**
+     * Builds the view for a catalog page; the next-page link repeats the current query with the new cursor.
+     */
+    private ModelAndView pageView(String viewName, CatalogPageDTO page) {
+        ModelAndView modelAndView = new ModelAndView(viewName);
+        modelAndView.addObject("products", page.getProducts());
+        if (page.getSuggestion() != null) {
+            modelAndView.addObject("suggestion", page.getSuggestion());
+        }
+        if (page.getNextCursor() != null) {
+            modelAndView.addObject("nextPageUrl", ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("cursor", page.getNextCursor())
+                    .toUriString());
+        }
         return modelAndView;
     }
 
@@ -3,6 +3,7 @@ package com.example.carturestibackend.controllers;
 import com.example.carturestibackend.constants.ReviewLogger;
 import com.example.carturestibackend.constants.UserLogger;
 import com.example.carturestibackend.dtos.ReviewDTO;
+import com.example.carturestibackend.dtos.ReviewPageDTO;
 import com.example.carturestibackend.dtos.UserDTO;
 import com.example.carturestibackend.services.ProductService;
 import com.example.carturestibackend.services.ReviewService;
@@ -16,12 +17,11 @@ import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import jakarta.validation.Valid;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.util.List;
-
 /**
  * Controller class to handle HTTP requests related to reviews.
  */
@@ -51,16 +51,58 @@ public class ReviewController {
     }
 
     /**
-     * Retrieves all reviews.
+     * Retrieves one page of all reviews, newest first.
      *
-     * @return A ModelAndView containing a list of ReviewDTO objects representing the reviews.
+     * @param cursor The cursor of the requested page, or null for the first page.
+     * @param size   The maximum number of reviews on the page.
+     * @return A ModelAndView containing a page of ReviewDTO objects and the link to the next page.
      */
     @GetMapping()
-    public ModelAndView getReviews() {
+    public ModelAndView getReviews(@RequestParam(required = false) String cursor, @RequestParam(defaultValue = "20") int size) {
         LOGGER.info(ReviewLogger.ALL_REVIEWS_RETRIEVED);
-        List<ReviewDTO> dtos = reviewService.findReviews();
-        ModelAndView modelAndView = new ModelAndView("/review");
-        modelAndView.addObject("reviews", dtos);
+        return pageView("/review", reviewService.findReviewPage(cursor, size));
+    }
+
+    /**
+     * Retrieves one page of the reviews of a product.
+     *
+     * @param productId The ID of the product.
+     * @param sort      recent for the newest first, rating for the highest rated first.
+     * @param cursor    The cursor of the requested page, or null for the first page.
+     * @param size      The maximum number of reviews on the page.
+     * @return A ModelAndView containing a page of ReviewDTO objects and the link to the next page.
+     */
+    @GetMapping("/product/{id_product}")
+    public ModelAndView getProductReviews(@PathVariable("id_product") String productId, @RequestParam(defaultValue = "recent") String sort,
+                                          @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "20") int size) {
+        ReviewPageDTO page = reviewService.findProductReviews(productId, ReviewService.ReviewSort.fromName(sort), cursor, size);
+        return pageView("/review2", page);
+    }
+
+    /**
+     * Retrieves one page of the reviews written by a user.
+     *
+     * @param userId The ID of the user.
+     * @param sort   recent for the newest first, rating for the highest rated first.
+     * @param cursor The cursor of the requested page, or null for the first page.
+     * @param size   The maximum number of reviews on the page.
+     * @return A ModelAndView containing a page of ReviewDTO objects and the link to the next page.
+     */
+    @GetMapping("/user/{id_user}")
+    public ModelAndView getUserReviews(@PathVariable("id_user") String userId, @RequestParam(defaultValue = "recent") String sort,
+                                       @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "20") int size) {
+        ReviewPageDTO page = reviewService.findUserReviews(userId, ReviewService.ReviewSort.fromName(sort), cursor, size);
+        return pageView("/review2", page);
+    }
+
+    private ModelAndView pageView(String viewName, ReviewPageDTO page) {
+        ModelAndView modelAndView = new ModelAndView(viewName);
+        modelAndView.addObject("reviews", page.getReviews());
+        if (page.getNextCursor() != null) {
+            modelAndView.addObject("nextPageUrl", ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("cursor", page.getNextCursor())
+                    .toUriString());
+        }
         return modelAndView;
     }
 
@@ -0,0 +1,25 @@
+package com.example.carturestibackend.dtos;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Progress of a bill generation job.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BillJobDTO {
+
+    private String id_job;
+    private String format;
+    private int total;
+    private int completed;
+    private int failed;
+    private boolean done;
+    private List<String> failed_order_ids;
+
+}
@@ -0,0 +1,18 @@
+package com.example.carturestibackend.dtos;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CatalogCacheStatsDTO {
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private int size;
+    private int maxEntries;
+
+}
@@ -0,0 +1,21 @@
+package com.example.carturestibackend.dtos;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CatalogPageDTO {
+
+    private List<ProductCatalogDTO> products;
+    private String nextCursor;
+    /**
+     * The corrected query whose results are shown instead, when the search as typed matched nothing.
+     */
+    private String suggestion;
+
+}
@@ -0,0 +1,21 @@
+package com.example.carturestibackend.dtos;
+
+import lombok.*;
+
+/**
+ * State of a product in flash-sale mode.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FlashSaleDTO {
+
+    private String id_product;
+    private long available;
+    private long unflushed;
+    private int shards;
+    private boolean stopping;
+
+}
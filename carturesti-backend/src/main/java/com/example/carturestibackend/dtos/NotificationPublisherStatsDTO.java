@@ -0,0 +1,21 @@
+package com.example.carturestibackend.dtos;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationPublisherStatsDTO {
+
+    private int buffered;
+    private int inFlight;
+    private long published;
+    private long confirmed;
+    private long retried;
+    private long failed;
+    private double averageConfirmLatencyMillis;
+    private double maxConfirmLatencyMillis;
+
+}
@@ -0,0 +1,18 @@
+package com.example.carturestibackend.dtos;
+
+import lombok.*;
+
+/**
+ * Status of an order, polled by clients of the asynchronous checkout.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderStatusDTO {
+
+    private String id_order;
+    private String status;
+
+}
@@ -0,0 +1,45 @@
+package com.example.carturestibackend.dtos;
+
+import lombok.*;
+
+/**
+ * Read-only view of a product holding only the columns shown in the catalog pages.
+ * Instances are built directly by the catalog queries in ProductRepository, so no
+ * Product entity (and none of its eager associations) is loaded to produce them. The ratings
+ * come from the ProductRating aggregates rather than from the reviews.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductCatalogDTO {
+
+    private String id_product;
+    private String name;
+    private double price;
+    private double price_promotion;
+    private String description;
+    private String author;
+    private long stock;
+    private String id_category;
+    private String id_promotion;
+    private long review_count;
+    private long rating_sum;
+
+    /**
+     * A product without ratings, as built by callers that do not show them.
+     */
+    public ProductCatalogDTO(String id_product, String name, double price, double price_promotion, String description,
+                             String author, long stock, String id_category, String id_promotion) {
+        this(id_product, name, price, price_promotion, description, author, stock, id_category, id_promotion, 0, 0);
+    }
+
+    /**
+     * The average rating, 0 when the product has no reviews.
+     */
+    public double getAverage_rating() {
+        return review_count > 0 ? (double) rating_sum / review_count : 0;
+    }
+
+}
@@ -0,0 +1,29 @@
+package com.example.carturestibackend.dtos;
+
+import lombok.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of filtered products together with the facet counts of the filter.
+ * The counts of a dimension apply every other dimension of the filter but not its own,
+ * so they tell how many products each alternative value would give.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductFacetsDTO {
+
+    private List<ProductCatalogDTO> products;
+    private String nextCursor;
+    private long total;
+    private Map<String, Long> categories;
+    private Map<String, Long> authors;
+    private Map<String, Long> prices;
+    private long onPromotion;
+    private long inStock;
+
+}
@@ -0,0 +1,26 @@
+package com.example.carturestibackend.dtos;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Combined catalog filter bound from the query parameters of the filter endpoint.
+ * Values within one dimension are alternatives; the dimensions themselves must all match.
+ * Empty dimensions do not filter.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductFilterDTO {
+
+    private List<String> categories;
+    private List<String> authors;
+    private Double minPrice;
+    private Double maxPrice;
+    private boolean onPromotion;
+    private boolean inStock;
+
+}
@@ -0,0 +1,23 @@
+package com.example.carturestibackend.dtos;
+
+import lombok.*;
+
+/**
+ * The ratings of a product: how many reviews it has, their average and how many gave each rating.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductRatingDTO {
+
+    private String id_product;
+    private long review_count;
+    private double average_rating;
+    /**
+     * The number of reviews per rating; index 0 holds the 1 star reviews.
+     */
+    private long[] histogram;
+
+}
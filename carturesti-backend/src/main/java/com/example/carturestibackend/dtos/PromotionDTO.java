@@ -3,6 +3,9 @@ package com.example.carturestibackend.dtos;
 import com.example.carturestibackend.entities.Product;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
 
 import java.util.List;
 
@@ -17,5 +20,10 @@ public class PromotionDTO {
     private String name;
     private String description;
     private double percentage;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime starts_at;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime ends_at;
+    private boolean active;
     private List<String> id_products;
 }
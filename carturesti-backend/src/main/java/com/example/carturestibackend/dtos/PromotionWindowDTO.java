@@ -0,0 +1,23 @@
+package com.example.carturestibackend.dtos;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Validity window and discount of a promotion, as kept by PromotionWindowIndex.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PromotionWindowDTO {
+
+    private String id_promotion;
+    private double percentage;
+    private LocalDateTime starts_at;
+    private LocalDateTime ends_at;
+    private boolean active;
+
+}
@@ -4,7 +4,7 @@ import com.example.carturestibackend.entities.Product;
 import com.example.carturestibackend.entities.User;
 import lombok.*;
 
-import java.util.Date;
+import java.time.LocalDateTime;
 
 
 @Getter
@@ -19,4 +19,5 @@ public class ReviewDTO {
     private String comment;
     private String id_user;
     private String id_product;
+    private LocalDateTime created_at;
 }
@@ -0,0 +1,17 @@
+package com.example.carturestibackend.dtos;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReviewPageDTO {
+
+    private List<ReviewDTO> reviews;
+    private String nextCursor;
+
+}
@@ -0,0 +1,23 @@
+package com.example.carturestibackend.dtos;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * The sales figures shown on the admin dashboard.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalesDashboardDTO {
+
+    private List<SalesDayDTO> revenue_per_day;
+    private List<SalesRankDTO> top_products;
+    private List<SalesRankDTO> top_authors;
+    private List<SalesRankDTO> top_categories;
+    private double average_order_value;
+
+}
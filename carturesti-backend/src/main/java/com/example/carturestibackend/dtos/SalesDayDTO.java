@@ -0,0 +1,22 @@
+package com.example.carturestibackend.dtos;
+
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Sales of one order date.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalesDayDTO {
+
+    private LocalDate sale_date;
+    private long orders;
+    private long units;
+    private double revenue;
+
+}
@@ -0,0 +1,19 @@
+package com.example.carturestibackend.dtos;
+
+import lombok.*;
+
+/**
+ * A product, author or category with the number of copies sold.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalesRankDTO {
+
+    private String id;
+    private String name;
+    private long units;
+
+}
@@ -3,6 +3,7 @@ package com.example.carturestibackend.dtos.mappers;
 
 import com.example.carturestibackend.dtos.ProductDTO;
 import com.example.carturestibackend.entities.*;
+import org.hibernate.Hibernate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.*;
@@ -23,6 +24,7 @@ public class ProductMapper {
                 .author(product.getAuthor())
                 .stock(product.getStock())
                 .id_reviews(Optional.ofNullable(product.getReviews())
+                        .filter(Hibernate::isInitialized)
                         .map(items -> items.stream().map(Review::getId).collect(Collectors.toList()))
                         .orElse(null))
                 .id_category(Optional.ofNullable(product.getCategory())
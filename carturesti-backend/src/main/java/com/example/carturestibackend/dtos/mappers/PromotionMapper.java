@@ -1,6 +1,7 @@
 package com.example.carturestibackend.dtos.mappers;
 
 import com.example.carturestibackend.dtos.PromotionDTO;
+import com.example.carturestibackend.dtos.PromotionWindowDTO;
 import com.example.carturestibackend.entities.Product;
 import com.example.carturestibackend.entities.Promotion;
 import com.example.carturestibackend.entities.Review;
@@ -19,17 +20,27 @@ public class PromotionMapper {
                 .name(promotion.getName())
                 .description(promotion.getDescription())
                 .percentage(promotion.getPercentage())
+                .starts_at(promotion.getStarts_at())
+                .ends_at(promotion.getEnds_at())
+                .active(promotion.isActive())
                 .id_products(Optional.ofNullable(promotion.getProducts())
                         .map(products -> products.stream().map(Product::getId_product).collect(Collectors.toList()))
                         .orElse(null))
                 .build();
     }
 
+    public static PromotionWindowDTO toPromotionWindowDTO(Promotion promotion) {
+        return new PromotionWindowDTO(promotion.getId_promotion(), promotion.getPercentage(),
+                promotion.getStarts_at(), promotion.getEnds_at(), promotion.isActive());
+    }
+
     public static Promotion fromPromotionDTO(PromotionDTO promotionDTO) {
         return Promotion.builder()
                 .name(promotionDTO.getName())
                 .description(promotionDTO.getDescription())
                 .percentage(promotionDTO.getPercentage())
+                .starts_at(promotionDTO.getStarts_at())
+                .ends_at(promotionDTO.getEnds_at())
                 .products(Optional.ofNullable(promotionDTO.getId_products())
                         .map(ids -> ids.stream().map(id -> Product.builder().id_product(id).build()).collect(Collectors.toList()))
                         .orElse(null))
@@ -26,6 +26,7 @@ public class ReviewMapper {
                 .comment(review.getComment())
                 .id_user(Optional.ofNullable(review.getUser()).map(User::getId_user).orElse(null))
                 .id_product(Optional.ofNullable(review.getProduct()).map(Product::getId_product).orElse(null))
+                .created_at(review.getCreated_at())
                 .build();
     }
 
@@ -0,0 +1,25 @@
+package com.example.carturestibackend.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Copies of the books of an author sold by placed orders, maintained by SalesAnalyticsService.
+ */
+@Entity
+@Table(name="salesauthordb", indexes = @Index(name = "idx_salesauthordb_units", columnList = "units"))
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+
+public class AuthorSales {
+
+    @Id
+    private String author;
+
+    @Column(name = "units", nullable = false)
+    private long units;
+
+}
@@ -0,0 +1,25 @@
+package com.example.carturestibackend.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Copies of the products of a category sold by placed orders, maintained by SalesAnalyticsService.
+ */
+@Entity
+@Table(name="salescategorydb", indexes = @Index(name = "idx_salescategorydb_units", columnList = "units"))
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+
+public class CategorySales {
+
+    @Id
+    private String id_category;
+
+    @Column(name = "units", nullable = false)
+    private long units;
+
+}
@@ -0,0 +1,28 @@
+package com.example.carturestibackend.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marks a one-time data migration run by DataMigrations as applied, so that it never runs twice.
+ */
+@Entity
+@Table(name="datamigrationdb")
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+
+public class DataMigration {
+
+    @Id
+    @Column(name = "name", length = 255)
+    private String name;
+
+    @Column(name = "applied_at", nullable = false)
+    private LocalDateTime applied_at;
+
+}
@@ -0,0 +1,32 @@
+package com.example.carturestibackend.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * The order created by the first request carrying an idempotency key, so that retries of that
+ * request are answered with the same order.
+ */
+@Entity
+@Table(name="idempotencykeydb")
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+
+public class IdempotencyKey {
+
+    @Id
+    @Column(name = "idempotency_key", length = 255)
+    private String idempotency_key;
+
+    @Column(name = "id_order", nullable = false)
+    private String id_order;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime created_at;
+
+}
@@ -9,7 +9,9 @@ import org.hibernate.annotations.GenericGenerator;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 @Entity
@@ -22,6 +24,13 @@ import java.util.Set;
 
 public class Order {
 
+    /**
+     * Accepted by the asynchronous checkout and waiting for a worker to add the cart products.
+     */
+    public static final String PENDING = "PENDING";
+    public static final String PLACED = "PLACED";
+    public static final String FAILED = "FAILED";
+
     @Id
     @GeneratedValue(generator = "uuid")
     @GenericGenerator(name = "uuid", strategy = "org.hibernate.id.UUIDGenerator")
@@ -52,5 +61,16 @@ public class Order {
     @OneToMany(mappedBy = "order",fetch = FetchType.EAGER,cascade = CascadeType.ALL)
     private List<OrderItem> orderItems = new ArrayList<>();
 
+    /**
+     * Units ordered per product ID, for orders placed from the cart, which list each product once.
+     * A product of the order without an entry counts one unit per entry in the product list.
+     */
+    @ElementCollection
+    @CollectionTable(name = "order_quantitydb", joinColumns = @JoinColumn(name = "id_order"))
+    @MapKeyColumn(name = "id_product")
+    @Column(name = "quantity", nullable = false)
+    @Builder.Default
+    private Map<String, Long> quantities = new HashMap<>();
+
 
 }
\ No newline at end of file
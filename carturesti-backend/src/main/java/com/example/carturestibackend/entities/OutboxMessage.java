@@ -0,0 +1,54 @@
+package com.example.carturestibackend.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.GenericGenerator;
+
+import java.time.LocalDateTime;
+
+/**
+ * A notification waiting to be published to RabbitMQ. Written in the transaction that triggers the
+ * notification, so it exists only if that transaction commits, and deleted once the broker confirmed it.
+ * While a relay publishes it, claimed_until keeps the other relays away from it without holding a lock.
+ */
+@Entity
+@Table(name="outboxdb", indexes = @Index(name = "idx_outbox_created_at", columnList = "created_at"))
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+
+public class OutboxMessage {
+
+    @Id
+    @GeneratedValue(generator = "uuid")
+    @GenericGenerator(name = "uuid", strategy = "org.hibernate.id.UUIDGenerator")
+    private String id;
+
+    /**
+     * The NotificationRequestDTO as JSON.
+     */
+    @Column(name = "payload", nullable = false, columnDefinition = "text")
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime created_at;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    /**
+     * Set while a relay awaits the confirm; a claim that outlives its relay expires at this time.
+     */
+    @Column(name = "claimed_until")
+    private LocalDateTime claimed_until;
+
+    /**
+     * Set once the message failed {@code outbox.relay.max-attempts} rounds; the relay no longer picks
+     * it up and it stays in the table for inspection.
+     */
+    @Column(name = "dead_lettered_at")
+    private LocalDateTime dead_lettered_at;
+
+}
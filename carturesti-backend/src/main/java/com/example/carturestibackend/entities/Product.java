@@ -43,7 +43,10 @@ public class Product {
     @Column(name = "stock", nullable = false)
     private long stock;
 
-    @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+    /**
+     * Lazy: a bestseller can have thousands of reviews. Read them a page at a time through ReviewRepository.
+     */
+    @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @JsonIgnore
     private List<Review> reviews;
 
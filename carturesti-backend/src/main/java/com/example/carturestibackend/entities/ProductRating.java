@@ -0,0 +1,47 @@
+package com.example.carturestibackend.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Rating aggregates of a product, kept up to date by ProductRatingService whenever a review is
+ * written, so that ratings are shown and sorted on without loading any Review.
+ */
+@Entity
+@Table(name="productratingdb")
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+
+public class ProductRating {
+
+    @Id
+    private String id_product;
+
+    @Column(name = "review_count", nullable = false)
+    private long review_count;
+
+    @Column(name = "rating_sum", nullable = false)
+    private long rating_sum;
+
+    /**
+     * The number of reviews per rating, from 1 to 5 stars.
+     */
+    @Column(name = "rating_1", nullable = false)
+    private long rating_1;
+
+    @Column(name = "rating_2", nullable = false)
+    private long rating_2;
+
+    @Column(name = "rating_3", nullable = false)
+    private long rating_3;
+
+    @Column(name = "rating_4", nullable = false)
+    private long rating_4;
+
+    @Column(name = "rating_5", nullable = false)
+    private long rating_5;
+
+}
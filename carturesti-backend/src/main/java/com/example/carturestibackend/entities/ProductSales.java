@@ -0,0 +1,25 @@
+package com.example.carturestibackend.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Copies of a product sold by placed orders, maintained by SalesAnalyticsService.
+ */
+@Entity
+@Table(name="salesproductdb", indexes = @Index(name = "idx_salesproductdb_units", columnList = "units"))
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+
+public class ProductSales {
+
+    @Id
+    private String id_product;
+
+    @Column(name = "units", nullable = false)
+    private long units;
+
+}
@@ -6,6 +6,7 @@ import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.GenericGenerator;
 
+import java.time.LocalDateTime;
 import java.util.Date;
 import java.util.List;
 import java.util.Set;
@@ -34,6 +35,25 @@ public class Promotion{
     @Column(name = "percentage", nullable = false, length = 1000)
     private double percentage;
 
+    /**
+     * Start of the validity window, inclusive; null when the promotion applies from its creation.
+     */
+    @Column(name = "starts_at")
+    private LocalDateTime starts_at;
+
+    /**
+     * End of the validity window, exclusive; null when the promotion never expires.
+     */
+    @Column(name = "ends_at")
+    private LocalDateTime ends_at;
+
+    /**
+     * Whether the promotional prices of the products are applied, i.e. whether the validity window
+     * contained the current time when it was last swept by PromotionScheduler.
+     */
+    @Column(name = "active", nullable = false, columnDefinition = "boolean default true")
+    private boolean active;
+
     @OneToMany(mappedBy = "promotion", fetch = FetchType.EAGER, orphanRemoval = true)
     @JsonIgnore
     private List<Product> products;
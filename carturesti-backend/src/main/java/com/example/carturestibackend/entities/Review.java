@@ -2,10 +2,19 @@ package com.example.carturestibackend.entities;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.GenericGenerator;
 
+import java.time.LocalDateTime;
+
 @Entity
-@Table(name="reviewdb")
+@Table(name="reviewdb", indexes = {
+        @Index(name = "idx_reviewdb_product_created", columnList = "product_id, created_at, id"),
+        @Index(name = "idx_reviewdb_product_rating", columnList = "product_id, rating, id"),
+        @Index(name = "idx_reviewdb_user_created", columnList = "user_id, created_at, id"),
+        @Index(name = "idx_reviewdb_user_rating", columnList = "user_id, rating, id"),
+        @Index(name = "idx_reviewdb_created", columnList = "created_at, id")
+})
 @Getter
 @Setter
 @Builder
@@ -25,6 +34,13 @@ public class Review {
     @Column(name = "comment", nullable = false, length = 1000)
     private String comment;
 
+    /**
+     * Reviews written before the column existed get the time it was added.
+     */
+    @Column(name = "created_at", nullable = false, updatable = false)
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    private LocalDateTime created_at;
+
     @ManyToOne
     @JoinColumn(name = "user_id")
     private User user;
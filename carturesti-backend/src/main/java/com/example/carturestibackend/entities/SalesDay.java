@@ -0,0 +1,33 @@
+package com.example.carturestibackend.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Placed orders, copies sold and revenue of one order date, maintained by SalesAnalyticsService.
+ */
+@Entity
+@Table(name="salesdaydb")
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+
+public class SalesDay {
+
+    @Id
+    private LocalDate sale_date;
+
+    @Column(name = "orders", nullable = false)
+    private long orders;
+
+    @Column(name = "units", nullable = false)
+    private long units;
+
+    @Column(name = "revenue", nullable = false)
+    private double revenue;
+
+}
@@ -0,0 +1,48 @@
+package com.example.carturestibackend.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * One product line of an order added to or taken out of the sales read model, waiting to be folded
+ * into the summary tables by SalesAnalyticsService. Rows are only ever inserted by the orders and
+ * deleted by the fold. The orders and revenue of an order are carried by its first line only.
+ */
+@Entity
+@Table(name="salesdeltadb")
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+
+public class SalesDelta {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "sale_date", nullable = false)
+    private LocalDate sale_date;
+
+    @Column(name = "orders", nullable = false)
+    private long orders;
+
+    @Column(name = "revenue", nullable = false)
+    private double revenue;
+
+    @Column(name = "id_product", nullable = false)
+    private String id_product;
+
+    @Column(name = "author")
+    private String author;
+
+    @Column(name = "id_category")
+    private String id_category;
+
+    @Column(name = "units", nullable = false)
+    private long units;
+
+}
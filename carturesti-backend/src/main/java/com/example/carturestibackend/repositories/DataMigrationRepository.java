@@ -0,0 +1,21 @@
+package com.example.carturestibackend.repositories;
+
+import com.example.carturestibackend.entities.DataMigration;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface DataMigrationRepository extends JpaRepository<DataMigration, String> {
+
+    /**
+     * Records the migration as applied unless it already is. A concurrent caller recording the same
+     * migration waits for the first one's transaction and then records nothing.
+     *
+     * @return 1 if the migration was recorded by this call, 0 if it had already been applied.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO datamigrationdb (name, applied_at) VALUES (:name, CURRENT_TIMESTAMP) ON CONFLICT (name) DO NOTHING",
+            nativeQuery = true)
+    int markApplied(@Param("name") String name);
+}
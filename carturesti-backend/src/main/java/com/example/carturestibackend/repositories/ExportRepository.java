@@ -0,0 +1,50 @@
+package com.example.carturestibackend.repositories;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+
+/**
+ * Reads whole tables for the exports with plain JDBC: rows come from a forward-only cursor a
+ * fetch-size at a time and are handed to the extractor one by one, never as entities, so neither
+ * the heap nor a persistence context grows with the table. PostgreSQL only opens a cursor inside a
+ * transaction; outside one the driver reads the whole result first.
+ */
+@Repository
+public class ExportRepository {
+
+    private static final String ORDERS = "SELECT id_order, order_date, status, total_quantity, total_price, id_user"
+            + " FROM orderdb ORDER BY id_order";
+    private static final String ORDER_ITEMS = "SELECT id_order_item, order_id, product_id, cart_id, quantity, price_per_unit"
+            + " FROM orderitemdb ORDER BY id_order_item";
+    private static final String PRODUCTS = "SELECT id_product, name, author, description, price, price_promotion, stock, category_id, promotion_id"
+            + " FROM productdb ORDER BY id_product";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @param dataSource The data source the exports read from.
+     * @param fetchSize  The number of rows fetched per round trip.
+     */
+    @Autowired
+    public ExportRepository(DataSource dataSource, @Value("${export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    public <T> T queryOrders(ResultSetExtractor<T> extractor) {
+        return jdbcTemplate.query(ORDERS, extractor);
+    }
+
+    public <T> T queryOrderItems(ResultSetExtractor<T> extractor) {
+        return jdbcTemplate.query(ORDER_ITEMS, extractor);
+    }
+
+    public <T> T queryProducts(ResultSetExtractor<T> extractor) {
+        return jdbcTemplate.query(PRODUCTS, extractor);
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.carturestibackend.repositories;
+
+import com.example.carturestibackend.entities.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.created_at < :before")
+    int deleteCreatedBefore(@Param("before") LocalDateTime before);
+}
@@ -2,11 +2,48 @@ package com.example.carturestibackend.repositories;
 
 import com.example.carturestibackend.entities.Order;
 import com.example.carturestibackend.entities.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 public interface OrderRepository extends JpaRepository <Order,String> {
 
     List<Order> findByUser(User user);
+
+    /**
+     * Reads only the status column, so that polling clients do not load the order with its eager associations.
+     */
+    @Query("SELECT o.status FROM Order o WHERE o.id_order = :id")
+    Optional<String> findStatusById(@Param("id") String id);
+
+    /**
+     * Reads the IDs of the orders with a status, without loading the orders.
+     */
+    @Query("SELECT o.id_order FROM Order o WHERE o.status = :status")
+    List<String> findIdsByStatus(@Param("status") String status);
+
+    /**
+     * Moves an order to another status only if it still has the expected one.
+     *
+     * @return 1 when the status was changed, 0 otherwise.
+     */
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :status WHERE o.id_order = :id AND o.status = :expected")
+    int updateStatus(@Param("id") String id, @Param("expected") String expected, @Param("status") String status);
+
+    /**
+     * Pages through the IDs of the placed orders of a date range, in ID order: pass the last ID of
+     * the previous page, or an empty string for the first one. Orders placed before order statuses
+     * existed have none and count as placed.
+     */
+    @Query("SELECT o.id_order FROM Order o WHERE o.order_date BETWEEN :from AND :to AND COALESCE(o.status, 'PLACED') = 'PLACED'"
+            + " AND o.id_order > :after ORDER BY o.id_order")
+    List<String> findIdsByOrderDateBetween(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                                           @Param("after") String after, Pageable pageable);
 }
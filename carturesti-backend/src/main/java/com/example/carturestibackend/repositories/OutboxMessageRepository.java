@@ -0,0 +1,40 @@
+package com.example.carturestibackend.repositories;
+
+import com.example.carturestibackend.entities.OutboxMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, String> {
+
+    /**
+     * Locks the oldest unclaimed, live messages until the end of the transaction. Rows locked by another relay
+     * are skipped rather than waited for, so that several instances can relay side by side.
+     */
+    @Query(value = "SELECT * FROM outboxdb WHERE dead_lettered_at IS NULL AND (claimed_until IS NULL OR claimed_until < :now) " +
+            "ORDER BY created_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxMessage> lockOldest(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE OutboxMessage m SET m.claimed_until = :until WHERE m.id IN :ids")
+    int claim(@Param("ids") Collection<String> ids, @Param("until") LocalDateTime until);
+
+    /**
+     * Counts a failed attempt and hands the messages back to the next round.
+     */
+    @Modifying
+    @Query("UPDATE OutboxMessage m SET m.attempts = m.attempts + 1, m.claimed_until = NULL WHERE m.id IN :ids")
+    int release(@Param("ids") Collection<String> ids);
+
+    /**
+     * Takes the messages that used up their attempts out of the relay.
+     */
+    @Modifying
+    @Query("UPDATE OutboxMessage m SET m.dead_lettered_at = :now WHERE m.id IN :ids AND m.attempts >= :maxAttempts")
+    int deadLetter(@Param("ids") Collection<String> ids, @Param("maxAttempts") int maxAttempts, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,43 @@
+package com.example.carturestibackend.repositories;
+
+import com.example.carturestibackend.entities.ProductRating;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface ProductRatingRepository extends JpaRepository<ProductRating, String> {
+
+    /**
+     * Adds one review to, or with a negative delta removes it from, the aggregates of a product.
+     * A single upsert, so concurrent reviews of the same product never overwrite each other's counts.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO productratingdb (id_product, review_count, rating_sum, rating_1, rating_2, rating_3, rating_4, rating_5)" +
+            " VALUES (:id, :delta, :delta * :rating, CASE WHEN :rating = 1 THEN :delta ELSE 0 END, CASE WHEN :rating = 2 THEN :delta ELSE 0 END," +
+            " CASE WHEN :rating = 3 THEN :delta ELSE 0 END, CASE WHEN :rating = 4 THEN :delta ELSE 0 END, CASE WHEN :rating = 5 THEN :delta ELSE 0 END)" +
+            " ON CONFLICT (id_product) DO UPDATE SET review_count = productratingdb.review_count + EXCLUDED.review_count," +
+            " rating_sum = productratingdb.rating_sum + EXCLUDED.rating_sum, rating_1 = productratingdb.rating_1 + EXCLUDED.rating_1," +
+            " rating_2 = productratingdb.rating_2 + EXCLUDED.rating_2, rating_3 = productratingdb.rating_3 + EXCLUDED.rating_3," +
+            " rating_4 = productratingdb.rating_4 + EXCLUDED.rating_4, rating_5 = productratingdb.rating_5 + EXCLUDED.rating_5",
+            nativeQuery = true)
+    int addRating(@Param("id") String productId, @Param("rating") int rating, @Param("delta") int delta);
+
+    /**
+     * Keeps reviews from changing the aggregates until the end of the transaction.
+     */
+    @Modifying
+    @Query(value = "LOCK TABLE productratingdb IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockTable();
+
+    /**
+     * Computes the aggregates of every reviewed product from the reviews; meant for an empty table.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO productratingdb (id_product, review_count, rating_sum, rating_1, rating_2, rating_3, rating_4, rating_5)" +
+            " SELECT product_id, COUNT(*), SUM(rating), SUM(CASE WHEN rating = 1 THEN 1 ELSE 0 END), SUM(CASE WHEN rating = 2 THEN 1 ELSE 0 END)," +
+            " SUM(CASE WHEN rating = 3 THEN 1 ELSE 0 END), SUM(CASE WHEN rating = 4 THEN 1 ELSE 0 END), SUM(CASE WHEN rating = 5 THEN 1 ELSE 0 END)" +
+            " FROM reviewdb WHERE product_id IS NOT NULL GROUP BY product_id",
+            nativeQuery = true)
+    int insertFromReviews();
+}
@@ -1,26 +1,145 @@
 package com.example.carturestibackend.repositories;
 
+import com.example.carturestibackend.dtos.ProductCatalogDTO;
 import com.example.carturestibackend.dtos.ProductDTO;
 import com.example.carturestibackend.entities.Category;
 import com.example.carturestibackend.entities.Product;
+import com.example.carturestibackend.entities.Promotion;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ProductRepository extends JpaRepository<Product,String> {
 
+    /**
+     * Constructor expression shared by the catalog queries. The promotion price is computed in the
+     * query from the joined promotion, falling back to the stored price_promotion when there is none.
+     * A promotion outside its validity window is reported as no promotion.
+     */
+    String CATALOG_SELECT = "SELECT new com.example.carturestibackend.dtos.ProductCatalogDTO(" +
+            "p.id_product, p.name, p.price, " +
+            "CASE WHEN pr.id_promotion IS NULL OR pr.active = false THEN p.price_promotion " +
+            "WHEN pr.percentage > 0 THEN p.price * (1 - pr.percentage / 100) " +
+            "ELSE p.price END, " +
+            "p.description, p.author, p.stock, c.id_category, " +
+            "CASE WHEN pr.active = true THEN pr.id_promotion END, " +
+            "COALESCE(r.review_count, 0L), COALESCE(r.rating_sum, 0L)) " +
+            "FROM Product p LEFT JOIN p.category c LEFT JOIN p.promotion pr " +
+            "LEFT JOIN ProductRating r ON r.id_product = p.id_product";
+
+    /**
+     * The average rating the rating sorts order by, 0 for products without reviews.
+     */
+    String AVERAGE_RATING = "CASE WHEN r.review_count > 0 THEN CAST(r.rating_sum AS double) / r.review_count ELSE 0.0 END";
+
    List<Product> findProductByCategory(Category category);
 
     @Query("SELECT p FROM Product p WHERE p.name LIKE %:keyword% OR p.description LIKE %:keyword% OR p.author LIKE %:keyword%")
     List<Product> searchProducts(@Param("keyword") String keyword);
 
-    List<Product> findAllByOrderByPriceAsc();
+    @Query(CATALOG_SELECT)
+    List<ProductCatalogDTO> findCatalog();
+
+    @Query(CATALOG_SELECT + " WHERE p.id_product IN :ids")
+    List<ProductCatalogDTO> findCatalogByIds(@Param("ids") Collection<String> ids);
+
+    /*
+     * Keyset pages of the catalog. Each ordering has a first-page query and an "After" query that
+     * continues strictly after the (sort value, id) of the last row of the previous page; the id
+     * breaks ties so that rows sharing a price or name are neither skipped nor repeated.
+     * The Pageable only carries the page size and must be unsorted.
+     */
+
+    @Query(CATALOG_SELECT + " ORDER BY p.id_product")
+    List<ProductCatalogDTO> findCatalogPage(Pageable pageable);
+
+    @Query(CATALOG_SELECT + " WHERE p.id_product > :afterId ORDER BY p.id_product")
+    List<ProductCatalogDTO> findCatalogPageAfter(@Param("afterId") String afterId, Pageable pageable);
+
+    @Query(CATALOG_SELECT + " ORDER BY p.price, p.id_product")
+    List<ProductCatalogDTO> findCatalogPageByPriceAsc(Pageable pageable);
+
+    @Query(CATALOG_SELECT + " WHERE p.price > :price OR (p.price = :price AND p.id_product > :afterId)" +
+            " ORDER BY p.price, p.id_product")
+    List<ProductCatalogDTO> findCatalogPageByPriceAscAfter(@Param("price") double price, @Param("afterId") String afterId, Pageable pageable);
+
+    @Query(CATALOG_SELECT + " ORDER BY p.price DESC, p.id_product DESC")
+    List<ProductCatalogDTO> findCatalogPageByPriceDesc(Pageable pageable);
+
+    @Query(CATALOG_SELECT + " WHERE p.price < :price OR (p.price = :price AND p.id_product < :afterId)" +
+            " ORDER BY p.price DESC, p.id_product DESC")
+    List<ProductCatalogDTO> findCatalogPageByPriceDescAfter(@Param("price") double price, @Param("afterId") String afterId, Pageable pageable);
+
+    @Query(CATALOG_SELECT + " ORDER BY p.name, p.id_product")
+    List<ProductCatalogDTO> findCatalogPageByNameAsc(Pageable pageable);
+
+    @Query(CATALOG_SELECT + " WHERE p.name > :name OR (p.name = :name AND p.id_product > :afterId)" +
+            " ORDER BY p.name, p.id_product")
+    List<ProductCatalogDTO> findCatalogPageByNameAscAfter(@Param("name") String name, @Param("afterId") String afterId, Pageable pageable);
+
+    @Query(CATALOG_SELECT + " ORDER BY p.name DESC, p.id_product DESC")
+    List<ProductCatalogDTO> findCatalogPageByNameDesc(Pageable pageable);
+
+    @Query(CATALOG_SELECT + " WHERE p.name < :name OR (p.name = :name AND p.id_product < :afterId)" +
+            " ORDER BY p.name DESC, p.id_product DESC")
+    List<ProductCatalogDTO> findCatalogPageByNameDescAfter(@Param("name") String name, @Param("afterId") String afterId, Pageable pageable);
+
+    @Query(CATALOG_SELECT + " ORDER BY " + AVERAGE_RATING + ", p.id_product")
+    List<ProductCatalogDTO> findCatalogPageByRatingAsc(Pageable pageable);
+
+    @Query(CATALOG_SELECT + " WHERE " + AVERAGE_RATING + " > :rating OR (" + AVERAGE_RATING + " = :rating AND p.id_product > :afterId)" +
+            " ORDER BY " + AVERAGE_RATING + ", p.id_product")
+    List<ProductCatalogDTO> findCatalogPageByRatingAscAfter(@Param("rating") double rating, @Param("afterId") String afterId, Pageable pageable);
+
+    @Query(CATALOG_SELECT + " ORDER BY " + AVERAGE_RATING + " DESC, p.id_product DESC")
+    List<ProductCatalogDTO> findCatalogPageByRatingDesc(Pageable pageable);
+
+    @Query(CATALOG_SELECT + " WHERE " + AVERAGE_RATING + " < :rating OR (" + AVERAGE_RATING + " = :rating AND p.id_product < :afterId)" +
+            " ORDER BY " + AVERAGE_RATING + " DESC, p.id_product DESC")
+    List<ProductCatalogDTO> findCatalogPageByRatingDescAfter(@Param("rating") double rating, @Param("afterId") String afterId, Pageable pageable);
+
+    @Query(CATALOG_SELECT + " WHERE c.name = :categoryName ORDER BY p.id_product")
+    List<ProductCatalogDTO> findCatalogPageByCategoryName(@Param("categoryName") String categoryName, Pageable pageable);
+
+    @Query(CATALOG_SELECT + " WHERE c.name = :categoryName AND p.id_product > :afterId ORDER BY p.id_product")
+    List<ProductCatalogDTO> findCatalogPageByCategoryNameAfter(@Param("categoryName") String categoryName, @Param("afterId") String afterId, Pageable pageable);
+
+    @Query(CATALOG_SELECT + " WHERE (p.name LIKE %:keyword% OR p.description LIKE %:keyword% OR p.author LIKE %:keyword%)" +
+            " ORDER BY p.id_product")
+    List<ProductCatalogDTO> searchCatalogPage(@Param("keyword") String keyword, Pageable pageable);
+
+    @Query(CATALOG_SELECT + " WHERE (p.name LIKE %:keyword% OR p.description LIKE %:keyword% OR p.author LIKE %:keyword%)" +
+            " AND p.id_product > :afterId ORDER BY p.id_product")
+    List<ProductCatalogDTO> searchCatalogPageAfter(@Param("keyword") String keyword, @Param("afterId") String afterId, Pageable pageable);
+
+    /*
+     * Set-based promotion pricing used by PromotionPricingEngine. Each statement is a single UPDATE
+     * over the promotions' products; the factor is 1 - percentage / 100, 1 for no discount and 0
+     * while the promotion is outside its validity window.
+     * The persistence context is flushed before and cleared after, since the rows change behind it.
+     */
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.promotion = :promotion, p.price_promotion = p.price * :factor WHERE p.id_product IN :ids")
+    int assignPromotion(@Param("promotion") Promotion promotion, @Param("factor") double factor, @Param("ids") Collection<String> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.price_promotion = p.price * :factor WHERE p.promotion.id_promotion IN :promotionIds")
+    int repricePromotions(@Param("promotionIds") Collection<String> promotionIds, @Param("factor") double factor);
 
-    List<Product> findAllByOrderByPriceDesc();
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.price = p.price / :factor WHERE p.promotion.id_promotion IN :promotionIds")
+    int undiscountPrices(@Param("promotionIds") Collection<String> promotionIds, @Param("factor") double factor);
 
-    List<Product> findAllByOrderByNameAsc();
+    @Query("SELECT p.id_product FROM Product p WHERE p.promotion.id_promotion IN :promotionIds")
+    List<String> findIdsByPromotionIds(@Param("promotionIds") Collection<String> promotionIds);
 
-    List<Product> findAllByOrderByNameDesc();
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.promotion = null, p.price_promotion = 0 WHERE p.promotion.id_promotion = :promotionId")
+    int clearPromotion(@Param("promotionId") String promotionId);
 }
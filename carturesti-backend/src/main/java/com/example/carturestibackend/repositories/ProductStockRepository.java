@@ -0,0 +1,84 @@
+package com.example.carturestibackend.repositories;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stock writes issued as plain JDBC batches, so that an order touching many products costs one
+ * round trip instead of one entity save per unit. Runs inside the caller's transaction.
+ */
+@Repository
+public class ProductStockRepository {
+
+    /**
+     * Takes the quantity off only while enough stock is left. The check and the write are one
+     * statement, so two concurrent reservations of the last copy cannot both succeed.
+     */
+    private static final String RESERVE_STOCK = "UPDATE productdb SET stock = stock - ? WHERE id_product = ? AND stock >= ?";
+    private static final String RELEASE_STOCK = "UPDATE productdb SET stock = stock + ? WHERE id_product = ?";
+    private static final String DECREMENT_STOCK = "UPDATE productdb SET stock = stock - ? WHERE id_product = ?";
+    private static final String LOCK_STOCK = "SELECT stock FROM productdb WHERE id_product = ? FOR UPDATE";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public ProductStockRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Conditionally decrements the stock of several products in one batch.
+     *
+     * @param quantities The quantity to take off, by product ID.
+     * @return Per product, in the iteration order of the map, 1 when the stock was decremented and
+     * 0 when the product does not exist or has less stock than requested.
+     */
+    public int[] reserveStock(Map<String, Long> quantities) {
+        List<Object[]> arguments = new ArrayList<>(quantities.size());
+        quantities.forEach((productId, quantity) -> arguments.add(new Object[]{quantity, productId, quantity}));
+        return batch(RESERVE_STOCK, arguments);
+    }
+
+    /**
+     * Gives back stock taken by {@link #reserveStock(Map)}.
+     *
+     * @param quantities The quantity to put back, by product ID.
+     */
+    public void releaseStock(Map<String, Long> quantities) {
+        List<Object[]> arguments = new ArrayList<>(quantities.size());
+        quantities.forEach((productId, quantity) -> arguments.add(new Object[]{quantity, productId}));
+        batch(RELEASE_STOCK, arguments);
+    }
+
+    /**
+     * Unconditionally decrements the stock of several products in one batch, for units already
+     * reserved elsewhere (see FlashSaleInventory).
+     *
+     * @param quantities The quantity to take off, by product ID.
+     */
+    public void decrementStock(Map<String, Long> quantities) {
+        List<Object[]> arguments = new ArrayList<>(quantities.size());
+        quantities.forEach((productId, quantity) -> arguments.add(new Object[]{quantity, productId}));
+        batch(DECREMENT_STOCK, arguments);
+    }
+
+    /**
+     * Reads the stock of a product and locks its row until the end of the current transaction.
+     *
+     * @param productId The ID of the product.
+     * @return The stock, or null when the product does not exist.
+     */
+    public Long lockStock(String productId) {
+        List<Long> stock = jdbcTemplate.queryForList(LOCK_STOCK, Long.class, productId);
+        return stock.isEmpty() ? null : stock.get(0);
+    }
+
+    private int[] batch(String sql, List<Object[]> arguments) {
+        return arguments.isEmpty() ? new int[0] : jdbcTemplate.batchUpdate(sql, arguments);
+    }
+}
@@ -1,7 +1,25 @@
 package com.example.carturestibackend.repositories;
 
+import com.example.carturestibackend.dtos.PromotionWindowDTO;
 import com.example.carturestibackend.entities.Promotion;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface PromotionRepository extends JpaRepository<Promotion, String> {
+
+    /**
+     * Validity windows of all promotions, without loading their products.
+     */
+    @Query("SELECT new com.example.carturestibackend.dtos.PromotionWindowDTO(" +
+            "p.id_promotion, p.percentage, p.starts_at, p.ends_at, p.active) FROM Promotion p")
+    List<PromotionWindowDTO> findWindows();
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Promotion p SET p.active = :active WHERE p.id_promotion IN :ids")
+    int updateActive(@Param("ids") Collection<String> ids, @Param("active") boolean active);
 }
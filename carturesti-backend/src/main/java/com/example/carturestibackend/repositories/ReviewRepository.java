@@ -1,11 +1,62 @@
 package com.example.carturestibackend.repositories;
 
-import com.example.carturestibackend.entities.Product;
+import com.example.carturestibackend.dtos.ReviewDTO;
 import com.example.carturestibackend.entities.Review;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
+/**
+ * Besides the entity operations, holds the keyset-paginated review listings. They select
+ * ReviewDTO directly, so a page never loads a Review entity nor its eager user and product.
+ * The "After" variants take the sort value and ID of the last review of the previous page.
+ */
 public interface ReviewRepository extends JpaRepository<Review,String> {
 
+    String REVIEW_SELECT = "SELECT new com.example.carturestibackend.dtos.ReviewDTO(" +
+            "r.id, r.rating, r.comment, u.id_user, p.id_product, r.created_at) " +
+            "FROM Review r LEFT JOIN r.user u LEFT JOIN r.product p";
+    String BY_RECENCY = " ORDER BY r.created_at DESC, r.id DESC";
+    String BY_RATING = " ORDER BY r.rating DESC, r.id DESC";
+    String AFTER_RECENCY = "(r.created_at < :createdAt OR (r.created_at = :createdAt AND r.id < :afterId))";
+    String AFTER_RATING = "(r.rating < :rating OR (r.rating = :rating AND r.id < :afterId))";
+
+    @Query(REVIEW_SELECT + BY_RECENCY)
+    List<ReviewDTO> findPageByRecency(Pageable pageable);
+
+    @Query(REVIEW_SELECT + " WHERE " + AFTER_RECENCY + BY_RECENCY)
+    List<ReviewDTO> findPageByRecencyAfter(@Param("createdAt") LocalDateTime createdAt, @Param("afterId") String afterId, Pageable pageable);
+
+    @Query(REVIEW_SELECT + " WHERE p.id_product = :productId" + BY_RECENCY)
+    List<ReviewDTO> findProductPageByRecency(@Param("productId") String productId, Pageable pageable);
+
+    @Query(REVIEW_SELECT + " WHERE p.id_product = :productId AND " + AFTER_RECENCY + BY_RECENCY)
+    List<ReviewDTO> findProductPageByRecencyAfter(@Param("productId") String productId, @Param("createdAt") LocalDateTime createdAt,
+                                                  @Param("afterId") String afterId, Pageable pageable);
+
+    @Query(REVIEW_SELECT + " WHERE p.id_product = :productId" + BY_RATING)
+    List<ReviewDTO> findProductPageByRating(@Param("productId") String productId, Pageable pageable);
+
+    @Query(REVIEW_SELECT + " WHERE p.id_product = :productId AND " + AFTER_RATING + BY_RATING)
+    List<ReviewDTO> findProductPageByRatingAfter(@Param("productId") String productId, @Param("rating") int rating,
+                                                 @Param("afterId") String afterId, Pageable pageable);
+
+    @Query(REVIEW_SELECT + " WHERE u.id_user = :userId" + BY_RECENCY)
+    List<ReviewDTO> findUserPageByRecency(@Param("userId") String userId, Pageable pageable);
+
+    @Query(REVIEW_SELECT + " WHERE u.id_user = :userId AND " + AFTER_RECENCY + BY_RECENCY)
+    List<ReviewDTO> findUserPageByRecencyAfter(@Param("userId") String userId, @Param("createdAt") LocalDateTime createdAt,
+                                               @Param("afterId") String afterId, Pageable pageable);
+
+    @Query(REVIEW_SELECT + " WHERE u.id_user = :userId" + BY_RATING)
+    List<ReviewDTO> findUserPageByRating(@Param("userId") String userId, Pageable pageable);
+
+    @Query(REVIEW_SELECT + " WHERE u.id_user = :userId AND " + AFTER_RATING + BY_RATING)
+    List<ReviewDTO> findUserPageByRatingAfter(@Param("userId") String userId, @Param("rating") int rating,
+                                              @Param("afterId") String afterId, Pageable pageable);
+
 }
@@ -0,0 +1,152 @@
+package com.example.carturestibackend.repositories;
+
+import com.example.carturestibackend.dtos.SalesDayDTO;
+import com.example.carturestibackend.dtos.SalesRankDTO;
+import com.example.carturestibackend.entities.SalesDelta;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The summary tables of the sales read model (SalesDay, ProductSales, AuthorSales, CategorySales)
+ * and the SalesDelta rows waiting to be folded into them. Orders only insert deltas, so checkouts
+ * never wait on each other for the counters of a busy day, author or category. The fold moves all
+ * pending deltas into the counters with one PostgreSQL statement, which upserts every key once and
+ * in sorted order, so concurrent folds cannot deadlock. Runs inside the caller's transaction.
+ */
+@Repository
+public class SalesSummaryRepository {
+
+    private static final String INSERT_DELTA = "INSERT INTO salesdeltadb (sale_date, orders, revenue, id_product, author, id_category, units)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?)";
+    /**
+     * Deleting the deltas and adding them to the counters is a single statement, so a delta
+     * committed meanwhile is either folded here or left for the next fold, never lost.
+     */
+    private static final String FOLD = "WITH d AS (DELETE FROM salesdeltadb RETURNING sale_date, orders, revenue, id_product, author, id_category, units),"
+            + " days AS (INSERT INTO salesdaydb (sale_date, orders, units, revenue)"
+            + " SELECT sale_date, SUM(orders), SUM(units), SUM(revenue) FROM d GROUP BY sale_date ORDER BY sale_date"
+            + " ON CONFLICT (sale_date) DO UPDATE SET orders = salesdaydb.orders + EXCLUDED.orders,"
+            + " units = salesdaydb.units + EXCLUDED.units, revenue = salesdaydb.revenue + EXCLUDED.revenue),"
+            + " products AS (INSERT INTO salesproductdb (id_product, units)"
+            + " SELECT id_product, SUM(units) FROM d GROUP BY id_product ORDER BY id_product"
+            + " ON CONFLICT (id_product) DO UPDATE SET units = salesproductdb.units + EXCLUDED.units),"
+            + " authors AS (INSERT INTO salesauthordb (author, units)"
+            + " SELECT author, SUM(units) FROM d WHERE author IS NOT NULL GROUP BY author ORDER BY author"
+            + " ON CONFLICT (author) DO UPDATE SET units = salesauthordb.units + EXCLUDED.units)"
+            + " INSERT INTO salescategorydb (id_category, units)"
+            + " SELECT id_category, SUM(units) FROM d WHERE id_category IS NOT NULL GROUP BY id_category ORDER BY id_category"
+            + " ON CONFLICT (id_category) DO UPDATE SET units = salescategorydb.units + EXCLUDED.units";
+
+    /**
+     * The units of each product of each order: its order_quantitydb entry for orders placed from the
+     * cart, one per order_product entry otherwise.
+     */
+    private static final String ORDER_LINES = "(SELECT op.id_order, op.id_product, COALESCE(MAX(q.quantity), COUNT(*)) AS units"
+            + " FROM order_product op LEFT JOIN order_quantitydb q ON q.id_order = op.id_order AND q.id_product = op.id_product"
+            + " GROUP BY op.id_order, op.id_product) l";
+    /**
+     * An order counts once placed and with at least one product; orders from before order statuses have none.
+     */
+    private static final String COUNTED_ORDERS = "FROM " + ORDER_LINES + " JOIN orderdb o ON o.id_order = l.id_order"
+            + " WHERE COALESCE(o.status, 'PLACED') = 'PLACED'";
+    private static final String[] REBUILD = {
+            "LOCK TABLE salesdeltadb, salesdaydb, salesproductdb, salesauthordb, salescategorydb IN EXCLUSIVE MODE",
+            "DELETE FROM salesdeltadb",
+            "DELETE FROM salesdaydb",
+            "DELETE FROM salesproductdb",
+            "DELETE FROM salesauthordb",
+            "DELETE FROM salescategorydb",
+            "INSERT INTO salesdaydb (sale_date, orders, units, revenue)"
+                    + " SELECT o.order_date, COUNT(*), SUM(t.units), SUM(o.total_price) FROM orderdb o"
+                    + " JOIN (SELECT l.id_order, SUM(l.units) AS units FROM " + ORDER_LINES + " GROUP BY l.id_order) t ON t.id_order = o.id_order"
+                    + " WHERE COALESCE(o.status, 'PLACED') = 'PLACED' GROUP BY o.order_date",
+            "INSERT INTO salesproductdb (id_product, units) SELECT l.id_product, SUM(l.units) " + COUNTED_ORDERS
+                    + " GROUP BY l.id_product",
+            "INSERT INTO salesauthordb (author, units) SELECT p.author, SUM(l.units) " + COUNTED_ORDERS.replace(" WHERE",
+                    " JOIN productdb p ON p.id_product = l.id_product WHERE") + " GROUP BY p.author",
+            "INSERT INTO salescategorydb (id_category, units) SELECT p.category_id, SUM(l.units) " + COUNTED_ORDERS.replace(" WHERE",
+                    " JOIN productdb p ON p.id_product = l.id_product WHERE") + " AND p.category_id IS NOT NULL GROUP BY p.category_id"
+    };
+
+    private static final String FIND_DAYS = "SELECT sale_date, orders, units, revenue FROM salesdaydb"
+            + " WHERE sale_date BETWEEN ? AND ? AND orders > 0 ORDER BY sale_date";
+    private static final String FIND_TOP_PRODUCTS = "SELECT s.id_product AS id, p.name, s.units FROM salesproductdb s"
+            + " LEFT JOIN productdb p ON p.id_product = s.id_product WHERE s.units > 0 ORDER BY s.units DESC LIMIT ?";
+    private static final String FIND_TOP_AUTHORS = "SELECT author AS id, author AS name, units FROM salesauthordb"
+            + " WHERE units > 0 ORDER BY units DESC LIMIT ?";
+    private static final String FIND_TOP_CATEGORIES = "SELECT s.id_category AS id, c.name, s.units FROM salescategorydb s"
+            + " LEFT JOIN categorydb c ON c.id_category = s.id_category WHERE s.units > 0 ORDER BY s.units DESC LIMIT ?";
+    private static final String FIND_AVERAGE_ORDER_VALUE = "SELECT COALESCE(SUM(revenue) / NULLIF(SUM(orders), 0), 0) FROM salesdaydb";
+
+    private static final RowMapper<SalesRankDTO> RANK = (rs, rowNum) -> new SalesRankDTO(rs.getString("id"), rs.getString("name"), rs.getLong("units"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public SalesSummaryRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Queues changes to the counters; negative values take an order back out.
+     *
+     * @param deltas The product lines to add.
+     */
+    public void insertDeltas(List<SalesDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Object[]> arguments = new ArrayList<>(deltas.size());
+        for (SalesDelta delta : deltas) {
+            arguments.add(new Object[]{delta.getSale_date(), delta.getOrders(), delta.getRevenue(), delta.getId_product(),
+                    delta.getAuthor(), delta.getId_category(), delta.getUnits()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_DELTA, arguments);
+    }
+
+    /**
+     * Adds all pending deltas to the counters and deletes them.
+     */
+    public void fold() {
+        jdbcTemplate.update(FOLD);
+    }
+
+    /**
+     * Recomputes every summary table from the orders with set-based aggregations and drops the
+     * pending deltas, which the orders already account for. The tables stay locked until the end of
+     * the transaction, so orders placed meanwhile wait and are added afterwards.
+     */
+    public void rebuild() {
+        for (String statement : REBUILD) {
+            jdbcTemplate.execute(statement);
+        }
+    }
+
+    public List<SalesDayDTO> findDays(LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(FIND_DAYS, (rs, rowNum) -> new SalesDayDTO(rs.getObject("sale_date", LocalDate.class),
+                rs.getLong("orders"), rs.getLong("units"), rs.getDouble("revenue")), from, to);
+    }
+
+    public List<SalesRankDTO> findTopProducts(int limit) {
+        return jdbcTemplate.query(FIND_TOP_PRODUCTS, RANK, limit);
+    }
+
+    public List<SalesRankDTO> findTopAuthors(int limit) {
+        return jdbcTemplate.query(FIND_TOP_AUTHORS, RANK, limit);
+    }
+
+    public List<SalesRankDTO> findTopCategories(int limit) {
+        return jdbcTemplate.query(FIND_TOP_CATEGORIES, RANK, limit);
+    }
+
+    public double findAverageOrderValue() {
+        Double average = jdbcTemplate.queryForObject(FIND_AVERAGE_ORDER_VALUE, Double.class);
+        return average != null ? average : 0;
+    }
+}
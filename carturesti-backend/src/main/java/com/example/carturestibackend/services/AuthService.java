@@ -5,6 +5,8 @@ import com.example.carturestibackend.dtos.mappers.UserMapper;
 import com.example.carturestibackend.entities.Cart;
 import com.example.carturestibackend.entities.User;
 import com.example.carturestibackend.repositories.UserRepository;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -53,6 +55,18 @@ public class AuthService {
         return null;
     }
 
+    /**
+     * Checks if the session of the request belongs to an admin.
+     *
+     * @param request The HttpServletRequest object representing the client request.
+     * @return true if a user is logged in on the session and has the admin role.
+     */
+    public boolean isAdmin(HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        return session != null && session.getAttribute("username") != null
+                && "admin".equals(getRole((String) session.getAttribute("username")));
+    }
+
     /**
      * Checks if a user with the given name and password exists.
      *
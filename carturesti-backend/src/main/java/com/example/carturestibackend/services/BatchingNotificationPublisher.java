@@ -0,0 +1,201 @@
+package com.example.carturestibackend.services;
+
+import com.example.carturestibackend.config.NotificationTransport;
+import com.example.carturestibackend.dtos.NotificationPublisherStatsDTO;
+import com.example.carturestibackend.dtos.NotificationRequestDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Publishes notifications in batches with asynchronous publisher confirms.
+ * Submitted notifications are buffered until {@code notification.publisher.batch-size} of them are
+ * waiting or {@code notification.publisher.linger-ms} has passed, then published back to back without
+ * waiting for the broker. At most {@code notification.publisher.max-in-flight} notifications await
+ * their confirm at a time; one that is rejected or not confirmed within the timeout is published
+ * again, up to {@code notification.publisher.max-attempts} times. Submissions are keyed by the caller:
+ * while one is pending, submitting the same key again returns its confirm instead of publishing twice.
+ */
+@Component
+public class BatchingNotificationPublisher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchingNotificationPublisher.class);
+
+    private final NotificationTransport notificationTransport;
+    private final int batchSize;
+    private final int maxInFlight;
+    private final int maxAttempts;
+    private final long confirmTimeoutNanos;
+    private final Queue<Publication> buffer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger buffered = new AtomicInteger();
+    private final Map<String, Publication> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Publication> pending = new ConcurrentHashMap<>();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder confirmed = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder confirmLatencyNanos = new LongAdder();
+    private final AtomicLong maxConfirmLatencyNanos = new AtomicLong();
+
+    /**
+     * Constructs a new BatchingNotificationPublisher.
+     *
+     * @param notificationTransport The transport to the broker.
+     * @param batchSize             The number of buffered notifications that triggers a publication.
+     * @param maxInFlight           The number of notifications that may await their confirm at once.
+     * @param maxAttempts           How many times a notification is published before it fails.
+     * @param confirmTimeoutMillis  How long a confirm is awaited before the notification is published again.
+     */
+    @Autowired
+    public BatchingNotificationPublisher(NotificationTransport notificationTransport,
+                                         @Value("${notification.publisher.batch-size:100}") int batchSize,
+                                         @Value("${notification.publisher.max-in-flight:1000}") int maxInFlight,
+                                         @Value("${notification.publisher.max-attempts:3}") int maxAttempts,
+                                         @Value("${notification.publisher.confirm-timeout-ms:5000}") long confirmTimeoutMillis) {
+        this.notificationTransport = notificationTransport;
+        this.batchSize = batchSize;
+        this.maxInFlight = maxInFlight;
+        this.maxAttempts = maxAttempts;
+        this.confirmTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(confirmTimeoutMillis);
+    }
+
+    /**
+     * Buffers a notification for the next batch, unless one submitted under the same key is still pending.
+     *
+     * @param key     Identifies the notification, e.g. its outbox message.
+     * @param payload The notification.
+     * @return Completes once the broker confirmed the notification, or exceptionally once it failed
+     * {@code max-attempts} times.
+     */
+    public CompletableFuture<Void> submit(String key, NotificationRequestDTO payload) {
+        Publication publication = new Publication(key, payload);
+        Publication submitted = pending.putIfAbsent(key, publication);
+        if (submitted != null) {
+            return submitted.result;
+        }
+        enqueue(publication);
+        if (buffered.get() >= batchSize) {
+            flush();
+        }
+        return publication.result;
+    }
+
+    private void enqueue(Publication publication) {
+        buffer.add(publication);
+        buffered.incrementAndGet();
+    }
+
+    /**
+     * Publishes the buffered notifications while fewer than max-in-flight await their confirm.
+     */
+    public void flush() {
+        Publication publication;
+        while (inFlight.size() < maxInFlight && (publication = buffer.poll()) != null) {
+            buffered.decrementAndGet();
+            publish(publication);
+        }
+    }
+
+    /**
+     * Runs the time limit of the batches and republishes the notifications whose confirm is overdue.
+     */
+    @Scheduled(fixedDelayString = "${notification.publisher.linger-ms:50}")
+    public void tick() {
+        long now = System.nanoTime();
+        inFlight.forEach((correlationId, publication) -> {
+            if (now - publication.sentAt > confirmTimeoutNanos && inFlight.remove(correlationId, publication)) {
+                retry(publication, "no confirm within the timeout");
+            }
+        });
+        flush();
+    }
+
+    private void publish(Publication publication) {
+        publication.attempts++;
+        publication.sentAt = System.nanoTime();
+        // A new correlation ID per attempt, so that a late confirm of an earlier attempt is ignored.
+        String correlationId = publication.id + "#" + publication.attempts;
+        inFlight.put(correlationId, publication);
+        published.increment();
+        try {
+            notificationTransport.publish(correlationId, publication.payload)
+                    .whenComplete((ack, error) -> confirmed(correlationId, publication, Boolean.TRUE.equals(ack),
+                            error != null ? error.getMessage() : "rejected by the broker"));
+        } catch (AmqpException e) {
+            confirmed(correlationId, publication, false, e.getMessage());
+        }
+    }
+
+    private void confirmed(String correlationId, Publication publication, boolean ack, String reason) {
+        if (!inFlight.remove(correlationId, publication)) {
+            return;
+        }
+        if (ack) {
+            long latency = System.nanoTime() - publication.sentAt;
+            confirmLatencyNanos.add(latency);
+            maxConfirmLatencyNanos.accumulateAndGet(latency, Math::max);
+            confirmed.increment();
+            pending.remove(publication.key, publication);
+            publication.result.complete(null);
+        } else {
+            retry(publication, reason);
+        }
+    }
+
+    private void retry(Publication publication, String reason) {
+        if (publication.attempts >= maxAttempts) {
+            failed.increment();
+            LOGGER.error("Notification to {} failed after {} attempts: {}", publication.payload.getEmail(), publication.attempts, reason);
+            pending.remove(publication.key, publication);
+            publication.result.completeExceptionally(new AmqpException("Notification not confirmed: " + reason));
+            return;
+        }
+        retried.increment();
+        LOGGER.warn("Republishing notification to {}: {}", publication.payload.getEmail(), reason);
+        enqueue(publication);
+    }
+
+    public NotificationPublisherStatsDTO getStats() {
+        long confirmedCount = confirmed.sum();
+        return NotificationPublisherStatsDTO.builder()
+                .buffered(buffered.get())
+                .inFlight(inFlight.size())
+                .published(published.sum())
+                .confirmed(confirmedCount)
+                .retried(retried.sum())
+                .failed(failed.sum())
+                .averageConfirmLatencyMillis(confirmedCount == 0 ? 0 : confirmLatencyNanos.sum() / 1e6 / confirmedCount)
+                .maxConfirmLatencyMillis(maxConfirmLatencyNanos.get() / 1e6)
+                .build();
+    }
+
+    private static final class Publication {
+
+        private final String id = UUID.randomUUID().toString();
+        private final String key;
+        private final NotificationRequestDTO payload;
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+        private volatile int attempts;
+        private volatile long sentAt;
+
+        private Publication(String key, NotificationRequestDTO payload) {
+            this.key = key;
+            this.payload = payload;
+        }
+    }
+}
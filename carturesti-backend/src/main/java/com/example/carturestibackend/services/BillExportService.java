@@ -0,0 +1,160 @@
+package com.example.carturestibackend.services;
+
+import com.example.carturestibackend.config.BillJobConfig;
+import com.example.carturestibackend.entities.Order;
+import com.example.carturestibackend.repositories.OrderRepository;
+import com.example.carturestibackend.strategy.BillFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streams the bills of every order of a date range into one ZIP archive. Order IDs are read a page
+ * at a time and the bills are rendered on the billExportExecutor pool, at most {@code window}
+ * of them ahead of the one being written, so memory use depends on the window and not on the
+ * number of orders. Entries are written in order ID order whatever order the renders finish in.
+ */
+@Service
+public class BillExportService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BillExportService.class);
+
+    private final OrderRepository orderRepository;
+    private final ThreadPoolTaskExecutor executor;
+    private final int window;
+    private final int pageSize;
+
+    /**
+     * Constructs a new BillExportService.
+     *
+     * @param orderRepository The repository the orders are read from.
+     * @param executor        The pool rendering the bills.
+     * @param window          The number of bills rendered ahead of the archive; 0 uses twice the pool size.
+     * @param pageSize        The number of order IDs read per query.
+     */
+    @Autowired
+    public BillExportService(OrderRepository orderRepository, @Qualifier(BillJobConfig.BILL_EXPORT_EXECUTOR) ThreadPoolTaskExecutor executor,
+                             @Value("${bill.export.window:0}") int window, @Value("${bill.export.page-size:200}") int pageSize) {
+        this.orderRepository = orderRepository;
+        this.executor = executor;
+        this.window = window > 0 ? window : 2 * executor.getMaxPoolSize();
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Writes a ZIP archive holding the bill of every placed order of the date range.
+     *
+     * @param from   The first order date, inclusive.
+     * @param to     The last order date, inclusive.
+     * @param format The format of the bills.
+     * @param out    The stream to write the archive to; finished but not closed.
+     * @return The number of bills written.
+     * @throws IllegalArgumentException if the range is empty; nothing is written then.
+     */
+    public int exportBills(LocalDate from, LocalDate to, BillFormat format, OutputStream out) throws IOException {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("The start date " + from + " is after the end date " + to);
+        }
+        Deque<CompletableFuture<Bill>> rendering = new ArrayDeque<>(window);
+        ZipOutputStream zip = new ZipOutputStream(out);
+        int written = 0;
+        try {
+            String after = "";
+            List<String> orderIds;
+            do {
+                orderIds = orderRepository.findIdsByOrderDateBetween(from, to, after, PageRequest.ofSize(pageSize));
+                for (String orderId : orderIds) {
+                    if (rendering.size() == window) {
+                        written += write(zip, rendering.poll(), format);
+                    }
+                    rendering.add(render(orderId, format));
+                    after = orderId;
+                }
+            } while (orderIds.size() == pageSize);
+            while (!rendering.isEmpty()) {
+                written += write(zip, rendering.poll(), format);
+            }
+            zip.finish();
+        } finally {
+            rendering.forEach(bill -> bill.cancel(false));
+        }
+        LOGGER.info("Exported {} {} bills of the orders from {} to {}", written, format.getExtension(), from, to);
+        return written;
+    }
+
+    private CompletableFuture<Bill> render(String orderId, BillFormat format) {
+        try {
+            return CompletableFuture.supplyAsync(() -> renderBill(orderId, format), executor);
+        } catch (TaskRejectedException e) {
+            // The pool is saturated: render on the exporting thread rather than fail the archive.
+            return CompletableFuture.completedFuture(renderBill(orderId, format));
+        }
+    }
+
+    /**
+     * @return The bill, or null when the order was deleted since its ID was read.
+     */
+    private Bill renderBill(String orderId, BillFormat format) {
+        Optional<Order> order = orderRepository.findById(orderId);
+        if (order.isEmpty()) {
+            return null;
+        }
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        try {
+            format.newFileGenerator().generateFile(order.get(), content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new Bill(orderId, content);
+    }
+
+    private static int write(ZipOutputStream zip, CompletableFuture<Bill> rendering, BillFormat format) throws IOException {
+        Bill bill;
+        try {
+            bill = rendering.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+        if (bill == null) {
+            return 0;
+        }
+        zip.putNextEntry(new ZipEntry("bill-" + bill.orderId + "." + format.getExtension()));
+        bill.content.writeTo(zip);
+        zip.closeEntry();
+        return 1;
+    }
+
+    private static final class Bill {
+
+        private final String orderId;
+        private final ByteArrayOutputStream content;
+
+        private Bill(String orderId, ByteArrayOutputStream content) {
+            this.orderId = orderId;
+            this.content = content;
+        }
+    }
+}
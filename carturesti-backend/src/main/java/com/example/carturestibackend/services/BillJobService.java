@@ -0,0 +1,189 @@
+package com.example.carturestibackend.services;
+
+import com.example.carturestibackend.config.BillJobConfig;
+import com.example.carturestibackend.dtos.BillJobDTO;
+import com.example.carturestibackend.entities.Order;
+import com.example.carturestibackend.entities.User;
+import com.example.carturestibackend.strategy.BillFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.rest.webmvc.ResourceNotFoundException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates and emails the bills of one or many orders on the billGenerationExecutor pool, off the
+ * request threads. A job spreads its orders over up to one runner per pool thread, each taking the
+ * next order of the job until none is left, so a job of thousands of orders occupies the pool
+ * without queueing thousands of tasks. Bills go through the BillStore, so orders whose bill is
+ * already stored are only emailed. The latest finished jobs are kept for their progress to be polled.
+ */
+@Service
+public class BillJobService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BillJobService.class);
+    static final int MAX_FINISHED_JOBS = 100;
+    static final int MAX_REPORTED_FAILURES = 100;
+
+    private final OrderService orderService;
+    private final ThreadPoolTaskExecutor executor;
+    private final Map<String, BillJob> jobs = new ConcurrentHashMap<>();
+    private final Queue<String> finished = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Constructs a new BillJobService.
+     *
+     * @param orderService Generates and emails the bill of each order.
+     * @param executor     The pool rendering the bills.
+     */
+    @Autowired
+    public BillJobService(OrderService orderService, @Qualifier(BillJobConfig.BILL_GENERATION_EXECUTOR) ThreadPoolTaskExecutor executor) {
+        this.orderService = orderService;
+        this.executor = executor;
+    }
+
+    /**
+     * Renders a throw-away bill once, so that PDFBox and its standard fonts are loaded at startup
+     * rather than by the first job.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        Order order = new Order();
+        order.setUser(new User());
+        order.setProducts(List.of());
+        try {
+            BillFormat.PDF.newFileGenerator().generateFile(order, OutputStream.nullOutputStream());
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Failed to preload the bill generator: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Starts a job generating and emailing the bills of the orders.
+     *
+     * @param orderIds The IDs of the orders; duplicates are ignored.
+     * @param format   The format of the bills.
+     * @return The initial progress of the job.
+     * @throws IllegalArgumentException if no order ID is given.
+     */
+    public BillJobDTO submit(Collection<String> orderIds, BillFormat format) {
+        if (orderIds == null || orderIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one order ID is required");
+        }
+        BillJob job = new BillJob(UUID.randomUUID().toString(), format, new LinkedHashSet<>(orderIds));
+        jobs.put(job.id, job);
+        int runners = Math.min(executor.getMaxPoolSize(), job.total);
+        int started = 0;
+        try {
+            for (; started < runners; started++) {
+                executor.execute(() -> run(job));
+            }
+        } catch (TaskRejectedException e) {
+            LOGGER.warn("Bill job {} started with {} of {} runners: {}", job.id, started, runners, e.getMessage());
+        }
+        if (started == 0) {
+            // Nothing will ever take the orders of this job.
+            String orderId;
+            while ((orderId = job.pending.poll()) != null) {
+                processed(job, orderId, false);
+            }
+        }
+        LOGGER.info("Bill job {} started for {} orders", job.id, job.total);
+        return toDTO(job);
+    }
+
+    private void run(BillJob job) {
+        String orderId;
+        while ((orderId = job.pending.poll()) != null) {
+            boolean sent = false;
+            try {
+                orderService.generateAndSendBill(orderId, job.format);
+                sent = true;
+            } catch (RuntimeException e) {
+                LOGGER.error("Bill job {} failed for order {}: {}", job.id, orderId, e.getMessage());
+            }
+            processed(job, orderId, sent);
+        }
+    }
+
+    private void processed(BillJob job, String orderId, boolean sent) {
+        if (sent) {
+            job.completed.incrementAndGet();
+        } else if (job.failed.incrementAndGet() <= MAX_REPORTED_FAILURES) {
+            job.failedOrderIds.add(orderId);
+        }
+        if (job.processed.incrementAndGet() == job.total) {
+            LOGGER.info("Bill job {} done: {} bills sent, {} failed", job.id, job.completed.get(), job.failed.get());
+            finished.add(job.id);
+            while (finished.size() > MAX_FINISHED_JOBS) {
+                jobs.remove(finished.poll());
+            }
+        }
+    }
+
+    /**
+     * Retrieves the progress of a job.
+     *
+     * @param jobId The ID of the job.
+     * @return The BillJobDTO object describing the progress.
+     * @throws ResourceNotFoundException if the job is unknown or finished long ago.
+     */
+    public BillJobDTO findJob(String jobId) {
+        BillJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Bill job not found with ID: " + jobId);
+        }
+        return toDTO(job);
+    }
+
+    private static BillJobDTO toDTO(BillJob job) {
+        int completed = job.completed.get();
+        int failed = job.failed.get();
+        return BillJobDTO.builder()
+                .id_job(job.id)
+                .format(job.format.getExtension())
+                .total(job.total)
+                .completed(completed)
+                .failed(failed)
+                .done(completed + failed == job.total)
+                .failed_order_ids(new ArrayList<>(job.failedOrderIds))
+                .build();
+    }
+
+    private static final class BillJob {
+
+        private final String id;
+        private final BillFormat format;
+        private final int total;
+        private final Queue<String> pending;
+        private final AtomicInteger completed = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicInteger processed = new AtomicInteger();
+        private final Queue<String> failedOrderIds = new ConcurrentLinkedQueue<>();
+
+        private BillJob(String id, BillFormat format, Collection<String> orderIds) {
+            this.id = id;
+            this.format = format;
+            this.total = orderIds.size();
+            this.pending = new ConcurrentLinkedQueue<>(orderIds);
+        }
+    }
+}
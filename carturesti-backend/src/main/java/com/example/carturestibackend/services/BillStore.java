@@ -0,0 +1,164 @@
+package com.example.carturestibackend.services;
+
+import com.example.carturestibackend.entities.Order;
+import com.example.carturestibackend.entities.Product;
+import com.example.carturestibackend.entities.User;
+import com.example.carturestibackend.strategy.BillFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Stores the generated bills of the orders, one file per order, format and content.
+ * A bill is named after its order and a SHA-256 fingerprint of what it prints, so an order that did
+ * not change since its bill was generated finds that bill with a single lookup and is not rendered
+ * again, while a changed order gets a new file. Bills are rendered into a temporary file and renamed
+ * into place, so concurrent generations never expose a partly written bill to each other.
+ * The fingerprint is digested straight from the order, its customer and the IDs, prices, names and
+ * authors of its products, so a lookup renders nothing. Storing a new version deletes the order's
+ * bills with another fingerprint, which no longer match the order.
+ */
+@Component
+public class BillStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BillStore.class);
+
+    private final Path directory;
+
+    /**
+     * Constructs a new BillStore.
+     *
+     * @param directory The directory holding the bills; created if missing.
+     */
+    @Autowired
+    public BillStore(@Value("${bill.store.dir:bills}") String directory) {
+        this.directory = Paths.get(directory).toAbsolutePath();
+        try {
+            Files.createDirectories(this.directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create the bill directory " + this.directory, e);
+        }
+    }
+
+    /**
+     * Returns the bill of the order in the given format, generating it only if the order changed
+     * since it was last generated.
+     *
+     * @param order  The order, with its user and products loaded.
+     * @param format The format of the bill.
+     * @return The path of the bill.
+     * @throws UncheckedIOException if the bill cannot be written.
+     */
+    public Path bill(Order order, BillFormat format) {
+        Path temporary = null;
+        try {
+            Path bill = directory.resolve(order.getId_order() + "-" + fingerprint(order) + "." + format.getExtension());
+            if (Files.exists(bill)) {
+                LOGGER.debug("Reusing bill {} of order {}", bill.getFileName(), order.getId_order());
+                return bill;
+            }
+            temporary = Files.createTempFile(directory, order.getId_order(), ".tmp");
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temporary))) {
+                format.newFileGenerator().generateFile(order, out);
+            }
+            moveIntoPlace(temporary, bill);
+            LOGGER.info("Stored bill {} of order {}", bill.getFileName(), order.getId_order());
+            deleteOutdated(order.getId_order(), bill);
+            return bill;
+        } catch (IOException e) {
+            LOGGER.error("Error at generating {} bill of order {}: {}", format, order.getId_order(), e.getMessage());
+            throw new UncheckedIOException("Failed to generate the bill of order " + order.getId_order(), e);
+        } finally {
+            deleteQuietly(temporary);
+        }
+    }
+
+    private static void moveIntoPlace(Path temporary, Path bill) throws IOException {
+        try {
+            Files.move(temporary, bill, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, bill, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Deletes the bills of the order, in any format, whose fingerprint differs from the current one.
+     */
+    private void deleteOutdated(String orderId, Path current) {
+        String currentName = current.getFileName().toString();
+        String stem = currentName.substring(0, currentName.lastIndexOf('.'));
+        try (DirectoryStream<Path> bills = Files.newDirectoryStream(directory, orderId + "-*")) {
+            for (Path bill : bills) {
+                String name = bill.getFileName().toString();
+                int extension = name.lastIndexOf('.');
+                if (extension == stem.length() && !name.startsWith(stem) && !name.endsWith(".tmp")) {
+                    Files.deleteIfExists(bill);
+                    LOGGER.debug("Deleted outdated bill {} of order {}", name, orderId);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Failed to delete the outdated bills of order {}: {}", orderId, e.getMessage());
+        }
+    }
+
+    private static void deleteQuietly(Path temporary) {
+        if (temporary == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(temporary);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to delete temporary bill {}: {}", temporary, e.getMessage());
+        }
+    }
+
+    /**
+     * @return The SHA-256, in hex, of every field of the order that a bill prints, plus the IDs and
+     * prices of its products.
+     */
+    static String fingerprint(Order order) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        update(digest, order.getId_order());
+        update(digest, order.getOrder_date());
+        update(digest, order.getTotal_price());
+        User user = order.getUser();
+        update(digest, user.getName());
+        update(digest, user.getAddress());
+        update(digest, user.getEmail());
+        for (Product product : order.getProducts()) {
+            update(digest, product.getId_product());
+            update(digest, product.getPrice());
+            update(digest, product.getName());
+            update(digest, product.getAuthor());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, Object field) {
+        digest.update(String.valueOf(field).getBytes(StandardCharsets.UTF_8));
+        // Separates the fields, so that moving characters from one field to the next changes the digest.
+        digest.update((byte) 0);
+    }
+}
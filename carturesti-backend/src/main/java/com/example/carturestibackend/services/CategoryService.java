@@ -1,5 +1,6 @@
 package com.example.carturestibackend.services;
 
+import com.example.carturestibackend.catalog.ProductCatalogChangedEvent;
 import com.example.carturestibackend.constants.CategoryLogger;
 import com.example.carturestibackend.dtos.CategoryDTO;
 import com.example.carturestibackend.dtos.mappers.CategoryMapper;
@@ -12,6 +13,7 @@ import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.rest.webmvc.ResourceNotFoundException;
 import org.springframework.stereotype.Service;
 
@@ -29,6 +31,7 @@ public class CategoryService {
     private final CategoryRepository categoryRepository;
     private final ProductRepository productRepository;
     private final CategoryValidator categoryValidator;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Constructs a new CategoryService with the specified CategoryRepository.
@@ -36,12 +39,14 @@ public class CategoryService {
      * @param categoryRepository The CategoryRepository used to interact with category data in the database.
      * @param productRepository
      * @param categoryValidator
+     * @param eventPublisher     Publishes ProductCatalogChangedEvent for the products of changed categories.
      */
     @Autowired
-    public CategoryService(CategoryRepository categoryRepository, ProductRepository productRepository, CategoryValidator categoryValidator) {
+    public CategoryService(CategoryRepository categoryRepository, ProductRepository productRepository, CategoryValidator categoryValidator, ApplicationEventPublisher eventPublisher) {
         this.categoryRepository = categoryRepository;
         this.productRepository = productRepository;
         this.categoryValidator = categoryValidator;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -105,6 +110,11 @@ public class CategoryService {
             }
 
             categoryRepository.deleteById(id_category);
+            if (!products.isEmpty()) {
+                eventPublisher.publishEvent(new ProductCatalogChangedEvent(products.stream()
+                        .map(Product::getId_product)
+                        .collect(Collectors.toList())));
+            }
 
             LOGGER.debug(CategoryLogger.CATEGORY_DELETED, id_category);
         } else {
@@ -134,6 +144,11 @@ public class CategoryService {
         existingCategory.setDescription(categoryDTO.getDescription());
 
         Category updatedCategory = categoryRepository.save(existingCategory);
+        if (updatedCategory.getProducts() != null && !updatedCategory.getProducts().isEmpty()) {
+            eventPublisher.publishEvent(new ProductCatalogChangedEvent(updatedCategory.getProducts().stream()
+                    .map(Product::getId_product)
+                    .collect(Collectors.toList())));
+        }
         LOGGER.debug(CategoryLogger.CATEGORY_UPDATED, updatedCategory.getId_category());
 
         return CategoryMapper.toCategoryDTO(updatedCategory);
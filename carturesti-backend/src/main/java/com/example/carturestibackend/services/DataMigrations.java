@@ -0,0 +1,70 @@
+package com.example.carturestibackend.services;
+
+import com.example.carturestibackend.repositories.DataMigrationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs the one-time data migrations at startup, once every bean exists but before the web server,
+ * the schedulers and the listeners start, so no request sees the data half migrated.
+ * Each migration runs in its own transaction together with the record that marks it applied, so it
+ * runs exactly once even when several instances start together.
+ */
+@Component
+public class DataMigrations implements SmartInitializingSingleton {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DataMigrations.class);
+
+    static final String RESTORE_PROMOTION_LIST_PRICES = "restore-promotion-list-prices";
+    static final String BACKFILL_PRODUCT_RATINGS = "backfill-product-ratings";
+
+    private final DataMigrationRepository dataMigrationRepository;
+    private final PromotionPricingEngine promotionPricingEngine;
+    private final ProductRatingService productRatingService;
+    private final TransactionTemplate transaction;
+
+    /**
+     * Constructs a new DataMigrations.
+     *
+     * @param dataMigrationRepository The repository recording the applied migrations.
+     * @param promotionPricingEngine  Restores the prices overwritten by the former promotion pricing.
+     * @param productRatingService    Computes the rating aggregates from the reviews written before them.
+     * @param transactionManager      Runs each migration in its own transaction.
+     */
+    @Autowired
+    public DataMigrations(DataMigrationRepository dataMigrationRepository, PromotionPricingEngine promotionPricingEngine,
+                          ProductRatingService productRatingService, PlatformTransactionManager transactionManager) {
+        this.dataMigrationRepository = dataMigrationRepository;
+        this.promotionPricingEngine = promotionPricingEngine;
+        this.productRatingService = productRatingService;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        apply(RESTORE_PROMOTION_LIST_PRICES, () -> {
+            int products = promotionPricingEngine.restoreListPrices();
+            LOGGER.info("Restored the regular price of {} products on promotion", products);
+        });
+        apply(BACKFILL_PRODUCT_RATINGS, productRatingService::recomputeFromReviews);
+    }
+
+    /**
+     * Runs the migration unless it was already applied.
+     *
+     * @param name      The name the migration is recorded under.
+     * @param migration The migration itself.
+     */
+    void apply(String name, Runnable migration) {
+        transaction.executeWithoutResult(status -> {
+            if (dataMigrationRepository.markApplied(name) > 0) {
+                migration.run();
+            }
+        });
+    }
+}
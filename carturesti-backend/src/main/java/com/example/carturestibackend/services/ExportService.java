@@ -0,0 +1,251 @@
+package com.example.carturestibackend.services;
+
+import com.example.carturestibackend.repositories.ExportRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+/**
+ * Streams the orders, order items and products as CSV or JSON lines, row by row from an
+ * ExportRepository cursor into the output stream. Each export runs in its own read-only
+ * transaction, which keeps the cursor open and does not touch the callers' persistence context.
+ */
+@Service
+public class ExportService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExportService.class);
+
+    public enum Dataset {
+        ORDERS, ORDER_ITEMS, PRODUCTS;
+
+        /**
+         * @throws IllegalArgumentException if the name is not one of orders, order-items or products.
+         */
+        public static Dataset fromName(String name) {
+            for (Dataset dataset : values()) {
+                if (dataset.name().replace('_', '-').equalsIgnoreCase(name)) {
+                    return dataset;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported export: " + name);
+        }
+    }
+
+    public enum Format {
+        CSV("csv", "text/csv;charset=UTF-8"),
+        JSONL("jsonl", "application/x-ndjson");
+
+        private final String extension;
+        private final String contentType;
+
+        Format(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        /**
+         * @throws IllegalArgumentException if the extension is not csv or jsonl.
+         */
+        public static Format fromExtension(String extension) {
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(extension)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported export format: " + extension);
+        }
+    }
+
+    private final ExportRepository exportRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+
+    /**
+     * Constructs a new ExportService.
+     *
+     * @param exportRepository   The repository streaming the rows.
+     * @param objectMapper       Writes the JSON lines.
+     * @param transactionManager The transaction manager the exports run their read-only transactions with.
+     */
+    @Autowired
+    public ExportService(ExportRepository exportRepository, ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+        this.exportRepository = exportRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Writes every row of the dataset to the stream.
+     *
+     * @param dataset The rows to export.
+     * @param format  The format to write them in.
+     * @param out     The stream to write to; flushed but not closed.
+     * @return The number of rows written.
+     */
+    public long export(Dataset dataset, Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        RowWriter rows = format == Format.CSV ? new CsvRowWriter(writer) : new JsonLinesRowWriter(objectMapper.createGenerator(writer));
+        long count;
+        try {
+            count = readOnlyTransaction.execute(status -> query(dataset, rows));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        rows.flush();
+        LOGGER.info("Exported {} rows of {} as {}", count, dataset, format.getExtension());
+        return count;
+    }
+
+    private Long query(Dataset dataset, ResultSetExtractor<Long> extractor) {
+        switch (dataset) {
+            case ORDERS:
+                return exportRepository.queryOrders(extractor);
+            case ORDER_ITEMS:
+                return exportRepository.queryOrderItems(extractor);
+            default:
+                return exportRepository.queryProducts(extractor);
+        }
+    }
+
+    /**
+     * Writes the rows of a result set as they come, after a header from its column labels.
+     */
+    private abstract static class RowWriter implements ResultSetExtractor<Long> {
+
+        @Override
+        public Long extractData(ResultSet rs) throws SQLException {
+            try {
+                ResultSetMetaData metaData = rs.getMetaData();
+                String[] columns = new String[metaData.getColumnCount()];
+                for (int i = 0; i < columns.length; i++) {
+                    columns[i] = metaData.getColumnLabel(i + 1).toLowerCase();
+                }
+                header(columns);
+                Object[] values = new Object[columns.length];
+                long count = 0;
+                while (rs.next()) {
+                    for (int i = 0; i < columns.length; i++) {
+                        values[i] = value(rs.getObject(i + 1));
+                    }
+                    row(columns, values);
+                    count++;
+                }
+                return count;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Keeps numbers and booleans, writes dates and everything else as text.
+         */
+        private static Object value(Object value) {
+            return value == null || value instanceof Number || value instanceof Boolean ? value : value.toString();
+        }
+
+        abstract void header(String[] columns) throws IOException;
+
+        abstract void row(String[] columns, Object[] values) throws IOException;
+
+        abstract void flush() throws IOException;
+    }
+
+    private static final class CsvRowWriter extends RowWriter {
+
+        private final Writer writer;
+
+        private CsvRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        void header(String[] columns) throws IOException {
+            line(columns);
+        }
+
+        @Override
+        void row(String[] columns, Object[] values) throws IOException {
+            line(values);
+        }
+
+        private void line(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                if (values[i] != null) {
+                    writer.write(escape(values[i].toString()));
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        private static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+
+        @Override
+        void flush() throws IOException {
+            writer.flush();
+        }
+    }
+
+    private static final class JsonLinesRowWriter extends RowWriter {
+
+        private final JsonGenerator generator;
+
+        private JsonLinesRowWriter(JsonGenerator generator) {
+            this.generator = generator;
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        void header(String[] columns) {
+        }
+
+        @Override
+        void row(String[] columns, Object[] values) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < columns.length; i++) {
+                generator.writeObjectField(columns[i], values[i]);
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        void flush() throws IOException {
+            generator.flush();
+        }
+    }
+}
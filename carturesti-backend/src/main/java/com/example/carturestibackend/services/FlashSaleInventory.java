@@ -0,0 +1,236 @@
+package com.example.carturestibackend.services;
+
+import com.example.carturestibackend.catalog.ProductCatalogChangedEvent;
+import com.example.carturestibackend.dtos.FlashSaleDTO;
+import com.example.carturestibackend.repositories.ProductStockRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.rest.webmvc.ResourceNotFoundException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Flash-sale mode for hot products: while a product is on sale its available stock lives in a
+ * StripedStockCounter and checkouts reserve from the shards instead of updating the product row.
+ * The units sold are written behind to Product.stock by {@link #flush()} in one JDBC batch.
+ * <p>
+ * While on sale the row keeps its meaning, available stock plus units not yet flushed, because any
+ * reservation or release still applied to the row is mirrored into the counter (see
+ * {@link #mirror(String, long)}). Starting a sale reads the stock under a row lock, so a reservation
+ * racing with the start either is included in that read or waits for the lock and then sees the sale.
+ * A stopped product is flushed for two more rounds before its counter is dropped, so that
+ * reservations which picked up the counter just before the stop are not lost.
+ */
+@Component
+public class FlashSaleInventory {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FlashSaleInventory.class);
+    static final int RETIRE_AFTER_FLUSHES = 2;
+
+    private final ProductStockRepository productStockRepository;
+    private final TransactionTemplate transaction;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int shards;
+    private final Map<String, StripedStockCounter> onSale = new ConcurrentHashMap<>();
+    private final Map<String, StripedStockCounter> stopping = new ConcurrentHashMap<>();
+    private final Map<String, Integer> flushesSinceStop = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new FlashSaleInventory.
+     *
+     * @param productStockRepository Reads the stock when a sale starts and writes the units sold behind.
+     * @param transactionManager     Runs the start of a sale and each flush in their own transaction.
+     * @param eventPublisher         Publishes ProductCatalogChangedEvent for the flushed products.
+     * @param shards                 The number of shards per product; 0 sizes them from the number of cores.
+     */
+    @Autowired
+    public FlashSaleInventory(ProductStockRepository productStockRepository, PlatformTransactionManager transactionManager,
+                              ApplicationEventPublisher eventPublisher, @Value("${flash-sale.shards:0}") int shards) {
+        this.productStockRepository = productStockRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.eventPublisher = eventPublisher;
+        int wanted = shards > 0 ? shards : 2 * Runtime.getRuntime().availableProcessors();
+        this.shards = Integer.highestOneBit(Math.max(1, wanted - 1)) << 1;
+    }
+
+    /**
+     * Puts a product in flash-sale mode, moving its available stock into the shards.
+     *
+     * @param productId The ID of the product.
+     * @return The state of the sale.
+     * @throws ResourceNotFoundException if the product does not exist.
+     * @throws IllegalArgumentException if the product is already on sale or still being stopped.
+     */
+    public FlashSaleDTO start(String productId) {
+        if (onSale.containsKey(productId) || stopping.containsKey(productId)) {
+            throw new IllegalArgumentException("Product " + productId + " is already in flash-sale mode");
+        }
+        StripedStockCounter counter = transaction.execute(status -> {
+            Long stock = productStockRepository.lockStock(productId);
+            if (stock == null) {
+                throw new ResourceNotFoundException("Product not found with ID: " + productId);
+            }
+            // Checked again under the row lock: a concurrent start that won the lock already published its counter.
+            if (stopping.containsKey(productId)) {
+                throw new IllegalArgumentException("Product " + productId + " is already in flash-sale mode");
+            }
+            StripedStockCounter started = new StripedStockCounter(Math.max(0, stock), shards);
+            // Published while the row lock is held; see the class comment.
+            if (onSale.putIfAbsent(productId, started) != null) {
+                throw new IllegalArgumentException("Product " + productId + " is already in flash-sale mode");
+            }
+            return started;
+        });
+        LOGGER.info("Flash sale started for product {} with {} units over {} shards", productId, counter.available(), shards);
+        return toDTO(productId, counter, false);
+    }
+
+    /**
+     * Takes a product out of flash-sale mode; later checkouts reserve from the product row again.
+     *
+     * @param productId The ID of the product.
+     * @return The state of the sale at the time it was stopped.
+     * @throws ResourceNotFoundException if the product is not on sale.
+     */
+    public FlashSaleDTO stop(String productId) {
+        StripedStockCounter counter = onSale.get(productId);
+        if (counter == null) {
+            throw new ResourceNotFoundException("No flash sale for product with ID: " + productId);
+        }
+        stopping.put(productId, counter);
+        flushesSinceStop.put(productId, 0);
+        onSale.remove(productId);
+        LOGGER.info("Flash sale stopped for product {} with {} units left", productId, counter.available());
+        return toDTO(productId, counter, true);
+    }
+
+    public List<FlashSaleDTO> findFlashSales() {
+        List<FlashSaleDTO> sales = new ArrayList<>();
+        onSale.forEach((productId, counter) -> sales.add(toDTO(productId, counter, false)));
+        stopping.forEach((productId, counter) -> sales.add(toDTO(productId, counter, true)));
+        return sales;
+    }
+
+    private static FlashSaleDTO toDTO(String productId, StripedStockCounter counter, boolean stopping) {
+        return new FlashSaleDTO(productId, counter.available(), counter.unflushed(), counter.shards(), stopping);
+    }
+
+    /**
+     * Reserves the products of an order that are on sale, all or nothing.
+     *
+     * @param quantities The quantities of the order, by product ID.
+     * @return The quantities reserved from the shards; the other products are left to the caller.
+     * @throws IllegalArgumentException if a product on sale does not have enough stock left; nothing is reserved then.
+     */
+    public Map<String, Long> reserve(Map<String, Long> quantities) {
+        Map<String, Long> reserved = new LinkedHashMap<>();
+        Map<String, StripedStockCounter> counters = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> line : quantities.entrySet()) {
+            StripedStockCounter counter = onSale.get(line.getKey());
+            if (counter == null) {
+                continue;
+            }
+            if (!counter.tryTake(line.getValue(), true)) {
+                counters.forEach((productId, taken) -> taken.give(reserved.get(productId), true));
+                throw new IllegalArgumentException("Insufficient stock for product: " + line.getKey());
+            }
+            reserved.put(line.getKey(), line.getValue());
+            counters.put(line.getKey(), counter);
+        }
+        return reserved;
+    }
+
+    /**
+     * Gives back quantities reserved by {@link #reserve(Map)}.
+     *
+     * @param reserved The quantities reserved from the shards, by product ID.
+     * @return The quantities whose counter is gone and which were already flushed; the caller gives
+     * them back to the product rows.
+     */
+    public Map<String, Long> release(Map<String, Long> reserved) {
+        Map<String, Long> flushed = new TreeMap<>();
+        reserved.forEach((productId, quantity) -> {
+            StripedStockCounter counter = counterOf(productId);
+            if (counter != null) {
+                counter.give(quantity, true);
+            } else {
+                flushed.put(productId, quantity);
+            }
+        });
+        return flushed;
+    }
+
+    /**
+     * Applies to the counter of a product on sale a stock change made directly on its row.
+     *
+     * @param productId The ID of the product.
+     * @param delta     The change applied to the row: negative for a reservation, positive for a release.
+     * @return false when the product is on sale with fewer units available than the reservation took
+     * off the row; true otherwise, including when the product is not on sale.
+     */
+    public boolean mirror(String productId, long delta) {
+        StripedStockCounter counter = counterOf(productId);
+        if (counter == null) {
+            return true;
+        }
+        if (delta >= 0) {
+            counter.give(delta, false);
+            return true;
+        }
+        return counter.tryTake(-delta, false);
+    }
+
+    private StripedStockCounter counterOf(String productId) {
+        StripedStockCounter counter = onSale.get(productId);
+        return counter != null ? counter : stopping.get(productId);
+    }
+
+    /**
+     * Writes the units sold since the previous flush to the product rows in one batch and drops
+     * the counters of stopped sales once they had time to settle.
+     */
+    @Scheduled(fixedDelayString = "${flash-sale.flush-delay-ms:1000}")
+    public void flush() {
+        Map<String, StripedStockCounter> counters = new TreeMap<>(stopping);
+        counters.putAll(onSale);
+        Map<String, Long> sold = new TreeMap<>();
+        counters.forEach((productId, counter) -> {
+            long units = counter.drainSold();
+            if (units != 0) {
+                sold.put(productId, units);
+            }
+        });
+        if (!sold.isEmpty()) {
+            try {
+                // All or nothing, so that a failed flush can give every unit back to its counter.
+                transaction.executeWithoutResult(status -> productStockRepository.decrementStock(sold));
+            } catch (RuntimeException e) {
+                sold.forEach((productId, units) -> counters.get(productId).restoreSold(units));
+                LOGGER.error("Failed to flush flash-sale stock, retrying on the next flush: {}", e.getMessage());
+                return;
+            }
+            eventPublisher.publishEvent(new ProductCatalogChangedEvent(sold.keySet()));
+        }
+        for (String productId : new ArrayList<>(stopping.keySet())) {
+            if (flushesSinceStop.merge(productId, 1, Integer::sum) > RETIRE_AFTER_FLUSHES
+                    && stopping.get(productId).unflushed() == 0) {
+                stopping.remove(productId);
+                flushesSinceStop.remove(productId);
+            }
+        }
+    }
+}
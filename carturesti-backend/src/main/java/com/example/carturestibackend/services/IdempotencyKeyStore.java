@@ -0,0 +1,187 @@
+package com.example.carturestibackend.services;
+
+import com.example.carturestibackend.entities.IdempotencyKey;
+import com.example.carturestibackend.repositories.IdempotencyKeyRepository;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Remembers which order each idempotency key produced, so that a retried checkout gets the original
+ * order back instead of placing a second one.
+ * Keys live in the idempotencykeydb table, written in the transaction that creates the order, and
+ * the most recent ones in a bounded in-memory LRU map; both forget a key once it is older than the TTL.
+ * Concurrent requests with the same key wait for the first one instead of running the checkout again.
+ */
+@Component
+public class IdempotencyKeyStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IdempotencyKeyStore.class);
+    static final long AWAIT_SECONDS = 30;
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final Duration ttl;
+    private final Map<String, IdempotencyKey> recent;
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new IdempotencyKeyStore.
+     *
+     * @param idempotencyKeyRepository The repository persisting the keys.
+     * @param maxEntries               The number of keys kept in memory.
+     * @param ttlMinutes               How long a key is remembered.
+     */
+    @Autowired
+    public IdempotencyKeyStore(IdempotencyKeyRepository idempotencyKeyRepository,
+                               @Value("${order.idempotency.max-entries:10000}") int maxEntries,
+                               @Value("${order.idempotency.ttl-minutes:1440}") long ttlMinutes) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.recent = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IdempotencyKey> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /**
+     * Scopes a client supplied key to an operation and a user, so that keys of different users never collide.
+     *
+     * @return The scoped key, or null when the client did not send a key.
+     */
+    public static String scope(String operation, String userId, String key) {
+        return key == null || key.isBlank() ? null : operation + ":" + userId + ":" + key.trim();
+    }
+
+    /**
+     * Runs the operation once per key. Must be called inside the transaction of the operation, so
+     * that the key is stored if and only if its order is.
+     *
+     * @param key       The scoped key; null runs the operation unconditionally.
+     * @param operation Creates the order and returns its ID.
+     * @return The ID of the order created for the key, now or by an earlier request.
+     * @throws IllegalStateException if a concurrent request with the same key is still running after
+     *                               {@link #AWAIT_SECONDS} or has rolled back.
+     */
+    public String execute(String key, Supplier<String> operation) {
+        if (key == null) {
+            return operation.get();
+        }
+        String known = recall(key);
+        if (known != null) {
+            LOGGER.info("Replaying order {} for idempotency key {}", known, key);
+            return known;
+        }
+        CompletableFuture<String> claimed = new CompletableFuture<>();
+        CompletableFuture<String> running = inFlight.putIfAbsent(key, claimed);
+        if (running != null) {
+            LOGGER.info("Waiting for the request already running with idempotency key {}", key);
+            return await(key, running);
+        }
+        try {
+            // The previous holder of the key may have finished between the lookup and the claim.
+            known = recall(key);
+            if (known != null) {
+                settle(key, claimed, known, null);
+                return known;
+            }
+            String orderId = operation.get();
+            idempotencyKeyRepository.save(new IdempotencyKey(key, orderId, LocalDateTime.now()));
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        settle(key, claimed, status == STATUS_COMMITTED ? orderId : null,
+                                new IllegalStateException("The request with idempotency key " + key + " was rolled back"));
+                    }
+                });
+            } else {
+                settle(key, claimed, orderId, null);
+            }
+            return orderId;
+        } catch (RuntimeException e) {
+            settle(key, claimed, null, e);
+            throw e;
+        }
+    }
+
+    private String recall(String key) {
+        LocalDateTime oldest = LocalDateTime.now().minus(ttl);
+        IdempotencyKey remembered = recent.get(key);
+        if (remembered == null) {
+            remembered = idempotencyKeyRepository.findById(key).orElse(null);
+            if (remembered == null) {
+                return null;
+            }
+            recent.put(key, remembered);
+        }
+        if (remembered.getCreated_at().isBefore(oldest)) {
+            recent.remove(key);
+            return null;
+        }
+        return remembered.getId_order();
+    }
+
+    /**
+     * Hands the outcome to the waiting duplicates and releases the key.
+     *
+     * @param orderId The ID of the order, or null when the request failed.
+     * @param failure What the duplicates get when the request failed.
+     */
+    private void settle(String key, CompletableFuture<String> claimed, String orderId, RuntimeException failure) {
+        if (orderId != null) {
+            recent.put(key, new IdempotencyKey(key, orderId, LocalDateTime.now()));
+            claimed.complete(orderId);
+        } else {
+            claimed.completeExceptionally(failure);
+        }
+        inFlight.remove(key, claimed);
+    }
+
+    private static String await(String key, CompletableFuture<String> running) {
+        try {
+            return running.get(AWAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("The request with idempotency key " + key + " is still running");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for idempotency key " + key, e);
+        }
+    }
+
+    /**
+     * Deletes the stored keys older than the TTL.
+     */
+    @Scheduled(fixedDelayString = "${order.idempotency.purge-delay-ms:3600000}")
+    @Transactional
+    public void purge() {
+        int deleted = idempotencyKeyRepository.deleteCreatedBefore(LocalDateTime.now().minus(ttl));
+        if (deleted > 0) {
+            LOGGER.info("Purged {} expired idempotency keys", deleted);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.carturestibackend.services;
+
+import com.example.carturestibackend.dtos.NotificationRequestDTO;
+import com.example.carturestibackend.entities.OutboxMessage;
+import com.example.carturestibackend.repositories.OutboxMessageRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Drains the notification outbox to {@code AMQPConfig.EXCHANGE_NAME} in the background.
+ * Each round claims a batch of the oldest messages in a short transaction, hands them to the
+ * BatchingNotificationPublisher, waits for their publisher confirms and only then deletes the confirmed
+ * ones in a second transaction, so a notification is delivered at least once and only if the transaction
+ * that wrote it committed. No lock is held while the broker is awaited. Messages that are not confirmed
+ * are released and retried on the next round, up to {@code outbox.relay.max-attempts} rounds, after which
+ * they are dead-lettered; a claim left behind by a relay that died expires after {@code outbox.relay.claim-ms}.
+ */
+@Component
+public class NotificationOutboxRelay {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NotificationOutboxRelay.class);
+
+    private final OutboxMessageRepository outboxMessageRepository;
+    private final BatchingNotificationPublisher batchingNotificationPublisher;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transaction;
+    private final int batchSize;
+    private final long confirmTimeoutMillis;
+    private final long claimMillis;
+    private final int maxAttempts;
+
+    /**
+     * Constructs a new NotificationOutboxRelay.
+     *
+     * @param outboxMessageRepository       The repository holding the outbox.
+     * @param batchingNotificationPublisher Publishes the notifications with publisher confirms.
+     * @param objectMapper                  Reads the notifications back from the outbox.
+     * @param transactionManager            Runs the claim and the clean-up of each batch in their own transactions.
+     * @param batchSize                     The number of messages published per batch.
+     * @param confirmTimeoutMillis          How long to wait for the publisher to confirm a batch, retries included.
+     * @param claimMillis                   How long a claimed message is kept from the other relays.
+     * @param maxAttempts                   How many unconfirmed rounds a message gets before it is dead-lettered.
+     */
+    @Autowired
+    public NotificationOutboxRelay(OutboxMessageRepository outboxMessageRepository, BatchingNotificationPublisher batchingNotificationPublisher,
+                                   ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+                                   @Value("${outbox.relay.batch-size:100}") int batchSize,
+                                   @Value("${outbox.relay.confirm-timeout-ms:20000}") long confirmTimeoutMillis,
+                                   @Value("${outbox.relay.claim-ms:60000}") long claimMillis,
+                                   @Value("${outbox.relay.max-attempts:10}") int maxAttempts) {
+        this.outboxMessageRepository = outboxMessageRepository;
+        this.batchingNotificationPublisher = batchingNotificationPublisher;
+        this.objectMapper = objectMapper;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.confirmTimeoutMillis = confirmTimeoutMillis;
+        this.claimMillis = Math.max(claimMillis, confirmTimeoutMillis);
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Relays full batches until the outbox is drained or the broker stops confirming.
+     */
+    @Scheduled(fixedDelayString = "${outbox.relay.delay-ms:500}")
+    public void relay() {
+        int relayed;
+        do {
+            relayed = relayBatch();
+        } while (relayed == batchSize);
+    }
+
+    /**
+     * @return The number of messages taken off the outbox, or -1 when some were not confirmed.
+     */
+    private int relayBatch() {
+        List<OutboxMessage> batch = transaction.execute(status -> claimOldest());
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+        List<String> done = new ArrayList<>(batch.size());
+        Map<String, CompletableFuture<Void>> confirms = new LinkedHashMap<>();
+        for (OutboxMessage message : batch) {
+            try {
+                NotificationRequestDTO payload = objectMapper.readValue(message.getPayload(), NotificationRequestDTO.class);
+                // Keyed by the message, so that a retry does not publish it again while an earlier submission is still pending.
+                confirms.put(message.getId(), batchingNotificationPublisher.submit(message.getId(), payload));
+            } catch (JsonProcessingException e) {
+                // Retrying cannot fix the payload; drop it rather than block the outbox.
+                LOGGER.error("Dropping unreadable outbox message {}: {}", message.getId(), e.getMessage());
+                done.add(message.getId());
+            }
+        }
+        batchingNotificationPublisher.flush();
+        awaitConfirms(confirms.values());
+
+        List<String> unconfirmed = new ArrayList<>();
+        confirms.forEach((id, confirm) -> {
+            if (confirm.isDone() && !confirm.isCompletedExceptionally()) {
+                done.add(id);
+            } else {
+                unconfirmed.add(id);
+            }
+        });
+        Integer deadLettered = transaction.execute(status -> {
+            if (!done.isEmpty()) {
+                outboxMessageRepository.deleteAllByIdInBatch(done);
+            }
+            if (unconfirmed.isEmpty()) {
+                return 0;
+            }
+            outboxMessageRepository.release(unconfirmed);
+            return outboxMessageRepository.deadLetter(unconfirmed, maxAttempts, LocalDateTime.now());
+        });
+        if (deadLettered != null && deadLettered > 0) {
+            LOGGER.error("Dead-lettered {} notifications after {} attempts", deadLettered, maxAttempts);
+        }
+        if (!unconfirmed.isEmpty()) {
+            LOGGER.warn("Failed to relay {} notifications, retrying on the next round", unconfirmed.size());
+            return -1;
+        }
+        LOGGER.info("Relayed {} notifications", confirms.size());
+        return batch.size();
+    }
+
+    private List<OutboxMessage> claimOldest() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxMessage> batch = outboxMessageRepository.lockOldest(now, batchSize);
+        if (!batch.isEmpty()) {
+            List<String> ids = batch.stream().map(OutboxMessage::getId).collect(Collectors.toList());
+            outboxMessageRepository.claim(ids, now.plus(claimMillis, ChronoUnit.MILLIS));
+        }
+        return batch;
+    }
+
+    private void awaitConfirms(Collection<CompletableFuture<Void>> confirms) {
+        try {
+            CompletableFuture.allOf(confirms.toArray(new CompletableFuture<?>[0])).get(confirmTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            // Sorted out per message by the caller.
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.carturestibackend.services;
+
+import com.example.carturestibackend.dtos.OrderDTO;
+import com.example.carturestibackend.dtos.OrderStatusDTO;
+import com.example.carturestibackend.entities.Order;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Asynchronous checkout: the request thread only validates the order and saves it as PENDING,
+ * and OrderPlacementWorker adds the cart products and sends the confirmation email later.
+ * Clients poll the status of the order (see OrderService#findOrderStatus(String)). The pending
+ * orders are only queued in memory, so on startup the ones a previous run left PENDING are queued again.
+ */
+@Service
+public class OrderPlacementService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OrderPlacementService.class);
+
+    private final OrderService orderService;
+    private final OrderPlacementWorker orderPlacementWorker;
+
+    /**
+     * Constructs a new OrderPlacementService.
+     *
+     * @param orderService         Accepts the orders.
+     * @param orderPlacementWorker Completes the accepted orders.
+     */
+    @Autowired
+    public OrderPlacementService(OrderService orderService, OrderPlacementWorker orderPlacementWorker) {
+        this.orderService = orderService;
+        this.orderPlacementWorker = orderPlacementWorker;
+    }
+
+    /**
+     * Accepts an order from the cart of the user and queues it for completion.
+     *
+     * A retry with the idempotency key of an earlier request gets the earlier order and queues it
+     * again only if it is still pending.
+     *
+     * @param userId         The ID of the user placing the order.
+     * @param orderDTO       The OrderDTO object carrying the order date.
+     * @param idempotencyKey The key sent by the client, or null.
+     * @return The ID and status of the order, still PENDING unless the queue was full.
+     */
+    public OrderStatusDTO submit(String userId, OrderDTO orderDTO, String idempotencyKey) {
+        String orderId = orderService.acceptOrder(userId, orderDTO, idempotencyKey);
+        OrderStatusDTO order = orderService.findOrderStatus(orderId);
+        if (!Order.PENDING.equals(order.getStatus())) {
+            return order;
+        }
+        if (!schedule(orderId)) {
+            return orderService.findOrderStatus(orderId);
+        }
+        return order;
+    }
+
+    /**
+     * Queues again the orders left PENDING by a previous run, whose queue was lost with it, so that
+     * their clients do not poll forever.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumePending() {
+        List<String> orderIds = orderService.findPendingOrderIds();
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        LOGGER.info("Resuming {} pending orders", orderIds.size());
+        for (String orderId : orderIds) {
+            schedule(orderId);
+        }
+    }
+
+    /**
+     * Queues an order and makes sure a worker drains the queue.
+     *
+     * @return false when the queue was full and the order was completed on the calling thread.
+     */
+    private boolean schedule(String orderId) {
+        if (!orderPlacementWorker.enqueue(orderId)) {
+            // Back-pressure: with every worker behind, the calling thread completes the order itself.
+            LOGGER.warn("Order placement queue is full, completing order {} on the calling thread", orderId);
+            orderPlacementWorker.process(List.of(orderId));
+            return false;
+        } else if (orderPlacementWorker.claim()) {
+            try {
+                orderPlacementWorker.drain();
+            } catch (TaskRejectedException e) {
+                orderPlacementWorker.unclaim();
+                LOGGER.error("Failed to start an order placement worker: {}", e.getMessage());
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.carturestibackend.services;
+
+import com.example.carturestibackend.config.OrderPlacementConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Completes the orders accepted by OrderPlacementService off the request threads.
+ * Accepted order IDs wait in a bounded queue; up to {@code order.placement.workers} drains run on the
+ * orderPlacementExecutor pool, each taking the queue in batches until it is empty, so a burst of
+ * checkouts costs one task per worker instead of one per order. Every order is completed in its own
+ * transaction, so that a failing order is marked FAILED without affecting the rest of its batch.
+ */
+@Component
+public class OrderPlacementWorker {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OrderPlacementWorker.class);
+
+    private final OrderService orderService;
+    private final BlockingQueue<String> pending;
+    private final Set<String> queued = ConcurrentHashMap.newKeySet();
+    private final int workers;
+    private final int batchSize;
+    private final AtomicInteger running = new AtomicInteger();
+
+    /**
+     * Constructs a new OrderPlacementWorker.
+     *
+     * @param orderService  Completes the orders.
+     * @param queueCapacity The number of accepted orders that may wait for a worker.
+     * @param workers       The number of drains allowed to run at once; the size of the pool.
+     * @param batchSize     The number of orders a drain takes off the queue at a time.
+     */
+    @Autowired
+    public OrderPlacementWorker(OrderService orderService,
+                                @Value("${order.placement.queue-capacity:1000}") int queueCapacity,
+                                @Value("${order.placement.workers:4}") int workers,
+                                @Value("${order.placement.batch-size:32}") int batchSize) {
+        this.orderService = orderService;
+        this.pending = new ArrayBlockingQueue<>(queueCapacity);
+        this.workers = workers;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Queues an order, unless it is already queued or being completed (a retried checkout).
+     *
+     * @return false when the queue is full; the caller then completes the order itself.
+     */
+    public boolean enqueue(String orderId) {
+        if (!queued.add(orderId)) {
+            return true;
+        }
+        if (!pending.offer(orderId)) {
+            queued.remove(orderId);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Claims a worker slot. A successful claim must be followed by {@link #drain()}, which gives the slot back.
+     *
+     * @return false when all workers are already draining; they will pick up the queued orders.
+     */
+    public boolean claim() {
+        while (true) {
+            int current = running.get();
+            if (current >= workers) {
+                return false;
+            }
+            if (running.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Gives back a slot claimed by {@link #claim()} whose drain could not be started.
+     */
+    public void unclaim() {
+        running.decrementAndGet();
+    }
+
+    /**
+     * Completes queued orders in batches until the queue is empty, then gives back the claimed slot.
+     */
+    @Async(OrderPlacementConfig.ORDER_PLACEMENT_EXECUTOR)
+    public void drain() {
+        do {
+            try {
+                List<String> batch = new ArrayList<>(batchSize);
+                while (pending.drainTo(batch, batchSize) > 0) {
+                    process(batch);
+                    batch.clear();
+                }
+            } finally {
+                running.decrementAndGet();
+            }
+            // An order queued after the last drainTo may have found every slot still taken.
+        } while (!pending.isEmpty() && claim());
+    }
+
+    /**
+     * Completes each order of the batch, marking the ones that fail as FAILED.
+     */
+    public void process(List<String> orderIds) {
+        for (String orderId : orderIds) {
+            try {
+                orderService.completeOrder(orderId);
+            } catch (RuntimeException e) {
+                LOGGER.error("Failed to complete order {}: {}", orderId, e.getMessage());
+                try {
+                    orderService.failOrder(orderId);
+                } catch (RuntimeException statusFailure) {
+                    LOGGER.error("Failed to mark order {} as failed: {}", orderId, statusFailure.getMessage());
+                }
+            } finally {
+                queued.remove(orderId);
+            }
+        }
+        LOGGER.info("Processed a batch of {} orders", orderIds.size());
+    }
+}
@@ -1,29 +1,36 @@
 package com.example.carturestibackend.services;
 
+import com.example.carturestibackend.catalog.ProductCatalogChangedEvent;
 import com.example.carturestibackend.config.RabbitSender;
 import com.example.carturestibackend.constants.OrderLogger;
 import com.example.carturestibackend.dtos.NotificationRequestDTO;
 import com.example.carturestibackend.dtos.OrderDTO;
+import com.example.carturestibackend.dtos.OrderStatusDTO;
 import com.example.carturestibackend.dtos.ProductDTO;
 import com.example.carturestibackend.dtos.mappers.OrderMapper;
 import com.example.carturestibackend.entities.*;
 import com.example.carturestibackend.repositories.*;
-import com.example.carturestibackend.strategy.CsvFileGenerationStrategy;
-import com.example.carturestibackend.strategy.FileGenerator;
-import com.example.carturestibackend.strategy.PdfFileGenerationStrategy;
-import com.example.carturestibackend.strategy.TxtFileGenerationStrategy;
+import com.example.carturestibackend.strategy.BillFormat;
 import com.example.carturestibackend.validators.OrderValidator;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.rest.webmvc.ResourceNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -126,8 +133,43 @@ public class OrderService {
     @Autowired
     private RabbitSender rabbitSender;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PromotionWindowIndex promotionWindowIndex;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private IdempotencyKeyStore idempotencyKeyStore;
+
+    @Autowired
+    private BillStore billStore;
+
+    @Autowired
+    private SalesAnalyticsService salesAnalyticsService;
+
     @Transactional
     public String insert(OrderDTO orderDTO) {
+        return insert(orderDTO, null);
+    }
+
+    /**
+     * Inserts a new order unless an earlier request with the same idempotency key already did.
+     *
+     * @param orderDTO       The OrderDTO object representing the order to insert.
+     * @param idempotencyKey The key sent by the client, or null.
+     * @return The ID of the inserted order, or of the order inserted for the key before.
+     */
+    @Transactional
+    public String insert(OrderDTO orderDTO, String idempotencyKey) {
+        return idempotencyKeyStore.execute(IdempotencyKeyStore.scope("insert", orderDTO.getId_user(), idempotencyKey),
+                () -> createOrder(orderDTO));
+    }
+
+    private String createOrder(OrderDTO orderDTO) {
         Logger logger = LoggerFactory.getLogger(getClass());
 
         // Retrieve user
@@ -152,23 +194,21 @@ public class OrderService {
 
         double totalPrice = 0.0;
 
-        // Iterate over products in the order
+        // Resolve all products of the order with one query and count the units ordered per product
+        Map<String, Long> quantities = orderDTO.getId_products().stream()
+                .collect(Collectors.groupingBy(Function.identity(), LinkedHashMap::new, Collectors.counting()));
+        Map<String, Product> products = findProductsById(quantities.keySet());
+
+        // Reserve the stock of all products atomically; it is given back if the order is not saved
+        stockReservationService.reserveForCurrentTransaction(quantities);
+
+        LocalDateTime now = LocalDateTime.now();
         for (String productId : orderDTO.getId_products()) {
-            Product product = productRepository.findById(productId)
-                    .orElseThrow(() -> {
-                        String message = String.format(OrderLogger.ORDER_NOT_FOUND_BY_ID, productId);
-                        logger.error(message);
-                        return new ResourceNotFoundException(message);
-                    });
-
-            if (product.getStock() <= 0) {
-                String message = "Insufficient stock for product with ID: " + productId;
-                logger.error(message);
-                throw new RuntimeException(message);
-            }
+            Product product = products.get(productId);
 
             // Determine the price to use
-            double priceToUse = Math.min(product.getPrice(), product.getPrice_promotion() > 0 ? product.getPrice_promotion() : Double.MAX_VALUE);
+            double priceToUse = promotionWindowIndex.effectivePrice(product.getPrice(), product.getPrice_promotion(),
+                    product.getPromotion() != null ? product.getPromotion().getId_promotion() : null, now);
 
             // Add product to order
             order.getProducts().add(product);
@@ -176,12 +216,6 @@ public class OrderService {
             // Update total price
             totalPrice += priceToUse;
 
-            // Decrement stock
-            product.setStock(product.getStock() - 1);
-
-            // Save updated product stock
-            productRepository.save(product);
-
             logger.info("Product with ID {} added to order. Price used: {}", product.getId_product(), priceToUse);
         }
 
@@ -195,6 +229,10 @@ public class OrderService {
         try {
             order = orderRepository.save(order);
             logger.info(OrderLogger.ORDER_INSERTED, order.getId_order());
+            salesAnalyticsService.record(order);
+            if (!orderDTO.getId_products().isEmpty()) {
+                eventPublisher.publishEvent(new ProductCatalogChangedEvent(orderDTO.getId_products()));
+            }
 
             // Send notification email
             sendNotificationEmail(user, order);
@@ -207,6 +245,26 @@ public class OrderService {
     }
 
 
+    /**
+     * Loads several products with a single query.
+     *
+     * @param productIds The IDs of the products.
+     * @return The products by ID.
+     * @throws ResourceNotFoundException if one of the products does not exist.
+     */
+    private Map<String, Product> findProductsById(Collection<String> productIds) {
+        Map<String, Product> products = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId_product, Function.identity()));
+        for (String productId : productIds) {
+            if (!products.containsKey(productId)) {
+                String message = String.format("Product not found with ID: %s", productId);
+                LOGGER.error(message);
+                throw new ResourceNotFoundException(message);
+            }
+        }
+        return products;
+    }
+
     public String findCartIdByUser(User user) {
         Optional<Cart> cartOptional = cartRepository.findByUser(user);
         if (cartOptional.isPresent()) {
@@ -218,6 +276,24 @@ public class OrderService {
     }
     @Transactional
     public String placeOrder(String userId, OrderDTO orderDTO) {
+        return placeOrder(userId, orderDTO, null);
+    }
+
+    /**
+     * Places an order from the cart of the user unless an earlier request with the same idempotency key already did.
+     *
+     * @param userId         The ID of the user placing the order.
+     * @param orderDTO       The OrderDTO object carrying the order date.
+     * @param idempotencyKey The key sent by the client, or null.
+     * @return The ID of the placed order, or of the order placed for the key before.
+     */
+    @Transactional
+    public String placeOrder(String userId, OrderDTO orderDTO, String idempotencyKey) {
+        return idempotencyKeyStore.execute(IdempotencyKeyStore.scope("place", userId, idempotencyKey),
+                () -> placeCartOrder(userId, orderDTO));
+    }
+
+    private String placeCartOrder(String userId, OrderDTO orderDTO) {
         Logger logger = LoggerFactory.getLogger(getClass());
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> {
@@ -227,17 +303,6 @@ public class OrderService {
                 });
 
         logger.info("User {} retrieved", userId);
-        String cartId = findCartIdByUser(user);
-        Cart cart = cartRepository.findById(cartId)
-                .orElseThrow(() -> {
-                    String message = String.format("Cart not found with ID: %s", cartId);
-                    logger.error(message);
-                    throw new ResourceNotFoundException(message);
-                });
-
-        logger.info("Cart {} retrieved", cartId);
-        List<ProductDTO> cartProducts = cartService.getProductsInCart(cartId);
-
         Order order = new Order();
         order.setUser(user);
 
@@ -246,39 +311,193 @@ public class OrderService {
             throw new IllegalArgumentException("Order date is required");
         }
         order.setOrder_date(orderDate);
+        addProducts(order, findCartQuantities(user));
+
+        try {
+            order = orderRepository.save(order);
+            logger.info(OrderLogger.ORDER_INSERTED, order.getId_order());
+            salesAnalyticsService.record(order);
+            if (!order.getQuantities().isEmpty()) {
+                eventPublisher.publishEvent(new ProductCatalogChangedEvent(order.getQuantities().keySet()));
+            }
+            sendNotificationEmail(user, order);
+            return order.getId_order();
+        } catch (Exception e) {
+            logger.error("Failed to save order: {}", e.getMessage());
+            throw new RuntimeException("Failed to save order: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Validates an order placed from the cart and saves it with status {@link Order#PENDING}, together
+     * with the quantities in the cart at that moment, leaving the pricing, stock checks and notification
+     * to {@link #completeOrder(String)}.
+     *
+     * A retry with the same idempotency key as an earlier request gets the order of that request back.
+     *
+     * @param userId         The ID of the user placing the order.
+     * @param orderDTO       The OrderDTO object carrying the order date.
+     * @param idempotencyKey The key sent by the client, or null.
+     * @return The ID of the accepted order.
+     * @throws ResourceNotFoundException if the user or their cart is not found.
+     * @throws IllegalArgumentException if the order date is missing.
+     */
+    @Transactional
+    public String acceptOrder(String userId, OrderDTO orderDTO, String idempotencyKey) {
+        // Shares the scope of placeOrder, so that a retry is recognised whichever mode handled the first request.
+        return idempotencyKeyStore.execute(IdempotencyKeyStore.scope("place", userId, idempotencyKey),
+                () -> acceptCartOrder(userId, orderDTO));
+    }
+
+    private String acceptCartOrder(String userId, OrderDTO orderDTO) {
+        if (orderDTO.getOrder_date() == null) {
+            throw new IllegalArgumentException("Order date is required");
+        }
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> {
+                    String message = String.format("User not found with ID: %s", userId);
+                    LOGGER.error(message);
+                    return new ResourceNotFoundException(message);
+                });
+        Order order = new Order();
+        order.setUser(user);
+        order.setOrder_date(orderDTO.getOrder_date());
+        order.setProducts(new ArrayList<>());
+        // Snapshot of the cart, so that later changes to it do not leak into the order.
+        order.getQuantities().putAll(findCartQuantities(user));
+        order.setStatus(Order.PENDING);
+        order = orderRepository.save(order);
+        LOGGER.info("Order {} accepted for user {}", order.getId_order(), userId);
+        return order.getId_order();
+    }
+
+    /**
+     * Completes an order accepted by {@link #acceptOrder(String, OrderDTO, String)}: adds the products
+     * that were in the cart of the user when the order was accepted, moves the order to
+     * {@link Order#PLACED} and sends the confirmation email. An order that is no longer pending was
+     * already completed and is left alone; one accepted before the cart was snapshotted reads the cart.
+     *
+     * @param orderId The ID of the accepted order.
+     * @throws ResourceNotFoundException if the order, the cart or one of its products is not found.
+     * @throws IllegalArgumentException if a product lacks stock.
+     */
+    @Transactional
+    public void completeOrder(String orderId) {
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> {
+                    LOGGER.error(OrderLogger.ORDER_NOT_FOUND_BY_ID, orderId);
+                    return new ResourceNotFoundException(Order.class.getSimpleName() + " with id: " + orderId);
+                });
+        if (!Order.PENDING.equals(order.getStatus())) {
+            LOGGER.info("Order {} is already {}, skipping it", orderId, order.getStatus());
+            return;
+        }
+        Map<String, Long> quantities = order.getQuantities().isEmpty()
+                ? findCartQuantities(order.getUser())
+                : new LinkedHashMap<>(order.getQuantities());
+        addProducts(order, quantities);
+        order.setStatus(Order.PLACED);
+        order = orderRepository.save(order);
+        LOGGER.info(OrderLogger.ORDER_INSERTED, order.getId_order());
+        salesAnalyticsService.record(order);
+        if (!order.getQuantities().isEmpty()) {
+            eventPublisher.publishEvent(new ProductCatalogChangedEvent(order.getQuantities().keySet()));
+        }
+        sendNotificationEmail(order.getUser(), order);
+    }
+
+    /**
+     * Moves an order that could not be completed from {@link Order#PENDING} to {@link Order#FAILED}.
+     *
+     * @param orderId The ID of the order.
+     */
+    @Transactional
+    public void failOrder(String orderId) {
+        orderRepository.updateStatus(orderId, Order.PENDING, Order.FAILED);
+    }
+
+    /**
+     * Retrieves the IDs of the orders accepted but not completed yet.
+     */
+    public List<String> findPendingOrderIds() {
+        return orderRepository.findIdsByStatus(Order.PENDING);
+    }
+
+    /**
+     * Retrieves the status of an order without loading the order itself.
+     *
+     * @param orderId The ID of the order.
+     * @return The OrderStatusDTO object holding the status.
+     * @throws ResourceNotFoundException if the order with the specified ID is not found.
+     */
+    public OrderStatusDTO findOrderStatus(String orderId) {
+        String status = orderRepository.findStatusById(orderId)
+                .orElseThrow(() -> {
+                    LOGGER.error(OrderLogger.ORDER_NOT_FOUND_BY_ID, orderId);
+                    return new ResourceNotFoundException(Order.class.getSimpleName() + " with id: " + orderId);
+                });
+        return new OrderStatusDTO(orderId, status);
+    }
+
+    /**
+     * Reads the quantities in the cart of the user.
+     *
+     * @return The quantity in the cart, by product ID, in cart order.
+     * @throws ResourceNotFoundException if the user has no cart.
+     */
+    private Map<String, Long> findCartQuantities(User user) {
+        String cartId = findCartIdByUser(user);
+        if (!cartRepository.existsById(cartId)) {
+            String message = String.format("Cart not found with ID: %s", cartId);
+            LOGGER.error(message);
+            throw new ResourceNotFoundException(message);
+        }
+        LOGGER.info("Cart {} retrieved", cartId);
+        Map<String, Long> quantities = new LinkedHashMap<>();
+        for (ProductDTO productDTO : cartService.getProductsInCart(cartId)) {
+            quantities.merge(productDTO.getId_product(), productDTO.getStock(), Long::sum);
+        }
+        return quantities;
+    }
+
+    /**
+     * Reserves the stock of the products and adds them to the order, keeping their quantities in
+     * Order.quantities, and sets its totals. Must run in the transaction saving the order.
+     *
+     * @param quantities The quantity to order, by product ID.
+     * @throws ResourceNotFoundException if one of the products does not exist.
+     * @throws IllegalArgumentException if a quantity is not positive or exceeds the stock of its product;
+     * nothing is reserved then.
+     */
+    private void addProducts(Order order, Map<String, Long> quantities) {
+        Logger logger = LoggerFactory.getLogger(getClass());
         order.setProducts(new ArrayList<>());
+        order.getQuantities().clear();
         double totalPrice = 0.0;
 
         long totalQuantity = 0; // Variabila pentru stocarea cantitatii totale din cos
-        for (ProductDTO productDTO : cartProducts) {
-            String productId = productDTO.getId_product();
-            Product product = productRepository.findById(productId)
-                    .orElseThrow(() -> {
-                        String message = String.format("Product not found with ID: %s", productId);
-                        logger.error(message);
-                        throw new ResourceNotFoundException(message);
-                    });
-
-            double priceToUse = Math.min(product.getPrice(), product.getPrice_promotion() > 0 ? product.getPrice_promotion() : Double.MAX_VALUE);
-            long quantityInCart = productDTO.getStock();
-
-            if (quantityInCart <= 0) {
+        for (Map.Entry<String, Long> line : quantities.entrySet()) {
+            if (line.getValue() <= 0) {
                 throw new IllegalArgumentException("Quantity in cart must be greater than 0");
             }
+        }
+        // Resolve all products with one query
+        Map<String, Product> products = findProductsById(quantities.keySet());
 
-            if (quantityInCart > product.getStock()) {
-                throw new IllegalArgumentException("Insufficient stock for product: " + productId);
-            }
+        // Reserve the stock of all products atomically; it is given back if the order is not saved
+        stockReservationService.reserveForCurrentTransaction(quantities);
 
-            // Create OrderItem and set quantity
-            OrderItem orderItem = new OrderItem();
-            orderItem.setProduct(product);
-            orderItem.setQuantity(quantityInCart);
-            orderItem.setPrice_per_unit(priceToUse);
-            orderItem.setCart(cart);
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<String, Long> line : quantities.entrySet()) {
+            String productId = line.getKey();
+            Product product = products.get(productId);
 
-            // Add OrderItem to Order
-            order.getProducts().add(orderItem.getProduct());
+            double priceToUse = promotionWindowIndex.effectivePrice(product.getPrice(), product.getPrice_promotion(),
+                    product.getPromotion() != null ? product.getPromotion().getId_promotion() : null, now);
+            long quantityInCart = line.getValue();
+
+            order.getProducts().add(product);
+            order.getQuantities().put(productId, quantityInCart);
 
             // Update total price
             totalPrice += priceToUse * quantityInCart;
@@ -292,19 +511,9 @@ public class OrderService {
         if (!order.getProducts().isEmpty()) {
             order.setTotal_price(totalPrice);
             order.setTotal_quantity(totalQuantity);
-            order.setStatus("PENDING");
+            order.setStatus(Order.PLACED);
             logger.info("Total price calculated for order: {}", totalPrice);
         }
-
-        try {
-            order = orderRepository.save(order);
-            logger.info(OrderLogger.ORDER_INSERTED, order.getId_order());
-            sendNotificationEmail(user, order);
-            return order.getId_order();
-        } catch (Exception e) {
-            logger.error("Failed to save order: {}", e.getMessage());
-            throw new RuntimeException("Failed to save order: " + e.getMessage());
-        }
     }
 
 
@@ -328,42 +537,51 @@ public class OrderService {
 
 
     public void generateAndSendPdf(String id) {
-        Optional<Order> orderOptional = orderRepository.findById(id);
-        if (orderOptional.isEmpty()) {
-            LOGGER.error(OrderLogger.ORDER_NOT_FOUND_BY_ID, id);
-            throw new ResourceNotFoundException(Order.class.getSimpleName() + " with id: " + id);
-        }
-        Order order = orderOptional.get();
-        FileGenerator fileGenerator = new FileGenerator();
-        fileGenerator.setStrategy(new PdfFileGenerationStrategy());
-        String filePath = fileGenerator.generateFile(order); // Generate the PDF file
-        sendNotificationEmail2(order.getUser(), filePath); // Send email with attachment
+        generateAndSendBill(id, BillFormat.PDF);
     }
 
     public void generateAndSendTxt(String id) {
+        generateAndSendBill(id, BillFormat.TXT);
+    }
+
+    public void generateAndSendCsv(String id) {
+        generateAndSendBill(id, BillFormat.CSV);
+    }
+
+    /**
+     * Emails the bill of an order, reusing the stored bill if the order did not change since.
+     * Safe to call from several threads at once (see BillJobService).
+     *
+     * @param id     The ID of the order.
+     * @param format The format of the bill.
+     * @throws ResourceNotFoundException if the order with the specified ID is not found.
+     */
+    public void generateAndSendBill(String id, BillFormat format) {
         Optional<Order> orderOptional = orderRepository.findById(id);
         if (orderOptional.isEmpty()) {
             LOGGER.error(OrderLogger.ORDER_NOT_FOUND_BY_ID, id);
             throw new ResourceNotFoundException(Order.class.getSimpleName() + " with id: " + id);
         }
         Order order = orderOptional.get();
-        FileGenerator fileGenerator = new FileGenerator();
-        fileGenerator.setStrategy(new TxtFileGenerationStrategy());
-        String filePath = fileGenerator.generateFile(order); // Generate the TXT file
+        String filePath = billStore.bill(order, format).toString(); // Generate or reuse the bill
         sendNotificationEmail2(order.getUser(), filePath); // Send email with attachment
     }
 
-    public void generateAndSendCsv(String id) {
+    /**
+     * Streams the bill of an order to the output stream, without storing it.
+     *
+     * @param id     The ID of the order.
+     * @param format The format of the bill.
+     * @param out    The stream to write to; flushed but not closed.
+     * @throws ResourceNotFoundException if the order with the specified ID is not found; nothing is written then.
+     */
+    public void writeBill(String id, BillFormat format, OutputStream out) throws IOException {
         Optional<Order> orderOptional = orderRepository.findById(id);
         if (orderOptional.isEmpty()) {
             LOGGER.error(OrderLogger.ORDER_NOT_FOUND_BY_ID, id);
             throw new ResourceNotFoundException(Order.class.getSimpleName() + " with id: " + id);
         }
-        Order order = orderOptional.get();
-        FileGenerator fileGenerator = new FileGenerator();
-        fileGenerator.setStrategy(new CsvFileGenerationStrategy());
-        String filePath = fileGenerator.generateFile(order); // Generate the CSV file
-        sendNotificationEmail2(order.getUser(), filePath); // Send email with attachment
+        format.newFileGenerator().generateFile(orderOptional.get(), out);
     }
 
     /**
@@ -378,20 +596,40 @@ public class OrderService {
         if (orderOptional.isPresent()) {
             Order order = orderOptional.get();
 
+            // Only placed orders took stock; pending and failed ones never reserved any.
+            if (!Order.PENDING.equals(order.getStatus()) && !Order.FAILED.equals(order.getStatus())) {
+                stockReservationService.releaseForCurrentTransaction(orderedQuantities(order));
+            }
             for (Product product : order.getProducts()) {
-                product.setStock(product.getStock() + 1);
                 product.setOrders(null);
-                productRepository.save(product);
             }
 
+            salesAnalyticsService.retract(order);
             orderRepository.deleteById(id_order);
             LOGGER.debug(OrderLogger.ORDER_DELETED, id_order);
+            if (!order.getProducts().isEmpty()) {
+                eventPublisher.publishEvent(new ProductCatalogChangedEvent(order.getProducts().stream()
+                        .map(Product::getId_product)
+                        .collect(Collectors.toList())));
+            }
         } else {
             LOGGER.error(OrderLogger.ORDER_NOT_FOUND_BY_ID, id_order);
             throw new ResourceNotFoundException(Order.class.getSimpleName() + " with id: " + id_order);
         }
     }
 
+    /**
+     * The quantity ordered per product: Order.quantities for cart orders, otherwise one unit for
+     * each time the product appears in the order.
+     */
+    private static Map<String, Long> orderedQuantities(Order order) {
+        if (!order.getQuantities().isEmpty()) {
+            return order.getQuantities();
+        }
+        return order.getProducts().stream()
+                .collect(Collectors.groupingBy(Product::getId_product, Collectors.counting()));
+    }
+
     /**
      * Updates an existing order in the database.
      *
@@ -408,9 +646,12 @@ public class OrderService {
             throw new ResourceNotFoundException(Order.class.getSimpleName() + " with id: " + id);
         }
         Order existingOrder = orderOptional.get();
+        // The date and status decide where and whether the order counts in the sales read model.
+        salesAnalyticsService.retract(existingOrder);
         existingOrder.setOrder_date(orderDTO.getOrder_date());
         existingOrder.setStatus(orderDTO.getStatus());
         Order updatedOrder = orderRepository.save(existingOrder);
+        salesAnalyticsService.record(updatedOrder);
         LOGGER.debug(OrderLogger.ORDER_UPDATED, updatedOrder.getId_order());
         return OrderMapper.toOrderDTO(updatedOrder);
     }
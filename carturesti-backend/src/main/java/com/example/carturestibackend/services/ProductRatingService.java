@@ -0,0 +1,94 @@
+package com.example.carturestibackend.services;
+
+import com.example.carturestibackend.dtos.ProductRatingDTO;
+import com.example.carturestibackend.entities.ProductRating;
+import com.example.carturestibackend.repositories.ProductRatingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Maintains the ProductRating aggregates. ReviewService calls it in the transaction writing the
+ * review, so the aggregates change if and only if the review does.
+ */
+@Service
+public class ProductRatingService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProductRatingService.class);
+
+    private final ProductRatingRepository productRatingRepository;
+
+    /**
+     * Constructs a new ProductRatingService.
+     *
+     * @param productRatingRepository The repository holding the aggregates.
+     */
+    @Autowired
+    public ProductRatingService(ProductRatingRepository productRatingRepository) {
+        this.productRatingRepository = productRatingRepository;
+    }
+
+    /**
+     * Recomputes every aggregate from the reviews, replacing whatever the table held. Run once by
+     * DataMigrations before the application serves requests; the table lock holds back the review
+     * writes of other running instances until the transaction ends.
+     *
+     * @return The number of reviewed products.
+     */
+    public int recomputeFromReviews() {
+        productRatingRepository.lockTable();
+        productRatingRepository.deleteAllInBatch();
+        int products = productRatingRepository.insertFromReviews();
+        LOGGER.info("Rating aggregates computed for {} products", products);
+        return products;
+    }
+
+    /**
+     * Counts a new review.
+     *
+     * @throws IllegalArgumentException if the rating is not between 1 and 5.
+     */
+    public void addReview(String productId, int rating) {
+        productRatingRepository.addRating(productId, checked(rating), 1);
+    }
+
+    /**
+     * Stops counting a deleted review.
+     */
+    public void removeReview(String productId, int rating) {
+        productRatingRepository.addRating(productId, checked(rating), -1);
+    }
+
+    /**
+     * Moves a review whose rating changed to its new histogram bucket.
+     *
+     * @throws IllegalArgumentException if the new rating is not between 1 and 5.
+     */
+    public void changeReview(String productId, int previousRating, int rating) {
+        if (previousRating != rating) {
+            productRatingRepository.addRating(productId, checked(previousRating), -1);
+            productRatingRepository.addRating(productId, checked(rating), 1);
+        }
+    }
+
+    private static int checked(int rating) {
+        if (rating < 1 || rating > 5) {
+            throw new IllegalArgumentException("Rating must be between 1 and 5");
+        }
+        return rating;
+    }
+
+    /**
+     * Retrieves the ratings of a product; a product without reviews has none.
+     *
+     * @param productId The ID of the product.
+     * @return The ProductRatingDTO object holding the count, average and histogram.
+     */
+    public ProductRatingDTO findRating(String productId) {
+        ProductRating rating = productRatingRepository.findById(productId).orElseGet(() -> ProductRating.builder().id_product(productId).build());
+        double average = rating.getReview_count() > 0 ? (double) rating.getRating_sum() / rating.getReview_count() : 0;
+        return new ProductRatingDTO(productId, rating.getReview_count(), average,
+                new long[]{rating.getRating_1(), rating.getRating_2(), rating.getRating_3(), rating.getRating_4(), rating.getRating_5()});
+    }
+}
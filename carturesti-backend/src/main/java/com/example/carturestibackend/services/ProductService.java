@@ -1,16 +1,35 @@
 package com.example.carturestibackend.services;
 
+import com.example.carturestibackend.catalog.CatalogCursor;
+import com.example.carturestibackend.catalog.CatalogIndex;
+import com.example.carturestibackend.catalog.InvalidCursorException;
+import com.example.carturestibackend.catalog.ProductAutocompleteIndex;
+import com.example.carturestibackend.catalog.ProductCatalogCache;
+import com.example.carturestibackend.catalog.ProductCatalogIndexer;
+import com.example.carturestibackend.catalog.ProductFacetIndex;
+import com.example.carturestibackend.catalog.ProductSearchIndex;
+import com.example.carturestibackend.catalog.ProductSortIndex;
+import com.example.carturestibackend.catalog.ProductTrigramIndex;
+import com.example.carturestibackend.catalog.ProductCatalogChangedEvent;
 import com.example.carturestibackend.constants.ProductLogger;
+import com.example.carturestibackend.dtos.CatalogPageDTO;
+import com.example.carturestibackend.dtos.ProductCatalogDTO;
 import com.example.carturestibackend.dtos.ProductDTO;
+import com.example.carturestibackend.dtos.ProductFacetsDTO;
+import com.example.carturestibackend.dtos.ProductFilterDTO;
 import com.example.carturestibackend.dtos.mappers.*;
 import com.example.carturestibackend.entities.*;
 import com.example.carturestibackend.repositories.*;
 import com.example.carturestibackend.validators.ProductValidator;
+import com.example.carturestibackend.validators.ReviewValidator;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.rest.webmvc.ResourceNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
@@ -18,12 +37,15 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.Base64;
+import java.util.BitSet;
 
 /**
  * Service class to handle business logic related to products.
@@ -32,12 +54,31 @@ import java.util.Base64;
 public class ProductService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ProductService.class);
+    public static final int DEFAULT_PAGE_SIZE = 24;
+    public static final int MAX_PAGE_SIZE = 100;
+    /**
+     * Marks the name cursors issued by the database fallback. The database collation does not order names
+     * like the Romanian collator of ProductSortIndex, so each ordering only resumes from its own cursors;
+     * names never start with NUL, which PostgreSQL text cannot hold.
+     */
+    private static final String DATABASE_NAME_ORDER = "\0";
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
     private final ProductValidator productValidator;
     private final PromotionRepository promotionRepository;
     private final ReviewRepository reviewRepository;
     private final OrderItemRepository orderItemRepository ;
+    private final ProductCatalogCache productCatalogCache;
+    private final ProductCatalogIndexer productCatalogIndexer;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductAutocompleteIndex productAutocompleteIndex;
+    private final ProductTrigramIndex productTrigramIndex;
+    private final ProductFacetIndex productFacetIndex;
+    private final ProductSortIndex productSortIndex;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ProductRatingService productRatingService;
 
     /**
      * Constructs a new ProductService with the specified ProductRepository.
@@ -48,48 +89,43 @@ public class ProductService {
      * @param promotionRepository
      * @param reviewRepository
      * @param orderItemRepository
+     * @param productCatalogCache The cache in front of the catalog reads.
+     * @param productCatalogIndexer Resolves the ordinals returned by the in-memory indexes.
+     * @param productSearchIndex  The inverted index answering keyword searches.
+     * @param productAutocompleteIndex The trie answering type-ahead lookups.
+     * @param productTrigramIndex The trigram index correcting misspelled search words.
+     * @param productFacetIndex   The bitmap indexes answering combined filters.
+     * @param productSortIndex    The sorted views answering the price, rating and name orderings.
+     * @param eventPublisher      Publishes ProductCatalogChangedEvent after product writes.
      */
     @Autowired
-    public ProductService(ProductRepository productRepository, CategoryRepository categoryRepository, ProductValidator productValidator, PromotionRepository promotionRepository, ReviewRepository reviewRepository, OrderItemRepository orderItemRepository) {
+    public ProductService(ProductRepository productRepository, CategoryRepository categoryRepository, ProductValidator productValidator, PromotionRepository promotionRepository, ReviewRepository reviewRepository, OrderItemRepository orderItemRepository, ProductCatalogCache productCatalogCache, ProductCatalogIndexer productCatalogIndexer, ProductSearchIndex productSearchIndex, ProductAutocompleteIndex productAutocompleteIndex, ProductTrigramIndex productTrigramIndex, ProductFacetIndex productFacetIndex, ProductSortIndex productSortIndex, ApplicationEventPublisher eventPublisher) {
         this.productRepository = productRepository;
         this.categoryRepository = categoryRepository;
         this.productValidator = productValidator;
         this.promotionRepository = promotionRepository;
         this.reviewRepository = reviewRepository;
         this.orderItemRepository = orderItemRepository;
+        this.productCatalogCache = productCatalogCache;
+        this.productCatalogIndexer = productCatalogIndexer;
+        this.productSearchIndex = productSearchIndex;
+        this.productAutocompleteIndex = productAutocompleteIndex;
+        this.productTrigramIndex = productTrigramIndex;
+        this.productFacetIndex = productFacetIndex;
+        this.productSortIndex = productSortIndex;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
-     * Retrieves all products from the database.
+     * Retrieves the catalog view of all products from the database.
+     * Only the columns shown in the catalog are selected and the promotion price is computed in the query,
+     * so no Product entity (and none of its eager associations) is loaded.
      *
-     * @return A list of ProductDTO objects representing the products.
+     * @return A list of ProductCatalogDTO objects representing the products.
      */
-    public List<ProductDTO> findProducts() {
+    public List<ProductCatalogDTO> findProducts() {
         LOGGER.info(ProductLogger.ALL_PRODUCTS_RETRIEVED);
-        List<Product> productList = productRepository.findAll();
-        List<ProductDTO> productDTOs = new ArrayList<>();
-
-        for (Product product : productList) {
-            ProductDTO productDTO = ProductMapper.toProductDTO(product);
-
-            double originalPrice = product.getPrice();
-
-            Promotion promotion = product.getPromotion();
-            if (promotion != null) {
-                double promotionPercentage = promotion.getPercentage();
-                double promotionPrice = originalPrice;
-
-                if (promotionPercentage > 0) {
-                    promotionPrice = originalPrice * (1 - promotionPercentage / 100);
-                }
-
-                productDTO.setPrice_promotion(promotionPrice); // Set promotion price in DTO
-            }
-
-            productDTOs.add(productDTO);
-        }
-
-        return productDTOs;
+        return productCatalogCache.get("catalog", () -> Collections.unmodifiableList(productRepository.findCatalog()));
     }
 
 
@@ -101,55 +137,266 @@ public class ProductService {
      * @throws ResourceNotFoundException if the product with the specified ID is not found.
      */
     public ProductDTO findProductById(String id_product) {
-        Optional<Product> productOptional = productRepository.findById(id_product);
-        if (!productOptional.isPresent()) {
-            LOGGER.error(ProductLogger.PRODUCT_NOT_FOUND_BY_ID, id_product);
-            throw new ResourceNotFoundException(Product.class.getSimpleName() + " with id: " + id_product);
-        }
-        return ProductMapper.toProductDTO(productOptional.get());
+        return productCatalogCache.get(ProductCatalogCache.productKey(id_product), () -> {
+            Optional<Product> productOptional = productRepository.findById(id_product);
+            if (!productOptional.isPresent()) {
+                LOGGER.error(ProductLogger.PRODUCT_NOT_FOUND_BY_ID, id_product);
+                throw new ResourceNotFoundException(Product.class.getSimpleName() + " with id: " + id_product);
+            }
+            return ProductMapper.toProductDTO(productOptional.get());
+        });
     }
     /**
-     * Retrieves products from the database by category name.
+     * Retrieves one keyset page of the catalog ordered by product ID.
+     *
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     * @param size   The maximum number of products on the page.
+     * @return A CatalogPageDTO holding the products and the cursor of the next page.
+     */
+    public CatalogPageDTO findProductPage(String cursor, int size) {
+        CatalogCursor after = CatalogCursor.decode(cursor);
+        int pageSize = clampPageSize(size);
+        return productCatalogCache.get("page:" + cursor + ":" + pageSize, () -> toPage(after == null
+                ? productRepository.findCatalogPage(PageRequest.of(0, pageSize + 1))
+                : productRepository.findCatalogPageAfter(after.getId(), PageRequest.of(0, pageSize + 1)),
+                pageSize, ProductCatalogDTO::getId_product));
+    }
+
+    /**
+     * Retrieves one keyset page of the products belonging to a category.
      *
      * @param categoryName The name of the category to filter products.
-     * @return A list of Product objects belonging to the specified category.
+     * @param cursor       The cursor returned with the previous page, or null for the first page.
+     * @param size         The maximum number of products on the page.
+     * @return A CatalogPageDTO holding the products of the category and the cursor of the next page.
      */
-    public List<Product> getProductsByCategoryName(String categoryName) {
-        Category category = categoryRepository.findByName(categoryName);
-        if (category != null) {
-            return productRepository.findProductByCategory(category);
-        } else {
-            return Collections.emptyList();
+    public CatalogPageDTO getProductsByCategoryName(String categoryName, String cursor, int size) {
+        CatalogCursor after = CatalogCursor.decode(cursor);
+        int pageSize = clampPageSize(size);
+        return productCatalogCache.get("category:" + categoryName + ":" + cursor + ":" + pageSize, () -> toPage(after == null
+                ? productRepository.findCatalogPageByCategoryName(categoryName, PageRequest.of(0, pageSize + 1))
+                : productRepository.findCatalogPageByCategoryNameAfter(categoryName, after.getId(), PageRequest.of(0, pageSize + 1)),
+                pageSize, ProductCatalogDTO::getId_product));
+    }
+
+    /**
+     * Searches products by keyword, one page at a time.
+     * Results come ranked from the in-memory ProductSearchIndex; the cursor then holds the offset of the next page.
+     * When nothing matches, the words of the query are corrected against product names and authors
+     * and the results of the corrected query are returned, with the correction as the page's suggestion.
+     * Until the index has been built at startup, the search falls back to a LIKE query paged by product ID.
+     *
+     * @param keyword The keyword to search for in product names, descriptions and authors.
+     * @param cursor  The cursor returned with the previous page, or null for the first page.
+     * @param size    The maximum number of products on the page.
+     * @return A CatalogPageDTO holding the matching products and the cursor of the next page.
+     */
+    public CatalogPageDTO searchProducts(String keyword, String cursor, int size) {
+        CatalogCursor after = CatalogCursor.decode(cursor);
+        int pageSize = clampPageSize(size);
+        if (productCatalogIndexer.isReady()) {
+            int[] ranked = productSearchIndex.search(keyword);
+            String suggestion = null;
+            if (ranked.length == 0) {
+                suggestion = productTrigramIndex.suggest(keyword);
+                if (suggestion != null) {
+                    ranked = productSearchIndex.search(suggestion);
+                }
+            }
+            int from = after == null ? 0 : after.sortValueAsOffset();
+            return toRankedPage(ranked, from, pageSize, suggestion);
         }
+        return toPage(after == null
+                ? productRepository.searchCatalogPage(keyword, PageRequest.of(0, pageSize + 1))
+                : productRepository.searchCatalogPageAfter(keyword, after.getId(), PageRequest.of(0, pageSize + 1)),
+                pageSize, ProductCatalogDTO::getId_product);
     }
 
     /**
-     * Searches products by keyword.
+     * Retrieves one keyset page of the products sorted by price.
+     * Pages are read from the sorted views of ProductSortIndex; until it has been built at startup
+     * they come from the keyset queries, which only order by list price.
      *
-     * @param keyword The keyword to search for in product names and descriptions.
-     * @return A list of Product objects matching the search keyword.
+     * @param ascending True for ascending order, false for descending order.
+     * @param effective True to sort by the price after promotions, false to sort by the list price.
+     * @param cursor    The cursor returned with the previous page, or null for the first page.
+     * @param size      The maximum number of products on the page.
+     * @return A CatalogPageDTO holding the products sorted by price and the cursor of the next page.
      */
-    public List<Product> searchProducts(String keyword) {
-        return productRepository.searchProducts(keyword);
+    public CatalogPageDTO getProductsSortedByPrice(boolean ascending, boolean effective, String cursor, int size) {
+        CatalogCursor after = CatalogCursor.decode(cursor);
+        int pageSize = clampPageSize(size);
+        if (productCatalogIndexer.isReady()) {
+            return effective
+                    ? toSortedPage(ProductSortIndex.SortKey.EFFECTIVE_PRICE, ascending, after, pageSize, product -> String.valueOf(CatalogIndex.effectivePrice(product)))
+                    : toSortedPage(ProductSortIndex.SortKey.PRICE, ascending, after, pageSize, product -> String.valueOf(product.getPrice()));
+        }
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        return productCatalogCache.get((ascending ? "sortprice:asc:" : "sortprice:desc:") + cursor + ":" + pageSize, () -> {
+            List<ProductCatalogDTO> rows;
+            if (after == null) {
+                rows = ascending ? productRepository.findCatalogPageByPriceAsc(pageable) : productRepository.findCatalogPageByPriceDesc(pageable);
+            } else if (ascending) {
+                rows = productRepository.findCatalogPageByPriceAscAfter(after.sortValueAsDouble(), after.getId(), pageable);
+            } else {
+                rows = productRepository.findCatalogPageByPriceDescAfter(after.sortValueAsDouble(), after.getId(), pageable);
+            }
+            return toPage(rows, pageSize, product -> String.valueOf(product.getPrice()));
+        });
     }
+
     /**
-     * Retrieves products from the database sorted by price.
+     * Retrieves one keyset page of the products sorted by average rating, computed from the
+     * ProductRating aggregates; products without reviews rate 0.
      *
      * @param ascending True for ascending order, false for descending order.
-     * @return A list of Product objects sorted by price.
+     * @param cursor    The cursor returned with the previous page, or null for the first page.
+     * @param size      The maximum number of products on the page.
+     * @return A CatalogPageDTO holding the products sorted by rating and the cursor of the next page.
      */
-    public List<Product> getProductsSortedByPrice(boolean ascending) {
-        return ascending ? productRepository.findAllByOrderByPriceAsc() : productRepository.findAllByOrderByPriceDesc();
+    public CatalogPageDTO getProductsSortedByRating(boolean ascending, String cursor, int size) {
+        CatalogCursor after = CatalogCursor.decode(cursor);
+        int pageSize = clampPageSize(size);
+        if (productCatalogIndexer.isReady()) {
+            return toSortedPage(ProductSortIndex.SortKey.RATING, ascending, after, pageSize, product -> String.valueOf(product.getAverage_rating()));
+        }
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        return productCatalogCache.get((ascending ? "sortrating:asc:" : "sortrating:desc:") + cursor + ":" + pageSize, () -> {
+            List<ProductCatalogDTO> rows;
+            if (after == null) {
+                rows = ascending ? productRepository.findCatalogPageByRatingAsc(pageable) : productRepository.findCatalogPageByRatingDesc(pageable);
+            } else if (ascending) {
+                rows = productRepository.findCatalogPageByRatingAscAfter(after.sortValueAsDouble(), after.getId(), pageable);
+            } else {
+                rows = productRepository.findCatalogPageByRatingDescAfter(after.sortValueAsDouble(), after.getId(), pageable);
+            }
+            return toPage(rows, pageSize, product -> String.valueOf(product.getAverage_rating()));
+        });
     }
 
     /**
-     * Retrieves products from the database sorted by name.
+     * Retrieves one keyset page of the products sorted by name. The in-memory index sorts in Romanian
+     * collation order and the database fallback in the database's; a listing keeps to the ordering its
+     * first page came from, so it neither skips nor repeats products when the index becomes ready.
      *
      * @param ascending True for ascending order, false for descending order.
-     * @return A list of Product objects sorted by name.
+     * @param cursor    The cursor returned with the previous page, or null for the first page.
+     * @param size      The maximum number of products on the page.
+     * @return A CatalogPageDTO holding the products sorted by name and the cursor of the next page.
+     * @throws InvalidCursorException if the cursor came from the index and the index is not ready,
+     *                                  e.g. right after a restart; the listing has to start over.
+     */
+    public CatalogPageDTO getProductsSortedByName(boolean ascending, String cursor, int size) {
+        CatalogCursor after = CatalogCursor.decode(cursor);
+        int pageSize = clampPageSize(size);
+        boolean databaseCursor = after != null && after.getSortValue().startsWith(DATABASE_NAME_ORDER);
+        if (!databaseCursor && productCatalogIndexer.isReady()) {
+            return toSortedPage(ProductSortIndex.SortKey.NAME, ascending, after, pageSize, ProductCatalogDTO::getName);
+        }
+        if (after != null && !databaseCursor) {
+            throw new InvalidCursorException("Invalid catalog cursor");
+        }
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        return productCatalogCache.get((ascending ? "sortname:asc:" : "sortname:desc:") + cursor + ":" + pageSize, () -> {
+            List<ProductCatalogDTO> rows;
+            if (after == null) {
+                rows = ascending ? productRepository.findCatalogPageByNameAsc(pageable) : productRepository.findCatalogPageByNameDesc(pageable);
+            } else {
+                String name = after.getSortValue().substring(DATABASE_NAME_ORDER.length());
+                rows = ascending
+                        ? productRepository.findCatalogPageByNameAscAfter(name, after.getId(), pageable)
+                        : productRepository.findCatalogPageByNameDescAfter(name, after.getId(), pageable);
+            }
+            return toPage(rows, pageSize, product -> DATABASE_NAME_ORDER + product.getName());
+        });
+    }
+
+    /**
+     * Suggests product names and authors starting with the given prefix.
+     * Served only from memory; before the catalog indexes are built no suggestions are returned.
+     *
+     * @param prefix The text typed so far.
+     * @param limit  The maximum number of suggestions, capped at ProductAutocompleteIndex.MAX_SUGGESTIONS.
+     * @return The suggestions, most common first.
+     */
+    public List<String> autocomplete(String prefix, int limit) {
+        if (!productCatalogIndexer.isReady()) {
+            return Collections.emptyList();
+        }
+        return productAutocompleteIndex.complete(prefix, Math.min(limit, ProductAutocompleteIndex.MAX_SUGGESTIONS));
+    }
+
+    /**
+     * Filters products on any combination of category, author, price range, promotion and stock,
+     * and counts the products of every facet value. Everything is computed from the in-memory
+     * bitmap indexes; before they are built at startup the result is empty.
+     *
+     * @param filter The filter to apply.
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     * @param size   The maximum number of products on the page.
+     * @return A ProductFacetsDTO holding a page of matching products, the total and the facet counts.
+     */
+    public ProductFacetsDTO filterProducts(ProductFilterDTO filter, String cursor, int size) {
+        if (!productCatalogIndexer.isReady()) {
+            return new ProductFacetsDTO(Collections.emptyList(), null, 0, Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap(), 0, 0);
+        }
+        CatalogCursor after = CatalogCursor.decode(cursor);
+        int pageSize = clampPageSize(size);
+        ProductFacetIndex.FacetResult result = productFacetIndex.query(filter);
+        BitSet matches = result.getMatches();
+        int[] ordinals = new int[pageSize];
+        int count = 0;
+        int ordinal = matches.nextSetBit(after == null ? 0 : after.sortValueAsOffset());
+        for (; ordinal >= 0 && count < pageSize; ordinal = matches.nextSetBit(ordinal + 1)) {
+            ordinals[count++] = ordinal;
+        }
+        List<ProductCatalogDTO> page = Collections.unmodifiableList(productCatalogIndexer.getProducts(ordinals, 0, count));
+        String nextCursor = ordinal >= 0 && !page.isEmpty()
+                ? new CatalogCursor(String.valueOf(ordinal), page.get(page.size() - 1).getId_product()).encode()
+                : null;
+        return new ProductFacetsDTO(page, nextCursor, matches.cardinality(), result.getCategories(), result.getAuthors(),
+                result.getPrices(), result.getOnPromotion(), result.getInStock());
+    }
+
+    /**
+     * Reads one page off a sorted view; one extra product tells whether another page follows.
+     */
+    private CatalogPageDTO toSortedPage(ProductSortIndex.SortKey key, boolean ascending, CatalogCursor after, int pageSize, Function<ProductCatalogDTO, String> sortValue) {
+        int[] ordinals = productSortIndex.page(key, ascending, after, pageSize + 1);
+        return toPage(productCatalogIndexer.getProducts(ordinals, 0, ordinals.length), pageSize, sortValue);
+    }
+
+    /**
+     * Builds a page from ranked ordinals starting at the given offset.
      */
-    public List<Product> getProductsSortedByName(boolean ascending) {
-        return ascending ? productRepository.findAllByOrderByNameAsc() : productRepository.findAllByOrderByNameDesc();
+    private CatalogPageDTO toRankedPage(int[] ranked, int from, int pageSize, String suggestion) {
+        int start = Math.min(Math.max(from, 0), ranked.length);
+        int end = Math.min(start + pageSize, ranked.length);
+        List<ProductCatalogDTO> page = Collections.unmodifiableList(productCatalogIndexer.getProducts(ranked, start, end));
+        if (end == ranked.length || page.isEmpty()) {
+            return new CatalogPageDTO(page, null, suggestion);
+        }
+        ProductCatalogDTO last = page.get(page.size() - 1);
+        return new CatalogPageDTO(page, new CatalogCursor(String.valueOf(end), last.getId_product()).encode(), suggestion);
+    }
+
+    private static int clampPageSize(int size) {
+        if (size <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Builds a page from rows fetched with one extra row; the extra row only signals that a next page exists.
+     */
+    private static CatalogPageDTO toPage(List<ProductCatalogDTO> rows, int pageSize, Function<ProductCatalogDTO, String> sortValue) {
+        if (rows.size() <= pageSize) {
+            return new CatalogPageDTO(Collections.unmodifiableList(rows), null, null);
+        }
+        List<ProductCatalogDTO> page = Collections.unmodifiableList(new ArrayList<>(rows.subList(0, pageSize)));
+        ProductCatalogDTO last = page.get(pageSize - 1);
+        return new CatalogPageDTO(page, new CatalogCursor(sortValue.apply(last), last.getId_product()).encode(), null);
     }
 
 
@@ -177,6 +424,7 @@ public class ProductService {
         // Save the image file to the server and set the image path in the product
         product = productRepository.save(product);
         LOGGER.debug(ProductLogger.PRODUCT_INSERTED, product.getId_product());
+        eventPublisher.publishEvent(ProductCatalogChangedEvent.of(product.getId_product()));
 
         return product.getId_product();
     }
@@ -217,6 +465,7 @@ public class ProductService {
             // Delete the product itself
             productRepository.deleteById(id_product);
             LOGGER.debug(ProductLogger.PRODUCT_DELETED, id_product);
+            eventPublisher.publishEvent(ProductCatalogChangedEvent.of(id_product));
         } else {
             LOGGER.error(ProductLogger.PRODUCT_NOT_FOUND_BY_ID, id_product);
             throw new ResourceNotFoundException(Product.class.getSimpleName() + " with id: " + id_product);
@@ -253,11 +502,11 @@ public class ProductService {
         } else {
             existingProduct.setPromotion(null);
         }
-
-
+        existingProduct.setPrice_promotion(PromotionPricingEngine.promotionalPrice(existingProduct.getPrice(), existingProduct.getPromotion()));
 
         Product updatedProduct = productRepository.save(existingProduct);
         LOGGER.debug(ProductLogger.PRODUCT_UPDATED, updatedProduct.getId_product());
+        eventPublisher.publishEvent(ProductCatalogChangedEvent.of(id_product));
 
         return ProductMapper.toProductDTO(updatedProduct);
     }
@@ -269,13 +518,18 @@ public class ProductService {
      * @param productId The ID of the product.
      * @param review    The review to add.
      */
+    @Transactional
     public void addReviewToProduct(String productId, Review review) {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with ID: " + productId));
 
         review.setProduct(product);
+        review.setCreated_at(LocalDateTime.now());
+        ReviewValidator.validateReview(review);
 
         reviewRepository.save(review);
+        productRatingService.addReview(productId, review.getRating());
+        eventPublisher.publishEvent(ProductCatalogChangedEvent.of(productId));
     }
 
     /**
@@ -0,0 +1,169 @@
+package com.example.carturestibackend.services;
+
+import com.example.carturestibackend.dtos.PromotionWindowDTO;
+import com.example.carturestibackend.entities.Promotion;
+import com.example.carturestibackend.repositories.ProductRepository;
+import com.example.carturestibackend.repositories.PromotionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.rest.webmvc.ResourceNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Computes the promotional prices of products when a promotion is created, changed, deleted,
+ * activated or expired, and persists them with set-based UPDATEs instead of saving product by product.
+ * The stored price is never touched; price_promotion holds the discounted price while the promotion
+ * is active, or 0 when the product has no active promotion.
+ */
+@Component
+public class PromotionPricingEngine {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PromotionPricingEngine.class);
+
+    private final ProductRepository productRepository;
+    private final PromotionRepository promotionRepository;
+
+    /**
+     * Constructs a new PromotionPricingEngine.
+     *
+     * @param productRepository   The ProductRepository running the bulk price updates.
+     * @param promotionRepository The PromotionRepository running the bulk activation updates.
+     */
+    @Autowired
+    public PromotionPricingEngine(ProductRepository productRepository, PromotionRepository promotionRepository) {
+        this.productRepository = productRepository;
+        this.promotionRepository = promotionRepository;
+    }
+
+    /**
+     * Multiplier applied to the price of a product on the given promotion.
+     *
+     * @param percentage The discount percentage of the promotion.
+     * @return 1 - percentage / 100, or 1 when there is no discount.
+     */
+    public static double factor(double percentage) {
+        return percentage > 0 ? 1 - percentage / 100 : 1;
+    }
+
+    /**
+     * Multiplier stored for the products of the promotion: 0 while it is inactive, which stores
+     * the 0 that marks "no promotional price".
+     */
+    private static double storedFactor(Promotion promotion) {
+        return promotion.isActive() ? factor(promotion.getPercentage()) : 0;
+    }
+
+    /**
+     * Promotional price of a single product, for callers that already hold the entity.
+     *
+     * @param price     The regular price of the product.
+     * @param promotion The promotion of the product, or null.
+     * @return The discounted price, or 0 when there is no active promotion.
+     */
+    public static double promotionalPrice(double price, Promotion promotion) {
+        return promotion == null ? 0 : price * storedFactor(promotion);
+    }
+
+    /**
+     * Puts the products on the promotion and prices them.
+     *
+     * @param promotion  The saved promotion.
+     * @param productIds The IDs of the products to put on the promotion.
+     * @throws ResourceNotFoundException if some of the products do not exist.
+     */
+    public void assign(Promotion promotion, Collection<String> productIds) {
+        Set<String> ids = new LinkedHashSet<>(productIds);
+        int updated = productRepository.assignPromotion(promotion, storedFactor(promotion), ids);
+        if (updated != ids.size()) {
+            throw new ResourceNotFoundException("Products not found among IDs: " + ids);
+        }
+    }
+
+    /**
+     * Recomputes the prices of the promotion's products after its percentage or active flag changed.
+     *
+     * @param promotion The updated promotion.
+     * @return The number of repriced products.
+     */
+    public int reprice(Promotion promotion) {
+        return productRepository.repricePromotions(List.of(promotion.getId_promotion()), storedFactor(promotion));
+    }
+
+    /**
+     * Activates the promotions and prices their products, with one UPDATE per distinct percentage.
+     *
+     * @param promotions The promotions whose window opened.
+     */
+    public void activate(Collection<PromotionWindowDTO> promotions) {
+        if (promotions.isEmpty()) {
+            return;
+        }
+        promotionRepository.updateActive(ids(promotions), true);
+        Map<Double, List<String>> byPercentage = promotions.stream()
+                .collect(Collectors.groupingBy(PromotionWindowDTO::getPercentage,
+                        Collectors.mapping(PromotionWindowDTO::getId_promotion, Collectors.toList())));
+        byPercentage.forEach((percentage, ids) -> productRepository.repricePromotions(ids, factor(percentage)));
+    }
+
+    /**
+     * Deactivates the promotions and resets the promotional price of their products.
+     *
+     * @param promotions The promotions whose window closed.
+     */
+    public void expire(Collection<PromotionWindowDTO> promotions) {
+        if (promotions.isEmpty()) {
+            return;
+        }
+        List<String> ids = ids(promotions);
+        promotionRepository.updateActive(ids, false);
+        productRepository.repricePromotions(ids, 0);
+    }
+
+    /**
+     * Takes the promotion's products off the promotion, resetting their promotional price.
+     *
+     * @param promotionId The ID of the promotion.
+     * @return The number of released products.
+     */
+    public int release(String promotionId) {
+        return productRepository.clearPromotion(promotionId);
+    }
+
+    /**
+     * Restores the regular price of the products put on a promotion before promotional prices were
+     * kept apart, when the discounted price was written over the price itself, and prices them the
+     * current way. Meant to run once, through DataMigrations; a promotion of 100% left no trace of
+     * the regular price and is skipped.
+     *
+     * @return The number of restored products.
+     */
+    public int restoreListPrices() {
+        Map<Double, List<String>> byPercentage = promotionRepository.findWindows().stream()
+                .filter(window -> window.isActive() && window.getPercentage() > 0)
+                .collect(Collectors.groupingBy(PromotionWindowDTO::getPercentage,
+                        Collectors.mapping(PromotionWindowDTO::getId_promotion, Collectors.toList())));
+        int restored = 0;
+        for (Map.Entry<Double, List<String>> entry : byPercentage.entrySet()) {
+            double factor = factor(entry.getKey());
+            if (factor <= 0) {
+                LOGGER.warn("Cannot restore the prices of the products of promotions {}", entry.getValue());
+                continue;
+            }
+            restored += productRepository.undiscountPrices(entry.getValue(), factor);
+            productRepository.repricePromotions(entry.getValue(), factor);
+        }
+        return restored;
+    }
+
+    private static List<String> ids(Collection<PromotionWindowDTO> promotions) {
+        return promotions.stream().map(PromotionWindowDTO::getId_promotion).collect(Collectors.toList());
+    }
+}
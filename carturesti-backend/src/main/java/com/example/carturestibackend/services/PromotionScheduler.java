@@ -0,0 +1,101 @@
+package com.example.carturestibackend.services;
+
+import com.example.carturestibackend.catalog.ProductCatalogChangedEvent;
+import com.example.carturestibackend.dtos.PromotionWindowDTO;
+import com.example.carturestibackend.repositories.ProductRepository;
+import com.example.carturestibackend.repositories.PromotionRepository;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Activates and expires promotions as their validity windows open and close.
+ * Each sweep asks PromotionWindowIndex for the promotions that crossed a window boundary since the
+ * previous sweep, so a quiet sweep does no database work; the due promotions are then switched in
+ * batches by PromotionPricingEngine.
+ */
+@Component
+public class PromotionScheduler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PromotionScheduler.class);
+
+    private final PromotionRepository promotionRepository;
+    private final ProductRepository productRepository;
+    private final PromotionPricingEngine promotionPricingEngine;
+    private final PromotionWindowIndex promotionWindowIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private LocalDateTime lastSweep;
+
+    /**
+     * Constructs a new PromotionScheduler.
+     *
+     * @param promotionRepository    Loads the promotion windows at startup.
+     * @param productRepository      Looks up the products of the switched promotions.
+     * @param promotionPricingEngine Applies the activations and expirations.
+     * @param promotionWindowIndex   The in-memory windows swept for due promotions.
+     * @param eventPublisher         Publishes ProductCatalogChangedEvent for the repriced products.
+     */
+    @Autowired
+    public PromotionScheduler(PromotionRepository promotionRepository, ProductRepository productRepository, PromotionPricingEngine promotionPricingEngine, PromotionWindowIndex promotionWindowIndex, ApplicationEventPublisher eventPublisher) {
+        this.promotionRepository = promotionRepository;
+        this.productRepository = productRepository;
+        this.promotionPricingEngine = promotionPricingEngine;
+        this.promotionWindowIndex = promotionWindowIndex;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadWindows() {
+        List<PromotionWindowDTO> windows = promotionRepository.findWindows();
+        promotionWindowIndex.rebuild(windows);
+        LOGGER.info("Loaded the validity windows of {} promotions", windows.size());
+    }
+
+    /**
+     * Switches the promotions whose window opened or closed since the previous sweep.
+     * The first sweep after startup catches up with every boundary already passed.
+     */
+    @Scheduled(fixedDelayString = "${promotion.sweep.delay-ms:30000}")
+    @Transactional
+    public void sweep() {
+        if (!promotionWindowIndex.isReady()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<PromotionWindowDTO> due = promotionWindowIndex.transitions(lastSweep, now);
+        if (!due.isEmpty()) {
+            List<PromotionWindowDTO> activated = due.stream().filter(window -> !window.isActive()).collect(Collectors.toList());
+            List<PromotionWindowDTO> expired = due.stream().filter(PromotionWindowDTO::isActive).collect(Collectors.toList());
+            promotionPricingEngine.activate(activated);
+            promotionPricingEngine.expire(expired);
+
+            List<String> ids = due.stream().map(PromotionWindowDTO::getId_promotion).collect(Collectors.toList());
+            List<String> productIds = productRepository.findIdsByPromotionIds(ids);
+            if (!productIds.isEmpty()) {
+                eventPublisher.publishEvent(new ProductCatalogChangedEvent(productIds));
+            }
+            promotionWindowIndex.markActive(activated.stream().map(PromotionWindowDTO::getId_promotion).collect(Collectors.toList()), true);
+            promotionWindowIndex.markActive(expired.stream().map(PromotionWindowDTO::getId_promotion).collect(Collectors.toList()), false);
+            LOGGER.info("Activated {} and expired {} promotions", activated.size(), expired.size());
+        }
+        // Moved on only once the switches are committed, so that the next sweep retries a rolled back one.
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                lastSweep = now;
+            }
+        });
+    }
+}
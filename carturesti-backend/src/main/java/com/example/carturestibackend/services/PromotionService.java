@@ -1,20 +1,22 @@
 package com.example.carturestibackend.services;
 
+import com.example.carturestibackend.catalog.ProductCatalogChangedEvent;
 import com.example.carturestibackend.constants.PromotionLogger;
 import com.example.carturestibackend.dtos.PromotionDTO;
 import com.example.carturestibackend.dtos.mappers.PromotionMapper;
 import com.example.carturestibackend.entities.Product;
 import com.example.carturestibackend.entities.Promotion;
-import com.example.carturestibackend.repositories.ProductRepository;
 import com.example.carturestibackend.repositories.PromotionRepository;
 import com.example.carturestibackend.validators.PromotionValidator;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.rest.webmvc.ResourceNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -30,63 +32,41 @@ public class PromotionService {
     private static final Logger LOGGER = LoggerFactory.getLogger(PromotionService.class);
     private final PromotionRepository promotionRepository;
     private final PromotionValidator promotionValidator;
-    private final ProductRepository productRepository;
+    private final PromotionPricingEngine promotionPricingEngine;
+    private final PromotionWindowIndex promotionWindowIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Constructs a new PromotionService with the specified PromotionRepository.
      *
      * @param promotionRepository The PromotionRepository used to interact with promotion data in the database.
      * @param promotionValidator
-     * @param productRepository
+     * @param promotionPricingEngine Prices the products of a promotion when it is created, changed or deleted.
+     * @param promotionWindowIndex   Keeps the validity windows swept by PromotionScheduler.
+     * @param eventPublisher      Publishes ProductCatalogChangedEvent for the repriced products.
      */
     @Autowired
-    public PromotionService(PromotionRepository promotionRepository, PromotionValidator promotionValidator, ProductRepository productRepository) {
+    public PromotionService(PromotionRepository promotionRepository, PromotionValidator promotionValidator, PromotionPricingEngine promotionPricingEngine, PromotionWindowIndex promotionWindowIndex, ApplicationEventPublisher eventPublisher) {
         this.promotionRepository = promotionRepository;
         this.promotionValidator = promotionValidator;
-        this.productRepository = productRepository;
+        this.promotionPricingEngine = promotionPricingEngine;
+        this.promotionWindowIndex = promotionWindowIndex;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
-     * Retrieves all promotions from the database.
+     * Retrieves all promotions from the database. Promotional prices are maintained by the
+     * PromotionPricingEngine when promotions change, so this is a pure read.
      *
      * @return A list of PromotionDTO objects representing the promotions.
      */
     public List<PromotionDTO> findPromotions() {
         LOGGER.info(PromotionLogger.ALL_PROMOTIONS_RETRIEVED);
-        List<Promotion> promotions = promotionRepository.findAll();
-        List<PromotionDTO> promotionDTOs = new ArrayList<>();
-
-        for (Promotion promotion : promotions) {
-            PromotionDTO promotionDTO = PromotionMapper.toPromotionDTO(promotion);
-            List<String> productIdsWithPromotion = new ArrayList<>();
-            double totalPromotionPrice = 0.0; // Initialize total promotion price
-
-            for (Product product : promotion.getProducts()) {
-                String productId = product.getId_product();
-                double promotionPercentage = promotion.getPercentage();
-                double originalPrice = product.getPrice();
-                double promotionPrice = originalPrice;
-
-                if (promotionPercentage > 0) {
-                    promotionPrice = originalPrice * (1 - promotionPercentage / 100);
-                }
-
-                totalPromotionPrice += promotionPrice; // Add promotion price to total promotion price
-
-                // Update the product price in the database
-                product.setPrice_promotion(promotionPrice);
-                productRepository.save(product); // Save the updated product
-
-                productIdsWithPromotion.add(productId);
-            }
-
-            // Set the list of product IDs with promotion prices in the PromotionDTO
-            promotionDTO.setId_products(productIdsWithPromotion);
-            promotionDTOs.add(promotionDTO);
-        }
-
-        return promotionDTOs;
+        return promotionRepository.findAll().stream()
+                .map(PromotionMapper::toPromotionDTO)
+                .collect(Collectors.toList());
     }
+
     /**
      * Retrieves a promotion by its ID.
      *
@@ -118,36 +98,20 @@ public class PromotionService {
         // Validăm promoția
         boolean isValidPromotion = promotionValidator.validatePromotion(promotion);
         if (isValidPromotion) {
+            // Promoția este activă doar dacă intervalul ei de valabilitate conține momentul curent
+            promotion.setActive(PromotionWindowIndex.covers(promotion.getStarts_at(), promotion.getEnds_at(), LocalDateTime.now()));
+
             // Salvăm promoția
             promotion = promotionRepository.save(promotion);
+            promotionWindowIndex.put(PromotionMapper.toPromotionWindowDTO(promotion));
             LOGGER.debug(PromotionLogger.PROMOTION_INSERTED, promotion.getId_promotion());
 
             // Verificăm dacă lista de ID-uri de produse nu este null
             List<String> productIds = promotionDTO.getId_products();
             if (productIds != null && !productIds.isEmpty()) {
-                // Iterăm prin fiecare ID de produs și îl asociem cu promoția
-                for (String productId : productIds) {
-                    Product product = productRepository.findById(productId)
-                            .orElseThrow(() -> new ResourceNotFoundException("Product not found with ID: " + productId));
-
-                    // Aplicăm procentul promoției la prețul produsului
-                    double promotionPercentage = promotion.getPercentage();
-                    double originalPrice = product.getPrice();
-                    double discountedPrice = originalPrice;
-
-                    if (promotionPercentage > 0) {
-                        discountedPrice = originalPrice * (1 - promotionPercentage / 100);
-                    }
-
-                    // Actualizăm prețul produsului cu prețul redus
-                    product.setPrice(discountedPrice);
-
-                    // Asociem produsul cu promoția
-                    product.setPromotion(promotion);
-
-                    // Salvăm produsul cu asocierea și prețul actualizat
-                    productRepository.save(product);
-                }
+                // Asociem produsele cu promoția și le calculăm prețul promoțional într-un singur UPDATE
+                promotionPricingEngine.assign(promotion, productIds);
+                eventPublisher.publishEvent(new ProductCatalogChangedEvent(productIds));
             }
 
             return promotion.getId_promotion();
@@ -159,12 +123,6 @@ public class PromotionService {
     }
 
 
-    /**
-     * Deletes a promotion from the database by its ID.
-     *
-     * @param id The ID of the promotion to delete.
-     * @throws ResourceNotFoundException if the promotion with the specified ID is not found.
-     */
     /**
      * Deletes a promotion from the database by its ID.
      *
@@ -177,21 +135,17 @@ public class PromotionService {
         if (promotionOptional.isPresent()) {
             Promotion promotion = promotionOptional.get();
 
-            List<Product> products = promotion.getProducts();
-            for (Product product : products) {
-                // Calculate the original price using the formula
-                double promotionPercentage = promotion.getPercentage();
-                double discountedPrice = product.getPrice();
-                double originalPrice = discountedPrice / (1 - promotionPercentage / 100);
-
-                // Set the product's price to the original price
-                product.setPromotion(null);
-                product.setPrice(originalPrice);
-                product.setPrice_promotion(0.0);
-                productRepository.save(product);
-            }
-            promotionRepository.delete(promotion);
+            List<String> productIds = promotion.getProducts() == null ? new ArrayList<>() : promotion.getProducts().stream()
+                    .map(Product::getId_product)
+                    .collect(Collectors.toList());
+            // Release the products first so that removing the promotion does not cascade to them.
+            promotionPricingEngine.release(id);
+            promotionRepository.deleteById(id);
+            promotionWindowIndex.remove(id);
             LOGGER.debug(PromotionLogger.PROMOTION_DELETED, id);
+            if (!productIds.isEmpty()) {
+                eventPublisher.publishEvent(new ProductCatalogChangedEvent(productIds));
+            }
         } else {
             LOGGER.error(PromotionLogger.PROMOTION_NOT_FOUND_BY_ID, id);
             throw new ResourceNotFoundException(Promotion.class.getSimpleName() + " with id: " + id);
@@ -215,12 +169,27 @@ public class PromotionService {
         }
 
         Promotion existingPromotion = promotionOptional.get();
+        boolean active = PromotionWindowIndex.covers(promotionDTO.getStarts_at(), promotionDTO.getEnds_at(), LocalDateTime.now());
+        boolean repriced = existingPromotion.getPercentage() != promotionDTO.getPercentage() || existingPromotion.isActive() != active;
         existingPromotion.setName(promotionDTO.getName());
         existingPromotion.setDescription(promotionDTO.getDescription());
         existingPromotion.setPercentage(promotionDTO.getPercentage());
+        existingPromotion.setStarts_at(promotionDTO.getStarts_at());
+        existingPromotion.setEnds_at(promotionDTO.getEnds_at());
+        existingPromotion.setActive(active);
+        promotionValidator.validatePromotion(existingPromotion);
 
         Promotion updatedPromotion = (Promotion) promotionRepository.save(existingPromotion);
+        promotionWindowIndex.put(PromotionMapper.toPromotionWindowDTO(updatedPromotion));
         LOGGER.debug(PromotionLogger.PROMOTION_UPDATED, updatedPromotion.getId_promotion());
+        if (repriced) {
+            promotionPricingEngine.reprice(updatedPromotion);
+        }
+        if (repriced && updatedPromotion.getProducts() != null && !updatedPromotion.getProducts().isEmpty()) {
+            eventPublisher.publishEvent(new ProductCatalogChangedEvent(updatedPromotion.getProducts().stream()
+                    .map(Product::getId_product)
+                    .collect(Collectors.toList())));
+        }
 
         return PromotionMapper.toPromotionDTO(updatedPromotion);
     }
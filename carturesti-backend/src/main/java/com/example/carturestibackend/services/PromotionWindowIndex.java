@@ -0,0 +1,222 @@
+package com.example.carturestibackend.services;
+
+import com.example.carturestibackend.dtos.PromotionWindowDTO;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index of the promotion validity windows.
+ * Price reads resolve whether a promotion applies at a given time from the window map, without
+ * touching the database. The window start and end points are also kept in a sorted map, so that
+ * PromotionScheduler finds the promotions crossing a boundary since its previous sweep with a
+ * single range lookup instead of polling every promotion.
+ * Changes made inside a transaction are applied once it commits, the way catalog events are delivered.
+ */
+@Component
+public class PromotionWindowIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, PromotionWindowDTO> windows = new HashMap<>();
+    private final TreeMap<LocalDateTime, Set<String>> boundaries = new TreeMap<>();
+    private volatile boolean ready;
+
+    /**
+     * Whether the window [start, end) contains the given time; null bounds are open.
+     */
+    public static boolean covers(LocalDateTime start, LocalDateTime end, LocalDateTime at) {
+        return (start == null || !at.isBefore(start)) && (end == null || at.isBefore(end));
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Replaces the whole index content.
+     *
+     * @param promotions The windows of all promotions.
+     */
+    public void rebuild(Collection<PromotionWindowDTO> promotions) {
+        lock.writeLock().lock();
+        try {
+            windows.clear();
+            boundaries.clear();
+            for (PromotionWindowDTO promotion : promotions) {
+                add(promotion);
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds or replaces the window of one promotion, once the current transaction commits.
+     */
+    public void put(PromotionWindowDTO promotion) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                removeBoundaries(windows.get(promotion.getId_promotion()));
+                add(promotion);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Drops the window of a deleted promotion, once the current transaction commits.
+     */
+    public void remove(String promotionId) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                removeBoundaries(windows.remove(promotionId));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Records the active flag persisted for the promotions by a sweep, once the current transaction commits.
+     */
+    public void markActive(Collection<String> promotionIds, boolean active) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                for (String promotionId : promotionIds) {
+                    PromotionWindowDTO window = windows.get(promotionId);
+                    if (window != null) {
+                        window.setActive(active);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Runs the change after the current transaction commits, and never if it rolls back, so that the
+     * index only reflects committed promotions; without a transaction the change runs at once.
+     */
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    private void add(PromotionWindowDTO promotion) {
+        windows.put(promotion.getId_promotion(), promotion);
+        if (promotion.getStarts_at() != null) {
+            boundaries.computeIfAbsent(promotion.getStarts_at(), at -> new HashSet<>()).add(promotion.getId_promotion());
+        }
+        if (promotion.getEnds_at() != null) {
+            boundaries.computeIfAbsent(promotion.getEnds_at(), at -> new HashSet<>()).add(promotion.getId_promotion());
+        }
+    }
+
+    private void removeBoundaries(PromotionWindowDTO promotion) {
+        if (promotion == null) {
+            return;
+        }
+        for (LocalDateTime at : new LocalDateTime[]{promotion.getStarts_at(), promotion.getEnds_at()}) {
+            Set<String> ids = at == null ? null : boundaries.get(at);
+            if (ids != null) {
+                ids.remove(promotion.getId_promotion());
+                if (ids.isEmpty()) {
+                    boundaries.remove(at);
+                }
+            }
+        }
+    }
+
+    /**
+     * Promotions whose active flag no longer matches their window: those whose start or end falls
+     * in (from, to] and whose window does not agree with their flag at {@code to}.
+     *
+     * @param from The time of the previous sweep, or null to consider every boundary up to {@code to}.
+     * @param to   The time of this sweep.
+     * @return Copies of the windows to activate (active false) or expire (active true).
+     */
+    public List<PromotionWindowDTO> transitions(LocalDateTime from, LocalDateTime to) {
+        lock.readLock().lock();
+        try {
+            NavigableMap<LocalDateTime, Set<String>> crossed = from == null
+                    ? boundaries.headMap(to, true)
+                    : boundaries.subMap(from, false, to, true);
+            Set<String> candidates = new LinkedHashSet<>();
+            crossed.values().forEach(candidates::addAll);
+            if (from == null) {
+                // Windows without boundaries never cross one but may still be out of date.
+                windows.values().stream()
+                        .filter(window -> window.getStarts_at() == null && window.getEnds_at() == null)
+                        .forEach(window -> candidates.add(window.getId_promotion()));
+            }
+            List<PromotionWindowDTO> due = new ArrayList<>();
+            for (String promotionId : candidates) {
+                PromotionWindowDTO window = windows.get(promotionId);
+                if (window.isActive() != covers(window.getStarts_at(), window.getEnds_at(), to)) {
+                    due.add(new PromotionWindowDTO(window.getId_promotion(), window.getPercentage(),
+                            window.getStarts_at(), window.getEnds_at(), window.isActive()));
+                }
+            }
+            return due;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The unit price a customer pays for a product at the given time.
+     * Falls back to the stored promotional price while the index is not loaded or does not know
+     * the promotion.
+     *
+     * @param price          The regular price of the product.
+     * @param promotionPrice The stored promotional price of the product, 0 when there is none.
+     * @param promotionId    The ID of the product's promotion, or null.
+     * @param at             The time of the purchase.
+     * @return The promotional price while the promotion's window contains {@code at}, the regular price otherwise.
+     */
+    public double effectivePrice(double price, double promotionPrice, String promotionId, LocalDateTime at) {
+        if (promotionId == null) {
+            return price;
+        }
+        lock.readLock().lock();
+        try {
+            PromotionWindowDTO window = ready ? windows.get(promotionId) : null;
+            if (window == null) {
+                return promotionPrice > 0 ? Math.min(price, promotionPrice) : price;
+            }
+            return covers(window.getStarts_at(), window.getEnds_at(), at)
+                    ? price * PromotionPricingEngine.factor(window.getPercentage())
+                    : price;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package com.example.carturestibackend.services;
 
+import com.example.carturestibackend.catalog.CatalogCursor;
+import com.example.carturestibackend.catalog.InvalidCursorException;
+import com.example.carturestibackend.catalog.InvalidSortException;
+import com.example.carturestibackend.catalog.ProductCatalogChangedEvent;
 import com.example.carturestibackend.config.RabbitSender;
 import com.example.carturestibackend.constants.ReviewLogger;
 import com.example.carturestibackend.dtos.NotificationRequestDTO;
 import com.example.carturestibackend.dtos.ReviewDTO;
+import com.example.carturestibackend.dtos.ReviewPageDTO;
 import com.example.carturestibackend.dtos.mappers.ReviewMapper;
 import com.example.carturestibackend.entities.Product;
 import com.example.carturestibackend.entities.Review;
@@ -13,12 +18,20 @@ import com.example.carturestibackend.repositories.ProductRepository;
 import com.example.carturestibackend.repositories.UserRepository;
 import com.example.carturestibackend.validators.ReviewValidator;
 import jakarta.transaction.Transactional;
+import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.rest.webmvc.ResourceNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -30,6 +43,28 @@ import java.util.stream.Collectors;
 @Transactional
 public class ReviewService {
     private static final Logger LOGGER = LoggerFactory.getLogger(ReviewService.class);
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * The orders the review pages can be listed in, both descending.
+     */
+    public enum ReviewSort {
+        RECENT, RATING;
+
+        /**
+         * @throws InvalidSortException if the name is not recent or rating.
+         */
+        public static ReviewSort fromName(String name) {
+            for (ReviewSort sort : values()) {
+                if (sort.name().equalsIgnoreCase(name)) {
+                    return sort;
+                }
+            }
+            throw new InvalidSortException("Unsupported review order: " + name);
+        }
+    }
+
     private final ReviewRepository reviewRepository;
     private final UserRepository userRepository;
     private final ProductRepository productRepository;
@@ -79,9 +114,120 @@ public class ReviewService {
         return ReviewMapper.toReviewDTO(reviewOptional.get());
     }
 
+    /**
+     * Retrieves one keyset page of all reviews, newest first.
+     *
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     * @param size   The maximum number of reviews on the page.
+     * @return A ReviewPageDTO holding the reviews and the cursor of the next page.
+     */
+    public ReviewPageDTO findReviewPage(String cursor, int size) {
+        CatalogCursor after = CatalogCursor.decode(cursor);
+        int pageSize = clampPageSize(size);
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        List<ReviewDTO> rows = after == null
+                ? reviewRepository.findPageByRecency(pageable)
+                : reviewRepository.findPageByRecencyAfter(createdAtOf(after), after.getId(), pageable);
+        return toPage(rows, pageSize, ReviewSort.RECENT);
+    }
+
+    /**
+     * Retrieves one keyset page of the reviews of a product.
+     *
+     * @param productId The ID of the product.
+     * @param sort      Newest first or highest rating first.
+     * @param cursor    The cursor returned with the previous page, or null for the first page.
+     * @param size      The maximum number of reviews on the page.
+     * @return A ReviewPageDTO holding the reviews and the cursor of the next page.
+     */
+    public ReviewPageDTO findProductReviews(String productId, ReviewSort sort, String cursor, int size) {
+        CatalogCursor after = CatalogCursor.decode(cursor);
+        int pageSize = clampPageSize(size);
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        List<ReviewDTO> rows;
+        switch (sort) {
+            case RATING:
+                rows = after == null
+                        ? reviewRepository.findProductPageByRating(productId, pageable)
+                        : reviewRepository.findProductPageByRatingAfter(productId, ratingOf(after), after.getId(), pageable);
+                break;
+            default:
+                rows = after == null
+                        ? reviewRepository.findProductPageByRecency(productId, pageable)
+                        : reviewRepository.findProductPageByRecencyAfter(productId, createdAtOf(after), after.getId(), pageable);
+        }
+        return toPage(rows, pageSize, sort);
+    }
+
+    /**
+     * Retrieves one keyset page of the reviews written by a user.
+     *
+     * @param userId The ID of the user.
+     * @param sort   Newest first or highest rating first.
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     * @param size   The maximum number of reviews on the page.
+     * @return A ReviewPageDTO holding the reviews and the cursor of the next page.
+     */
+    public ReviewPageDTO findUserReviews(String userId, ReviewSort sort, String cursor, int size) {
+        CatalogCursor after = CatalogCursor.decode(cursor);
+        int pageSize = clampPageSize(size);
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        List<ReviewDTO> rows;
+        switch (sort) {
+            case RATING:
+                rows = after == null
+                        ? reviewRepository.findUserPageByRating(userId, pageable)
+                        : reviewRepository.findUserPageByRatingAfter(userId, ratingOf(after), after.getId(), pageable);
+                break;
+            default:
+                rows = after == null
+                        ? reviewRepository.findUserPageByRecency(userId, pageable)
+                        : reviewRepository.findUserPageByRecencyAfter(userId, createdAtOf(after), after.getId(), pageable);
+        }
+        return toPage(rows, pageSize, sort);
+    }
+
+    private static int clampPageSize(int size) {
+        if (size <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    private static int ratingOf(CatalogCursor cursor) {
+        return (int) cursor.sortValueAsDouble();
+    }
+
+    private static LocalDateTime createdAtOf(CatalogCursor cursor) {
+        try {
+            return LocalDateTime.parse(cursor.getSortValue());
+        } catch (DateTimeParseException e) {
+            throw new InvalidCursorException("Invalid review cursor");
+        }
+    }
+
+    /**
+     * Cuts the extra row fetched to find out whether another page follows.
+     */
+    private static ReviewPageDTO toPage(List<ReviewDTO> rows, int pageSize, ReviewSort sort) {
+        if (rows.size() <= pageSize) {
+            return new ReviewPageDTO(Collections.unmodifiableList(rows), null);
+        }
+        List<ReviewDTO> page = Collections.unmodifiableList(new ArrayList<>(rows.subList(0, pageSize)));
+        ReviewDTO last = page.get(pageSize - 1);
+        String sortValue = sort == ReviewSort.RATING ? String.valueOf(last.getRating()) : String.valueOf(last.getCreated_at());
+        return new ReviewPageDTO(page, new CatalogCursor(sortValue, last.getId()).encode());
+    }
+
     @Autowired
     private RabbitSender rabbitSender;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ProductRatingService productRatingService;
+
     public String buildEmailMessage(User user, String productName, ReviewDTO reviewDTO) {
         StringBuilder body = new StringBuilder();
         body.append("Hello, ").append(user.getName()).append(",<br><br>")
@@ -104,9 +250,12 @@ public class ReviewService {
      */
     public String insert(ReviewDTO reviewDTO) {
         Review review = ReviewMapper.fromReviewDTO(reviewDTO);
+        review.setCreated_at(LocalDateTime.now());
         ReviewValidator.validateReview(review);
         review = reviewRepository.save(review);
         LOGGER.debug(ReviewLogger.REVIEW_INSERTED, review.getId());
+        productRatingService.addReview(reviewDTO.getId_product(), review.getRating());
+        eventPublisher.publishEvent(ProductCatalogChangedEvent.of(reviewDTO.getId_product()));
 
         Optional<User> userOptional = userRepository.findById(reviewDTO.getId_user());
         if (userOptional.isPresent()) {
@@ -121,7 +270,7 @@ public class ReviewService {
             notificationRequestDTO.setEmail(user.getEmail()); // Set email based on user details
             rabbitSender.send(notificationRequestDTO);
 
-            LOGGER.debug("Email sent successfully to: {}", user.getEmail());
+            LOGGER.debug("Email queued for: {}", user.getEmail());
         } else {
             // Handle case where user is not found
             LOGGER.error("User not found with ID: {}", reviewDTO.getId_user());
@@ -150,12 +299,16 @@ public class ReviewService {
             }
 
             Product product = review.getProduct();
-            if (product != null) {
+            if (product != null && Hibernate.isInitialized(product.getReviews())) {
                 product.getReviews().remove(review);
             }
 
             reviewRepository.deleteById(id); // Delete the review
             LOGGER.debug(ReviewLogger.REVIEW_DELETED, id);
+            if (product != null) {
+                productRatingService.removeReview(product.getId_product(), review.getRating());
+                eventPublisher.publishEvent(ProductCatalogChangedEvent.of(product.getId_product()));
+            }
         } else {
             LOGGER.error(ReviewLogger.REVIEW_NOT_FOUND_BY_ID, id);
             throw new ResourceNotFoundException(Review.class.getSimpleName() + " with id: " + id);
@@ -179,10 +332,17 @@ public class ReviewService {
             throw new ResourceNotFoundException(Review.class.getSimpleName() + " with id: " + id);
         }
         Review existingReview = reviewOptional.get();
+        int previousRating = existingReview.getRating();
         existingReview.setRating(reviewDTO.getRating());
         existingReview.setComment(reviewDTO.getComment());
+        ReviewValidator.validateReview(existingReview);
         Review updatedReview = reviewRepository.save(existingReview);
         LOGGER.debug(ReviewLogger.REVIEW_UPDATED, updatedReview.getId());
+        Product product = updatedReview.getProduct();
+        if (product != null && previousRating != updatedReview.getRating()) {
+            productRatingService.changeReview(product.getId_product(), previousRating, updatedReview.getRating());
+            eventPublisher.publishEvent(ProductCatalogChangedEvent.of(product.getId_product()));
+        }
         return ReviewMapper.toReviewDTO(updatedReview);
     }
 }
\ No newline at end of file
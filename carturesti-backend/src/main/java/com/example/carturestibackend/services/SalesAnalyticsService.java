@@ -0,0 +1,152 @@
+package com.example.carturestibackend.services;
+
+import com.example.carturestibackend.dtos.SalesDashboardDTO;
+import com.example.carturestibackend.entities.Order;
+import com.example.carturestibackend.entities.Product;
+import com.example.carturestibackend.entities.SalesDelta;
+import com.example.carturestibackend.repositories.SalesSummaryRepository;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the sales read model behind the admin dashboard: pre-aggregated counters per order date,
+ * product, author and category, so the dashboard reads a handful of small rows whatever the
+ * number of orders. OrderService adds an order when it is placed and takes it back out when it is
+ * deleted, in the same transaction, by inserting SalesDelta rows; {@link #fold()} moves them into
+ * the counters in the background, so concurrent checkouts never contend for a counter row.
+ * An order contributes exactly what a {@link #rebuild()} would count for it: its units per product,
+ * its total price and its order date. The units of a product are its Order.quantities entry, or one
+ * per entry in the product list when it has none.
+ */
+@Service
+public class SalesAnalyticsService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SalesAnalyticsService.class);
+
+    private final SalesSummaryRepository salesSummaryRepository;
+
+    /**
+     * Constructs a new SalesAnalyticsService.
+     *
+     * @param salesSummaryRepository The repository holding the summary tables.
+     */
+    @Autowired
+    public SalesAnalyticsService(SalesSummaryRepository salesSummaryRepository) {
+        this.salesSummaryRepository = salesSummaryRepository;
+    }
+
+    /**
+     * Adds a saved order to the counters; orders that are not placed or have no products are ignored.
+     *
+     * @param order The order.
+     */
+    public void record(Order order) {
+        apply(order, 1);
+    }
+
+    /**
+     * Takes an order added by {@link #record(Order)} back out of the counters, before it is deleted.
+     *
+     * @param order The order.
+     */
+    public void retract(Order order) {
+        apply(order, -1);
+    }
+
+    private void apply(Order order, int sign) {
+        if (!counts(order)) {
+            return;
+        }
+        Map<String, Long> quantities = order.getQuantities() != null ? order.getQuantities() : Map.of();
+        Map<String, SalesDelta> lines = new LinkedHashMap<>();
+        for (Product product : order.getProducts()) {
+            Long quantity = quantities.get(product.getId_product());
+            SalesDelta line = lines.get(product.getId_product());
+            if (line != null && quantity != null) {
+                continue;
+            }
+            if (line == null) {
+                line = SalesDelta.builder()
+                        .sale_date(order.getOrder_date())
+                        .id_product(product.getId_product())
+                        .author(product.getAuthor())
+                        .id_category(product.getCategory() != null ? product.getCategory().getId_category() : null)
+                        .build();
+                lines.put(product.getId_product(), line);
+            }
+            line.setUnits(line.getUnits() + sign * (quantity != null ? quantity : 1));
+        }
+        SalesDelta first = lines.values().iterator().next();
+        first.setOrders(sign);
+        first.setRevenue(sign * order.getTotal_price());
+        salesSummaryRepository.insertDeltas(new ArrayList<>(lines.values()));
+    }
+
+    /**
+     * Adds the deltas of the orders committed so far to the counters.
+     */
+    @Scheduled(fixedDelayString = "${sales.fold.delay-ms:5000}")
+    public void fold() {
+        try {
+            salesSummaryRepository.fold();
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to fold the sales deltas, retrying on the next fold: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return Whether the order is placed, or from before order statuses, and has products.
+     */
+    static boolean counts(Order order) {
+        return (order.getStatus() == null || Order.PLACED.equals(order.getStatus()))
+                && order.getProducts() != null && !order.getProducts().isEmpty();
+    }
+
+    /**
+     * Recomputes the read model from all orders, for instance after it was introduced or after orders
+     * were changed outside OrderService. The aggregations run in the database, which can spread them
+     * over parallel workers.
+     */
+    @Transactional
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        salesSummaryRepository.rebuild();
+        LOGGER.info("Sales read model rebuilt in {} ms", System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Retrieves the dashboard figures.
+     *
+     * @param from  The first order date of the revenue per day, inclusive.
+     * @param to    The last order date of the revenue per day, inclusive.
+     * @param limit The number of products, authors and categories ranked.
+     * @return The SalesDashboardDTO object holding the figures.
+     * @throws IllegalArgumentException if the range is empty or the limit is not positive.
+     */
+    public SalesDashboardDTO getDashboard(LocalDate from, LocalDate to, int limit) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("The start date " + from + " is after the end date " + to);
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("The limit must be greater than 0");
+        }
+        // Folds first, so that the dashboard includes the orders committed so far.
+        fold();
+        return SalesDashboardDTO.builder()
+                .revenue_per_day(salesSummaryRepository.findDays(from, to))
+                .top_products(salesSummaryRepository.findTopProducts(limit))
+                .top_authors(salesSummaryRepository.findTopAuthors(limit))
+                .top_categories(salesSummaryRepository.findTopCategories(limit))
+                .average_order_value(salesSummaryRepository.findAverageOrderValue())
+                .build();
+    }
+}
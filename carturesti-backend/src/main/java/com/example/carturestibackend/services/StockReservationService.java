@@ -0,0 +1,162 @@
+package com.example.carturestibackend.services;
+
+import com.example.carturestibackend.repositories.ProductStockRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Reserves product stock with conditional UPDATEs, so that stock never goes negative however many
+ * checkouts race for the same product.
+ * All products of an order are decremented in one batch, in product ID order so that concurrent
+ * reservations lock rows in the same order, and either all of them succeed or none does.
+ * The updates run in the checkout's own transaction, so that a checkout never needs a second pooled
+ * connection, and rolling that transaction back restores the rows.
+ * Products in flash-sale mode are reserved from their FlashSaleInventory shards instead of their rows.
+ */
+@Service
+public class StockReservationService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StockReservationService.class);
+
+    private final ProductStockRepository productStockRepository;
+    private final FlashSaleInventory flashSaleInventory;
+    private final TransactionTemplate releaseTransaction;
+
+    /**
+     * Constructs a new StockReservationService.
+     *
+     * @param productStockRepository The repository running the conditional stock updates.
+     * @param flashSaleInventory     Reserves the products on flash sale from their shards.
+     * @param transactionManager     Runs the release of a failed reservation in its own transaction.
+     */
+    @Autowired
+    public StockReservationService(ProductStockRepository productStockRepository, FlashSaleInventory flashSaleInventory, PlatformTransactionManager transactionManager) {
+        this.productStockRepository = productStockRepository;
+        this.flashSaleInventory = flashSaleInventory;
+        this.releaseTransaction = new TransactionTemplate(transactionManager);
+        this.releaseTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Reserves the quantities in the caller's transaction, which must roll back when this throws.
+     * The rows stay locked until that transaction ends and are restored by its rollback; the units
+     * taken from flash-sale shards are given back after the rollback. Transient failures abort the
+     * caller's transaction, so they are not retried here.
+     *
+     * @param quantities The quantity to reserve, by product ID.
+     * @throws IllegalArgumentException if a product does not have enough stock.
+     * @throws IllegalStateException if there is no transaction to join.
+     */
+    public void reserveForCurrentTransaction(Map<String, Long> quantities) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Stock can only be reserved for an active transaction");
+        }
+        Map<String, Long> fromShards = flashSaleInventory.reserve(quantities);
+        SortedMap<String, Long> fromRows = withoutProducts(quantities, fromShards);
+        try {
+            decrementRows(fromRows);
+        } catch (RuntimeException e) {
+            release(fromShards);
+            throw e;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    // The rollback restored the rows; only their flash-sale counters are in memory.
+                    fromRows.forEach(flashSaleInventory::mirror);
+                    release(fromShards);
+                }
+            }
+        });
+    }
+
+    /**
+     * Runs the conditional updates in the current transaction; the caller rolls it back when this throws.
+     */
+    private void decrementRows(SortedMap<String, Long> ordered) {
+        if (ordered.isEmpty()) {
+            return;
+        }
+        int[] updated = productStockRepository.reserveStock(ordered);
+        Iterator<String> productIds = ordered.keySet().iterator();
+        for (int count : updated) {
+            String productId = productIds.next();
+            if (count == 0) {
+                throw new IllegalArgumentException("Insufficient stock for product: " + productId);
+            }
+        }
+        // A product whose flash sale started meanwhile keeps its shards in step with the row.
+        List<String> mirrored = new ArrayList<>();
+        for (Map.Entry<String, Long> line : ordered.entrySet()) {
+            if (!flashSaleInventory.mirror(line.getKey(), -line.getValue())) {
+                mirrored.forEach(productId -> flashSaleInventory.mirror(productId, ordered.get(productId)));
+                throw new IllegalArgumentException("Insufficient stock for product: " + line.getKey());
+            }
+            mirrored.add(line.getKey());
+        }
+    }
+
+    /**
+     * Gives back, in the caller's transaction, stock taken by an order that is being deleted.
+     * The units go back to the product rows; the counters of the products on flash sale get them
+     * once the transaction commits.
+     *
+     * @param quantities The quantity to give back, by product ID.
+     * @throws IllegalStateException if there is no transaction to join.
+     */
+    public void releaseForCurrentTransaction(Map<String, Long> quantities) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Stock can only be released for an active transaction");
+        }
+        SortedMap<String, Long> ordered = new TreeMap<>(quantities);
+        if (ordered.isEmpty()) {
+            return;
+        }
+        productStockRepository.releaseStock(ordered);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                ordered.forEach(flashSaleInventory::mirror);
+            }
+        });
+        LOGGER.info("Released stock of {} products", ordered.size());
+    }
+
+    /**
+     * Gives back the quantities reserved from flash-sale shards by a failed reservation.
+     *
+     * @param fromShards The quantities reserved from flash-sale shards.
+     */
+    private void release(Map<String, Long> fromShards) {
+        SortedMap<String, Long> ordered = new TreeMap<>(flashSaleInventory.release(fromShards));
+        if (!ordered.isEmpty()) {
+            releaseTransaction.executeWithoutResult(status -> {
+                productStockRepository.releaseStock(ordered);
+                ordered.forEach(flashSaleInventory::mirror);
+            });
+        }
+        LOGGER.info("Released stock of {} products", fromShards.size());
+    }
+
+    private static SortedMap<String, Long> withoutProducts(Map<String, Long> quantities, Map<String, Long> excluded) {
+        SortedMap<String, Long> remaining = new TreeMap<>(quantities);
+        remaining.keySet().removeAll(excluded.keySet());
+        return remaining;
+    }
+
+}
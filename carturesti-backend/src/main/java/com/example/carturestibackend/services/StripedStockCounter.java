@@ -0,0 +1,127 @@
+package com.example.carturestibackend.services;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Available stock of one product split into per-shard quotas, plus per-shard counts of the units
+ * sold since the last flush. A thread reserves from its home shard and only moves on to the other
+ * shards once its own quota is exhausted, so concurrent checkouts mostly update different cache
+ * lines with plain compare-and-set instead of contending for one lock.
+ */
+final class StripedStockCounter {
+
+    /**
+     * Longs per shard: the two counters sit at the start of a 128 byte stride, so that no two shards
+     * share a cache line.
+     */
+    private static final int STRIDE = 16;
+    private static final int QUOTA = 0;
+    private static final int SOLD = 1;
+
+    private final AtomicLongArray cells;
+    private final int mask;
+
+    /**
+     * @param stock  The stock to spread over the shards.
+     * @param shards The number of shards, a power of two.
+     */
+    StripedStockCounter(long stock, int shards) {
+        this.cells = new AtomicLongArray(shards * STRIDE);
+        this.mask = shards - 1;
+        for (int shard = 0; shard < shards; shard++) {
+            cells.set(shard * STRIDE + QUOTA, stock / shards + (shard < stock % shards ? 1 : 0));
+        }
+    }
+
+    private int home() {
+        return (int) Thread.currentThread().getId() & mask;
+    }
+
+    /**
+     * Takes the quantity from the quotas, starting at the calling thread's home shard.
+     *
+     * @param sold True to count the units as sold (reserved from the shards), false when the units
+     *             were already taken off the product row and only the quota must follow.
+     * @return false, leaving the quotas unchanged, when fewer units are available.
+     */
+    boolean tryTake(long quantity, boolean sold) {
+        int home = home();
+        long taken = 0;
+        for (int i = 0; i <= mask && taken < quantity; i++) {
+            taken += take(((home + i) & mask) * STRIDE + QUOTA, quantity - taken);
+        }
+        if (taken < quantity) {
+            cells.getAndAdd(home * STRIDE + QUOTA, taken);
+            return false;
+        }
+        if (sold) {
+            cells.getAndAdd(home * STRIDE + SOLD, quantity);
+        }
+        return true;
+    }
+
+    private long take(int cell, long wanted) {
+        while (true) {
+            long quota = cells.get(cell);
+            if (quota <= 0) {
+                return 0;
+            }
+            long taken = Math.min(quota, wanted);
+            if (cells.compareAndSet(cell, quota, quota - taken)) {
+                return taken;
+            }
+        }
+    }
+
+    /**
+     * Gives units back to the calling thread's home shard.
+     *
+     * @param sold True when the units had been counted as sold by {@link #tryTake(long, boolean)}.
+     */
+    void give(long quantity, boolean sold) {
+        int home = home();
+        cells.getAndAdd(home * STRIDE + QUOTA, quantity);
+        if (sold) {
+            cells.getAndAdd(home * STRIDE + SOLD, -quantity);
+        }
+    }
+
+    long available() {
+        long available = 0;
+        for (int shard = 0; shard <= mask; shard++) {
+            available += cells.get(shard * STRIDE + QUOTA);
+        }
+        return available;
+    }
+
+    long unflushed() {
+        long sold = 0;
+        for (int shard = 0; shard <= mask; shard++) {
+            sold += cells.get(shard * STRIDE + SOLD);
+        }
+        return sold;
+    }
+
+    /**
+     * Resets the sold counts, returning their sum; each shard is swapped atomically so that no
+     * concurrent sale is lost.
+     */
+    long drainSold() {
+        long sold = 0;
+        for (int shard = 0; shard <= mask; shard++) {
+            sold += cells.getAndSet(shard * STRIDE + SOLD, 0);
+        }
+        return sold;
+    }
+
+    /**
+     * Puts back sold counts that could not be flushed.
+     */
+    void restoreSold(long sold) {
+        cells.getAndAdd(home() * STRIDE + SOLD, sold);
+    }
+
+    int shards() {
+        return mask + 1;
+    }
+}
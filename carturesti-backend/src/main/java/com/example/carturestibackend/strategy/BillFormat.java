@@ -0,0 +1,48 @@
+package com.example.carturestibackend.strategy;
+
+/**
+ * The formats a bill can be generated in, with their file extension and strategy. The strategies
+ * keep no state between bills, so each format shares one instance across all threads.
+ */
+public enum BillFormat {
+
+    PDF("pdf", "application/pdf", new PdfFileGenerationStrategy()),
+    TXT("txt", "text/plain;charset=UTF-8", new TxtFileGenerationStrategy()),
+    CSV("csv", "text/csv;charset=UTF-8", new CsvFileGenerationStrategy());
+
+    private final String extension;
+    private final String contentType;
+    private final FileGenerationStrategy strategy;
+
+    BillFormat(String extension, String contentType, FileGenerationStrategy strategy) {
+        this.extension = extension;
+        this.contentType = contentType;
+        this.strategy = strategy;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the extension is not one of pdf, txt or csv.
+     */
+    public static BillFormat fromExtension(String extension) {
+        for (BillFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(extension)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported bill format: " + extension);
+    }
+
+    public FileGenerator newFileGenerator() {
+        FileGenerator fileGenerator = new FileGenerator();
+        fileGenerator.setStrategy(strategy);
+        return fileGenerator;
+    }
+}
@@ -1,24 +1,43 @@
 package com.example.carturestibackend.strategy;
 
+import com.example.carturestibackend.entities.Order;
+import com.example.carturestibackend.entities.Product;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import java.io.FileWriter;
+
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 
 public class CsvFileGenerationStrategy implements FileGenerationStrategy {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(CsvFileGenerationStrategy.class);
 
     @Override
-    public String generateFile(String data) {
-        try (FileWriter writer = new FileWriter("bill.csv")) {
-            writer.write(data);
-            LOGGER.info("CSV file generated successfully!");
-            return "bill.csv"; // Return the file path
-        } catch (IOException e) {
-            LOGGER.error("Error at generating CSV file: {}", e.getMessage());
-            return null;
+    public void generateFile(Order order, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.append("Bill\n")
+                .append("\n")
+                .append("Order ID: ").append(order.getId_order()).append("\n")
+                .append("Order Date: ").append(String.valueOf(order.getOrder_date())).append("\n")
+                .append("\n")
+                .append("Customer Details:\n")
+                .append("\tName: ").append(order.getUser().getName()).append("\n")
+                .append("\tAddress: ").append(order.getUser().getAddress()).append("\n")
+                .append("\tEmail: ").append(order.getUser().getEmail()).append("\n")
+                .append("\n")
+                .append("Products:\n");
+
+        for (Product product : order.getProducts()) {
+            writer.append(" - ").append(product.getName()).append(": ").append(product.getAuthor()).append("\n");
         }
+
+        writer.append("\n")
+                .append("Total Price: ").append(String.valueOf(order.getTotal_price())).append("\n");
+        writer.flush();
+        LOGGER.debug("CSV bill generated for order {}", order.getId_order());
     }
 }
-
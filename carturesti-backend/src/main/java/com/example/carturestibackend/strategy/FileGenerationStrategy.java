@@ -1,5 +1,15 @@
 package com.example.carturestibackend.strategy;
 
+import com.example.carturestibackend.entities.Order;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
 public interface FileGenerationStrategy {
-    String generateFile(String formattedOrder);
+
+    /**
+     * Writes the bill of the order to the stream as it is formatted, without building it in memory
+     * first. The stream is flushed but not closed.
+     */
+    void generateFile(Order order, OutputStream out) throws IOException;
 }
@@ -1,51 +1,99 @@
 package com.example.carturestibackend.strategy;
 
+import com.example.carturestibackend.entities.Order;
+import com.example.carturestibackend.entities.Product;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDFont;
 import org.apache.pdfbox.pdmodel.font.PDType1Font;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Paths;
+import java.io.OutputStream;
 
 public class PdfFileGenerationStrategy implements FileGenerationStrategy {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(PdfFileGenerationStrategy.class);
+    private static final String SEPARATOR = "----------------------------------------------------------------------";
+    private static final float TOP = 700;
+    private static final float BOTTOM = 50;
+    private static final float LEADING = 12;
+    /**
+     * A standard font: its metrics are loaded once per JVM and shared by every bill, and it is not
+     * embedded, so documents on different threads can use it at the same time.
+     */
+    private static final PDFont FONT = PDType1Font.HELVETICA;
 
     @Override
-    public String generateFile(String data) {
-        String fileName = "bill.pdf"; // Numele fișierului PDF
-        String filePath = Paths.get("").toAbsolutePath().toString() + File.separator + fileName; // Calea absolută către fișierul PDF
+    public void generateFile(Order order, OutputStream out) throws IOException {
         try (PDDocument document = new PDDocument()) {
-            PDPage page = new PDPage();
-            document.addPage(page);
+            try (Lines lines = new Lines(document)) {
+                lines.add("Bill").add(SEPARATOR).add("")
+                        .add("Order ID: " + order.getId_order())
+                        .add("Order Date: " + order.getOrder_date()).add("")
+                        .add(SEPARATOR).add("")
+                        .add("Customer Details:").add("")
+                        .add("Name: " + order.getUser().getName())
+                        .add("Address: " + order.getUser().getAddress())
+                        .add("Email: " + order.getUser().getEmail()).add("")
+                        .add(SEPARATOR).add("")
+                        .add("Products: ").add("");
+                for (Product product : order.getProducts()) {
+                    lines.add(" - " + product.getName() + ": " + product.getAuthor());
+                }
+                lines.add("")
+                        .add(SEPARATOR).add("")
+                        .add("Total Price: " + order.getTotal_price());
+            }
+            document.save(out);
+            LOGGER.debug("PDF bill generated for order {}", order.getId_order());
+        }
+    }
+
+    /**
+     * Writes one line after the other, starting a new page when the current one is full, so that
+     * orders with many products are not cut off.
+     */
+    private static final class Lines implements AutoCloseable {
 
-            PDPageContentStream contentStream = new PDPageContentStream(document, page);
-            contentStream.setFont(PDType1Font.HELVETICA, 12); // Folosește fontul Courier
+        private final PDDocument document;
+        private PDPageContentStream contentStream;
+        private float y;
 
-            String[] lines = data.split("<br/>");
-            float y = 700;
+        private Lines(PDDocument document) {
+            this.document = document;
+        }
 
-            for (String line : lines) {
+        private Lines add(String line) throws IOException {
+            if (contentStream == null || y < BOTTOM) {
+                newPage();
+            }
+            if (!line.isEmpty()) {
                 contentStream.beginText();
                 contentStream.newLineAtOffset(100, y);
                 contentStream.showText(line);
                 contentStream.endText();
-                y -= 12;
             }
+            y -= LEADING;
+            return this;
+        }
 
-            contentStream.close();
+        private void newPage() throws IOException {
+            close();
+            PDPage page = new PDPage();
+            document.addPage(page);
+            contentStream = new PDPageContentStream(document, page);
+            contentStream.setFont(FONT, 12);
+            y = TOP;
+        }
 
-            document.save(filePath);
-            LOGGER.info("PDF file generated successfully at: {}", filePath); // Afișează calea către fișierul PDF generat
-        } catch (IOException e) {
-            LOGGER.error("Error at generating PDF file: {}", e.getMessage());
-            // În caz de eroare, returnează null sau o altă valoare semnificativă, în funcție de necesități
-            filePath = null;
+        @Override
+        public void close() throws IOException {
+            if (contentStream != null) {
+                contentStream.close();
+            }
         }
-        return filePath; // Returnează calea către fișierul PDF generat
     }
 }
@@ -1,8 +1,11 @@
 package com.example.carturestibackend.strategy;
 
-import java.io.FileWriter;
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 
 import com.example.carturestibackend.entities.Order;
 import com.example.carturestibackend.entities.Product;
@@ -12,19 +15,31 @@ import org.slf4j.LoggerFactory;
 public class TxtFileGenerationStrategy implements FileGenerationStrategy {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TxtFileGenerationStrategy.class);
+    private static final String SEPARATOR = "-----------------------------------------------\n";
 
     @Override
-    public String generateFile(String data) {
-        try {
-            String fileName = "bill.txt";
-            PrintWriter writer = new PrintWriter(new FileWriter(fileName));
-            writer.println(data);
-            writer.close();
-            LOGGER.info("TXT file generated successfully: {}", fileName);
-            return fileName; // Return the file path
-        } catch (IOException e) {
-            LOGGER.error("Error at generating TXT file: {}", e.getMessage());
-            return null;
+    public void generateFile(Order order, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.append("Bill\n")
+                .append(SEPARATOR).append("\n")
+                .append("Order ID: ").append(order.getId_order()).append("\n")
+                .append("Order Date: ").append(String.valueOf(order.getOrder_date())).append("\n\n")
+                .append(SEPARATOR).append("\n")
+                .append("Customer Details:\n")
+                .append("\tName: ").append(order.getUser().getName()).append("\n")
+                .append("\tAddress: ").append(order.getUser().getAddress()).append("\n")
+                .append("\tEmail: ").append(order.getUser().getEmail()).append("\n\n")
+                .append(SEPARATOR).append("\n")
+                .append("Products:\n\n");
+
+        for (Product product : order.getProducts()) {
+            writer.append(" - ").append(product.getName()).append(": ").append(product.getAuthor()).append("\n");
         }
+        writer.append("\n")
+                .append(SEPARATOR)
+                .append("\n")
+                .append("Total Price: ").append(String.valueOf(order.getTotal_price())).append("\n\n");
+        writer.flush();
+        LOGGER.debug("TXT bill generated for order {}", order.getId_order());
     }
 }
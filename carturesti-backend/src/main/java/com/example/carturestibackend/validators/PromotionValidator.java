@@ -19,6 +19,11 @@ public class PromotionValidator {
             throw new IllegalArgumentException("Description cannot be empty");
         }
 
+        if (promotion.getStarts_at() != null && promotion.getEnds_at() != null
+                && !promotion.getEnds_at().isAfter(promotion.getStarts_at())) {
+            throw new IllegalArgumentException("End date must be after start date");
+        }
+
         return true;
     }
 }
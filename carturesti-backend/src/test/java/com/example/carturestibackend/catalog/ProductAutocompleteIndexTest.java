@@ -0,0 +1,49 @@
+package com.example.carturestibackend.catalog;
+
+import com.example.carturestibackend.dtos.ProductCatalogDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductAutocompleteIndexTest {
+
+    private ProductAutocompleteIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new ProductAutocompleteIndex();
+        index.rebuild(new ProductCatalogDTO[]{
+                product("p0", "Amintiri din copilărie", "Ion Creangă"),
+                product("p1", "Capra cu trei iezi", "Ion Creangă"),
+                product("p2", "Craii de Curtea-Veche", "Mateiu Caragiale")
+        });
+    }
+
+    private static ProductCatalogDTO product(String id, String name, String author) {
+        return new ProductCatalogDTO(id, name, 10, 10, "", author, 1, null, null);
+    }
+
+    @Test
+    public void testMostCommonCompletionComesFirst() {
+        assertEquals(List.of("Ion Creangă", "Craii de Curtea-Veche"), index.complete("cr", 10));
+        assertEquals(List.of("Ion Creangă"), index.complete("cr", 1));
+    }
+
+    @Test
+    public void testCompletesFromLaterWords() {
+        assertEquals(List.of("Craii de Curtea-Veche"), index.complete("veche", 10));
+        assertEquals(List.of("Mateiu Caragiale"), index.complete("CARAG", 10));
+    }
+
+    @Test
+    public void testUpdateAddsAndRemovesCompletions() {
+        index.update(2, product("p2", "Craii de Curtea-Veche", "Mateiu Caragiale"), null);
+        index.update(3, null, product("p3", "Crima și pedeapsa", "F. M. Dostoievski"));
+
+        assertEquals(List.of("Ion Creangă", "Crima și pedeapsa"), index.complete("cr", 10));
+        assertTrue(index.complete("mateiu", 10).isEmpty());
+    }
+}
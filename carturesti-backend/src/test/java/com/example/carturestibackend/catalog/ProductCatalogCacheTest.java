@@ -0,0 +1,66 @@
+package com.example.carturestibackend.catalog;
+
+import com.example.carturestibackend.dtos.CatalogCacheStatsDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductCatalogCacheTest {
+
+    private ProductCatalogCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    public void setUp() {
+        cache = new ProductCatalogCache(2);
+        loads = new AtomicInteger();
+    }
+
+    private String load(String value) {
+        loads.incrementAndGet();
+        return value;
+    }
+
+    @Test
+    public void testSecondReadIsServedFromCache() {
+        assertEquals("a", cache.get("catalog", () -> load("a")));
+        assertEquals("a", cache.get("catalog", () -> load("b")));
+
+        CatalogCacheStatsDTO stats = cache.getStats();
+        assertEquals(1, loads.get());
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntryIsEvicted() {
+        cache.get("catalog", () -> load("a"));
+        cache.get("sortname:asc", () -> load("b"));
+        cache.get("catalog", () -> load("a"));
+        cache.get("sortprice:asc", () -> load("c"));
+
+        cache.get("catalog", () -> load("a"));
+        cache.get("sortname:asc", () -> load("b"));
+
+        assertEquals(4, loads.get());
+        assertEquals(2, cache.getStats().getEvictions());
+    }
+
+    @Test
+    public void testChangeEventDropsListingsAndOnlyTheNamedProducts() {
+        cache.get(ProductCatalogCache.productKey("1"), () -> load("p1"));
+        cache.get("catalog", () -> load("all"));
+
+        cache.onCatalogChanged(ProductCatalogChangedEvent.of("2"));
+        cache.get(ProductCatalogCache.productKey("1"), () -> load("p1"));
+        assertEquals(2, loads.get());
+
+        cache.onCatalogChanged(new ProductCatalogChangedEvent(List.of("1")));
+        cache.get(ProductCatalogCache.productKey("1"), () -> load("p1"));
+        assertEquals(3, loads.get());
+    }
+}
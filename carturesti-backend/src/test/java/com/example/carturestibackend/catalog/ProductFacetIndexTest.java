@@ -0,0 +1,79 @@
+package com.example.carturestibackend.catalog;
+
+import com.example.carturestibackend.dtos.ProductCatalogDTO;
+import com.example.carturestibackend.dtos.ProductFilterDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductFacetIndexTest {
+
+    private ProductFacetIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new ProductFacetIndex();
+        index.rebuild(new ProductCatalogDTO[]{
+                product("p0", "Ion Creangă", 20, 1, "books", null),
+                product("p1", "Ion Creangă", 60, 0, "books", "promo"),
+                product("p2", "Mihai Eminescu", 30, 5, "poetry", null),
+                product("p3", "Mihai Eminescu", 120, 2, "books", null)
+        });
+    }
+
+    private static ProductCatalogDTO product(String id, String author, double price, long stock, String category, String promotion) {
+        double promotionPrice = promotion == null ? 0 : price / 2;
+        return new ProductCatalogDTO(id, id, price, promotionPrice, "", author, stock, category, promotion);
+    }
+
+    private static BitSet ordinals(int... ordinals) {
+        BitSet bitSet = new BitSet();
+        for (int ordinal : ordinals) {
+            bitSet.set(ordinal);
+        }
+        return bitSet;
+    }
+
+    @Test
+    public void testDimensionsAreIntersected() {
+        ProductFilterDTO filter = ProductFilterDTO.builder().categories(List.of("books")).inStock(true).build();
+
+        assertEquals(ordinals(0, 3), index.query(filter).getMatches());
+    }
+
+    @Test
+    public void testPriceRangeUsesEffectivePrice() {
+        ProductFilterDTO filter = ProductFilterDTO.builder().minPrice(25.0).maxPrice(50.0).build();
+
+        // p1 costs 60 but is on promotion for 30.
+        assertEquals(ordinals(1, 2), index.query(filter).getMatches());
+    }
+
+    @Test
+    public void testFacetCountsIgnoreTheirOwnDimension() {
+        ProductFilterDTO filter = ProductFilterDTO.builder().categories(List.of("poetry")).authors(List.of("ion creanga")).build();
+        ProductFacetIndex.FacetResult result = index.query(filter);
+
+        assertTrue(result.getMatches().isEmpty());
+        assertEquals(2L, result.getCategories().get("books"));
+        assertNull(result.getCategories().get("poetry"));
+        assertEquals(1L, result.getAuthors().get("Mihai Eminescu"));
+        assertEquals(0L, result.getOnPromotion());
+    }
+
+    @Test
+    public void testUpdateMovesProductBetweenBitmaps() {
+        index.update(2, product("p2", "Mihai Eminescu", 30, 5, "poetry", null), product("p2", "Mihai Eminescu", 30, 0, "books", null));
+        index.update(3, product("p3", "Mihai Eminescu", 120, 2, "books", null), null);
+
+        ProductFacetIndex.FacetResult result = index.query(new ProductFilterDTO());
+        assertEquals(ordinals(0, 1, 2), result.getMatches());
+        assertEquals(3L, result.getCategories().get("books"));
+        assertEquals(1L, result.getInStock());
+        assertEquals(0L, result.getPrices().get("200+"));
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.carturestibackend.catalog;
+
+import com.example.carturestibackend.dtos.ProductCatalogDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new ProductSearchIndex();
+        index.rebuild(new ProductCatalogDTO[]{
+                product("p0", "Amintiri din copilărie", "Ion Creangă", "Povești din Humulești"),
+                product("p1", "Povești", "Ion Creangă", "Capra cu trei iezi"),
+                product("p2", "Enigma Otiliei", "George Călinescu", "Roman despre copilărie")
+        });
+    }
+
+    private static ProductCatalogDTO product(String id, String name, String author, String description) {
+        return new ProductCatalogDTO(id, name, 10, 10, description, author, 1, null, null);
+    }
+
+    @Test
+    public void testSearchIgnoresDiacriticsAndCase() {
+        assertArrayEquals(new int[]{0, 1}, index.search("CREANGA"));
+    }
+
+    @Test
+    public void testNameMatchesRankAboveDescriptionMatches() {
+        assertArrayEquals(new int[]{0, 2}, index.search("copilarie"));
+        assertArrayEquals(new int[]{1, 0}, index.search("povesti"));
+    }
+
+    @Test
+    public void testLastTermMatchesAsPrefix() {
+        assertArrayEquals(new int[]{2}, index.search("enigma oti"));
+    }
+
+    @Test
+    public void testUpdateReplacesTermsOfChangedProduct() {
+        ProductCatalogDTO previous = product("p2", "Enigma Otiliei", "George Călinescu", "Roman despre copilărie");
+        index.update(2, previous, product("p2", "Bietul Ioanide", "George Călinescu", ""));
+        index.update(3, null, product("p3", "Enigma Otiliei", "George Călinescu", ""));
+
+        assertArrayEquals(new int[]{3}, index.search("otiliei"));
+        assertArrayEquals(new int[]{0}, index.search("copilarie"));
+    }
+}
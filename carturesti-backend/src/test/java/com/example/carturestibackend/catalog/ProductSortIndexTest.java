@@ -0,0 +1,77 @@
+package com.example.carturestibackend.catalog;
+
+import com.example.carturestibackend.dtos.ProductCatalogDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductSortIndexTest {
+
+    private ProductSortIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new ProductSortIndex();
+        index.rebuild(new ProductCatalogDTO[]{
+                product("p0", "Țiganiada", 40, null),
+                product("p1", "Zburătorul", 20, null),
+                product("p2", "Amintiri", 60, "promo"),
+                product("p3", "Șoimii", 20, null)
+        });
+    }
+
+    private static ProductCatalogDTO product(String id, String name, double price, String promotion) {
+        return new ProductCatalogDTO(id, name, price, promotion == null ? 0 : price / 4, "", "", 1, null, promotion);
+    }
+
+    @Test
+    public void testPricePagesFollowTheCursorInBothDirections() {
+        assertArrayEquals(new int[]{1, 3}, index.page(ProductSortIndex.SortKey.PRICE, true, null, 2));
+        assertArrayEquals(new int[]{0, 2}, index.page(ProductSortIndex.SortKey.PRICE, true, new CatalogCursor("20.0", "p3"), 2));
+        assertArrayEquals(new int[]{2, 0, 3}, index.page(ProductSortIndex.SortKey.PRICE, false, null, 3));
+        assertArrayEquals(new int[]{1}, index.page(ProductSortIndex.SortKey.PRICE, false, new CatalogCursor("20.0", "p3"), 3));
+    }
+
+    @Test
+    public void testEffectivePriceUsesPromotionalPrice() {
+        assertArrayEquals(new int[]{2, 1, 3, 0}, index.page(ProductSortIndex.SortKey.EFFECTIVE_PRICE, true, null, 10));
+    }
+
+    @Test
+    public void testNamesFollowRomanianCollation() {
+        // Ș sorts right after S and Ț right after T, both before Z.
+        assertArrayEquals(new int[]{2, 3, 0, 1}, index.page(ProductSortIndex.SortKey.NAME, true, null, 10));
+        assertArrayEquals(new int[]{0, 1}, index.page(ProductSortIndex.SortKey.NAME, true, new CatalogCursor("Șoimii", "p3"), 10));
+    }
+
+    @Test
+    public void testRatingsSortByAverageWithoutReviewsLast() {
+        index.rebuild(new ProductCatalogDTO[]{
+                rated("p0", 2, 9),
+                rated("p1", 0, 0),
+                rated("p2", 1, 5),
+                rated("p3", 2, 9)
+        });
+
+        assertArrayEquals(new int[]{2, 3, 0, 1}, index.page(ProductSortIndex.SortKey.RATING, false, null, 10));
+        assertArrayEquals(new int[]{0, 1}, index.page(ProductSortIndex.SortKey.RATING, false, new CatalogCursor("4.5", "p3"), 10));
+
+        index.update(1, rated("p1", 0, 0), rated("p1", 1, 5));
+        assertArrayEquals(new int[]{2, 1, 3, 0}, index.page(ProductSortIndex.SortKey.RATING, false, null, 10));
+    }
+
+    private static ProductCatalogDTO rated(String id, long reviews, long ratingSum) {
+        return new ProductCatalogDTO(id, id, 10, 0, "", "", 1, null, null, reviews, ratingSum);
+    }
+
+    @Test
+    public void testUpdateRepositionsProduct() {
+        index.update(1, product("p1", "Zburătorul", 20, null), product("p1", "Zburătorul", 100, null));
+        index.update(4, null, product("p4", "Baltagul", 10, null));
+        index.update(0, product("p0", "Țiganiada", 40, null), null);
+
+        assertArrayEquals(new int[]{4, 3, 2, 1}, index.page(ProductSortIndex.SortKey.PRICE, true, null, 10));
+        assertArrayEquals(new int[]{2, 4, 3, 1}, index.page(ProductSortIndex.SortKey.NAME, true, null, 10));
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.carturestibackend.catalog;
+
+import com.example.carturestibackend.dtos.ProductCatalogDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of typo correction over a synthetic catalog of 500,000 titles.
+ * Sample-time mode reports percentiles; the target is a p99 under 5 ms.
+ * Not part of the test suite; run {@link #main(String[])} after {@code mvn test-compile}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class ProductTrigramIndexBenchmark {
+
+    private static final int TITLES = 500_000;
+    private static final int AUTHORS = 20_000;
+    private static final String[] SYLLABLES = {
+            "a", "ba", "ca", "cea", "cu", "da", "de", "e", "ga", "ghe", "i", "le", "li", "lu", "ma", "mi",
+            "na", "ne", "nu", "o", "pa", "po", "ra", "re", "ri", "ro", "sa", "și", "ta", "te", "ți", "u", "va", "ve"
+    };
+
+    private ProductTrigramIndex index;
+    private List<String> misspelled;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void buildCatalog() {
+        Random random = new Random(42);
+        String[] authors = new String[AUTHORS];
+        for (int i = 0; i < AUTHORS; i++) {
+            authors[i] = capitalize(word(random, 2, 3)) + " " + capitalize(word(random, 3, 5));
+        }
+        ProductCatalogDTO[] products = new ProductCatalogDTO[TITLES];
+        for (int i = 0; i < TITLES; i++) {
+            StringBuilder name = new StringBuilder(capitalize(word(random, 2, 4)));
+            for (int words = 1 + random.nextInt(3); words > 0; words--) {
+                name.append(' ').append(word(random, 1, 4));
+            }
+            products[i] = new ProductCatalogDTO("p" + i, name.toString(), 10, 10, "", authors[random.nextInt(AUTHORS)], 1, null, null);
+        }
+        index = new ProductTrigramIndex();
+        index.rebuild(products);
+
+        misspelled = new ArrayList<>();
+        for (int i = 0; i < 1024; i++) {
+            String author = TextNormalizer.normalize(authors[random.nextInt(AUTHORS)]);
+            misspelled.add(typo(random, author));
+        }
+    }
+
+    @Benchmark
+    public String suggest() {
+        String query = misspelled.get(next++ & (misspelled.size() - 1));
+        return index.suggest(query);
+    }
+
+    private static String word(Random random, int minSyllables, int maxSyllables) {
+        StringBuilder word = new StringBuilder();
+        for (int s = minSyllables + random.nextInt(maxSyllables - minSyllables + 1); s > 0; s--) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return word.toString();
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+
+    /**
+     * Swaps two neighbouring letters of the last name, the most common typo.
+     */
+    private static String typo(Random random, String author) {
+        char[] chars = author.toCharArray();
+        int space = author.indexOf(' ');
+        int at = space + 1 + random.nextInt(chars.length - space - 2);
+        char swap = chars[at];
+        chars[at] = chars[at + 1];
+        chars[at + 1] = swap;
+        return new String(chars);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ProductTrigramIndexBenchmark.class.getSimpleName()).build()).run();
+    }
+}
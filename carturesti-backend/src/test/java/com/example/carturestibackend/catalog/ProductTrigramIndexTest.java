@@ -0,0 +1,58 @@
+package com.example.carturestibackend.catalog;
+
+import com.example.carturestibackend.dtos.ProductCatalogDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductTrigramIndexTest {
+
+    private ProductTrigramIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new ProductTrigramIndex();
+        index.rebuild(new ProductCatalogDTO[]{
+                product("p0", "Amintiri din copilărie", "Ion Creangă"),
+                product("p1", "Enigma Otiliei", "George Călinescu"),
+                product("p2", "Luceafărul", "Mihai Eminescu")
+        });
+    }
+
+    private static ProductCatalogDTO product(String id, String name, String author) {
+        return new ProductCatalogDTO(id, name, 10, 10, "", author, 1, null, null);
+    }
+
+    @Test
+    public void testMisspelledAuthorIsCorrected() {
+        assertEquals(List.of("eminescu"), index.similarWords("Eminesku", 5));
+        assertEquals(List.of("calinescu"), index.similarWords("Calinesu", 5));
+        assertEquals("ion creanga", index.suggest("ion creagna"));
+    }
+
+    @Test
+    public void testWordsBeyondTheDistanceBoundAreNotSuggested() {
+        assertTrue(index.similarWords("eminxxxu", 5).isEmpty());
+        assertTrue(index.similarWords("ion", 5).contains("ion"));
+        assertTrue(index.similarWords("ino", 5).isEmpty());
+        assertNull(index.suggest("mihai eminescu"));
+    }
+
+    @Test
+    public void testDistanceStopsEarlyPastTheBound() {
+        assertEquals(2, ProductTrigramIndex.distance("creanga", "crenaga", 2));
+        assertEquals(3, ProductTrigramIndex.distance("creanga", "otiliei", 2));
+    }
+
+    @Test
+    public void testUpdateForgetsRemovedWords() {
+        index.update(2, product("p2", "Luceafărul", "Mihai Eminescu"), null);
+        index.update(3, null, product("p3", "Maitreyi", "Mircea Eliade"));
+
+        assertTrue(index.similarWords("eminescu", 5).isEmpty());
+        assertEquals(List.of("eliade"), index.similarWords("eliadde", 5));
+    }
+}
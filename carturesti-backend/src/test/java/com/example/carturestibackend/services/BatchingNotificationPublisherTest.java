@@ -0,0 +1,170 @@
+package com.example.carturestibackend.services;
+
+import com.example.carturestibackend.config.NotificationTransport;
+import com.example.carturestibackend.dtos.NotificationPublisherStatsDTO;
+import com.example.carturestibackend.dtos.NotificationRequestDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchingNotificationPublisherTest {
+
+    /**
+     * In-process stand-in for the broker: keeps the delivered notifications and confirms every
+     * publication asynchronously, except those it is told to reject or to leave unconfirmed.
+     */
+    private static class InMemoryBroker implements NotificationTransport {
+
+        private final ScheduledExecutorService confirmer = Executors.newSingleThreadScheduledExecutor();
+        private final List<String> delivered = new ArrayList<>();
+        private final Map<String, Integer> rejectFirst = new ConcurrentHashMap<>();
+        private final Set<String> neverConfirm = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public CompletableFuture<Boolean> publish(String correlationId, NotificationRequestDTO payload) {
+            CompletableFuture<Boolean> confirm = new CompletableFuture<>();
+            String email = payload.getEmail();
+            if (neverConfirm.contains(email)) {
+                return confirm;
+            }
+            boolean ack = rejectFirst.merge(email, -1, Integer::sum) < 0;
+            if (ack) {
+                synchronized (delivered) {
+                    delivered.add(email);
+                }
+            }
+            confirmer.schedule(() -> confirm.complete(ack), 1, TimeUnit.MILLISECONDS);
+            return confirm;
+        }
+
+        List<String> delivered() {
+            synchronized (delivered) {
+                return new ArrayList<>(delivered);
+            }
+        }
+    }
+
+    private final InMemoryBroker broker = new InMemoryBroker();
+
+    @AfterEach
+    public void tearDown() {
+        broker.confirmer.shutdownNow();
+    }
+
+    private static NotificationRequestDTO notification(String email) {
+        NotificationRequestDTO notification = new NotificationRequestDTO();
+        notification.setEmail(email);
+        notification.setSubject("Order bill");
+        return notification;
+    }
+
+    @Test
+    public void testSubmit_PublishesOnceTheBatchIsFull() throws Exception {
+        BatchingNotificationPublisher publisher = new BatchingNotificationPublisher(broker, 3, 100, 3, 1000);
+
+        CompletableFuture<Void> first = publisher.submit("a", notification("a@x.ro"));
+        publisher.submit("b", notification("b@x.ro"));
+        assertTrue(broker.delivered().isEmpty());
+        assertEquals(2, publisher.getStats().getBuffered());
+
+        CompletableFuture<Void> third = publisher.submit("c", notification("c@x.ro"));
+        CompletableFuture.allOf(first, third).get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("a@x.ro", "b@x.ro", "c@x.ro"), broker.delivered());
+        NotificationPublisherStatsDTO stats = publisher.getStats();
+        assertEquals(3, stats.getConfirmed());
+        assertEquals(0, stats.getInFlight());
+        assertTrue(stats.getMaxConfirmLatencyMillis() > 0);
+    }
+
+    @Test
+    public void testTick_PublishesAPartialBatchAfterTheTimeLimit() throws Exception {
+        BatchingNotificationPublisher publisher = new BatchingNotificationPublisher(broker, 100, 100, 3, 1000);
+
+        CompletableFuture<Void> confirm = publisher.submit("a", notification("a@x.ro"));
+        publisher.tick();
+
+        confirm.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("a@x.ro"), broker.delivered());
+    }
+
+    @Test
+    public void testRejectedNotificationsAreRepublishedUntilTheyFail() throws Exception {
+        BatchingNotificationPublisher publisher = new BatchingNotificationPublisher(broker, 1, 100, 3, 1000);
+        broker.rejectFirst.put("retried@x.ro", 2);
+        broker.rejectFirst.put("lost@x.ro", 5);
+
+        CompletableFuture<Void> retried = publisher.submit("retried", notification("retried@x.ro"));
+        CompletableFuture<Void> lost = publisher.submit("lost", notification("lost@x.ro"));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!(retried.isDone() && lost.isDone()) && System.currentTimeMillis() < deadline) {
+            publisher.tick();
+            Thread.sleep(5);
+        }
+
+        retried.get(1, TimeUnit.SECONDS);
+        assertThrows(ExecutionException.class, () -> lost.get(1, TimeUnit.SECONDS));
+        assertEquals(List.of("retried@x.ro"), broker.delivered());
+        assertEquals(4, publisher.getStats().getRetried());
+        assertEquals(1, publisher.getStats().getFailed());
+    }
+
+    @Test
+    public void testUnconfirmedNotificationsAreRepublishedAfterTheTimeout() throws Exception {
+        BatchingNotificationPublisher publisher = new BatchingNotificationPublisher(broker, 1, 100, 2, 20);
+        broker.neverConfirm.add("a@x.ro");
+
+        CompletableFuture<Void> confirm = publisher.submit("a", notification("a@x.ro"));
+        assertEquals(1, publisher.getStats().getInFlight());
+        Thread.sleep(30);
+        publisher.tick();
+        assertEquals(1, publisher.getStats().getRetried());
+        Thread.sleep(30);
+        publisher.tick();
+
+        assertThrows(ExecutionException.class, () -> confirm.get(1, TimeUnit.SECONDS));
+        assertEquals(0, publisher.getStats().getInFlight());
+        assertEquals(2, publisher.getStats().getPublished());
+    }
+
+    @Test
+    public void testFlush_KeepsNotificationsBufferedBeyondTheInFlightLimit() {
+        BatchingNotificationPublisher publisher = new BatchingNotificationPublisher(broker, 100, 2, 3, 1000);
+        broker.neverConfirm.add("a@x.ro");
+
+        for (int i = 0; i < 5; i++) {
+            publisher.submit("a" + i, notification("a@x.ro"));
+        }
+        publisher.flush();
+
+        assertEquals(2, publisher.getStats().getInFlight());
+        assertEquals(3, publisher.getStats().getBuffered());
+    }
+
+    @Test
+    public void testSubmit_ReturnsThePendingConfirmForAKeyAlreadySubmitted() throws Exception {
+        BatchingNotificationPublisher publisher = new BatchingNotificationPublisher(broker, 100, 100, 3, 1000);
+
+        CompletableFuture<Void> first = publisher.submit("outbox-1", notification("a@x.ro"));
+        CompletableFuture<Void> again = publisher.submit("outbox-1", notification("a@x.ro"));
+        assertSame(first, again);
+        publisher.flush();
+        first.get(5, TimeUnit.SECONDS);
+
+        publisher.submit("outbox-1", notification("a@x.ro"));
+        publisher.flush();
+        assertEquals(2, publisher.getStats().getPublished());
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.carturestibackend.services;
+
+import com.example.carturestibackend.entities.Order;
+import com.example.carturestibackend.entities.User;
+import com.example.carturestibackend.repositories.OrderRepository;
+import com.example.carturestibackend.strategy.BillFormat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class BillExportServiceTest {
+
+    private static final LocalDate FROM = LocalDate.of(2024, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2024, 1, 31);
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    private ThreadPoolTaskExecutor executor;
+    private BillExportService billExportService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(1);
+        executor.initialize();
+        billExportService = new BillExportService(orderRepository, executor, 3, 4);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    private static Order order(String id) {
+        User user = new User();
+        user.setName("Ana");
+        Order order = new Order();
+        order.setId_order(id);
+        order.setOrder_date(FROM);
+        order.setUser(user);
+        order.setProducts(List.of());
+        return order;
+    }
+
+    @Test
+    public void testExportBills_WritesEveryPageInOrderIdOrder() throws Exception {
+        List<String> ids = new ArrayList<>();
+        for (int i = 10; i < 20; i++) {
+            ids.add("o" + i);
+        }
+        when(orderRepository.findIdsByOrderDateBetween(eq(FROM), eq(TO), any(String.class), any(Pageable.class))).thenAnswer(invocation -> {
+            String after = invocation.getArgument(2);
+            return ids.stream().filter(id -> id.compareTo(after) > 0).limit(4).toList();
+        });
+        when(orderRepository.findById(any(String.class))).thenAnswer(invocation -> Optional.of(order(invocation.getArgument(0))));
+        // Deleted after its ID was read.
+        when(orderRepository.findById("o13")).thenReturn(Optional.empty());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(9, billExportService.exportBills(FROM, TO, BillFormat.TXT, out));
+
+        List<String> entries = new ArrayList<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                entries.add(entry.getName());
+                String content = new String(zip.readAllBytes(), StandardCharsets.UTF_8);
+                assertTrue(content.contains(entry.getName().substring(5, 8)));
+            }
+        }
+        List<String> expected = new ArrayList<>();
+        ids.stream().filter(id -> !id.equals("o13")).forEach(id -> expected.add("bill-" + id + ".txt"));
+        assertEquals(expected, entries);
+        verify(orderRepository, times(3)).findIdsByOrderDateBetween(eq(FROM), eq(TO), any(String.class), any(Pageable.class));
+    }
+
+    @Test
+    public void testExportBills_RejectsAnEmptyRange() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertThrows(IllegalArgumentException.class, () -> billExportService.exportBills(TO, FROM, BillFormat.PDF, out));
+        assertEquals(0, out.size());
+    }
+}
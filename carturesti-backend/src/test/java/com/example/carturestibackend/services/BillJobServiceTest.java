@@ -0,0 +1,81 @@
+package com.example.carturestibackend.services;
+
+import com.example.carturestibackend.dtos.BillJobDTO;
+import com.example.carturestibackend.strategy.BillFormat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.rest.webmvc.ResourceNotFoundException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class BillJobServiceTest {
+
+    @Mock
+    private OrderService orderService;
+
+    private ThreadPoolTaskExecutor executor;
+    private BillJobService billJobService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(3);
+        executor.setMaxPoolSize(3);
+        executor.setQueueCapacity(10);
+        executor.initialize();
+        billJobService = new BillJobService(orderService, executor);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    private BillJobDTO awaitDone(String jobId) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            BillJobDTO job = billJobService.findJob(jobId);
+            if (job.isDone()) {
+                return job;
+            }
+            Thread.sleep(10);
+        }
+        fail("Bill job " + jobId + " did not finish");
+        return null;
+    }
+
+    @Test
+    public void testSubmit_SendsEveryBillOnceAndReportsFailures() throws InterruptedException {
+        doThrow(new ResourceNotFoundException("Order with id: missing")).when(orderService).generateAndSendBill("missing", BillFormat.PDF);
+        List<String> orderIds = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            orderIds.add("order-" + i);
+        }
+        orderIds.add("missing");
+        orderIds.add("order-0");
+
+        BillJobDTO job = awaitDone(billJobService.submit(orderIds, BillFormat.PDF).getId_job());
+
+        assertEquals(21, job.getTotal());
+        assertEquals(20, job.getCompleted());
+        assertEquals(1, job.getFailed());
+        assertEquals(List.of("missing"), job.getFailed_order_ids());
+        for (int i = 0; i < 20; i++) {
+            verify(orderService).generateAndSendBill("order-" + i, BillFormat.PDF);
+        }
+    }
+
+    @Test
+    public void testSubmit_RejectsAnEmptyJob() {
+        assertThrows(IllegalArgumentException.class, () -> billJobService.submit(List.of(), BillFormat.TXT));
+        assertThrows(ResourceNotFoundException.class, () -> billJobService.findJob("unknown"));
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.carturestibackend.services;
+
+import com.example.carturestibackend.entities.Order;
+import com.example.carturestibackend.entities.Product;
+import com.example.carturestibackend.entities.User;
+import com.example.carturestibackend.strategy.BillFormat;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BillStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private BillStore billStore;
+
+    @BeforeEach
+    public void setUp() {
+        billStore = new BillStore(directory.toString());
+    }
+
+    private static Order order(String id, double totalPrice) {
+        User user = new User();
+        user.setName("Ana");
+        user.setAddress("Str. Lunga 1");
+        user.setEmail("ana@x.ro");
+        Product product = new Product();
+        product.setName("Ion");
+        product.setAuthor("Liviu Rebreanu");
+        Order order = new Order();
+        order.setId_order(id);
+        order.setOrder_date(LocalDate.of(2024, 5, 1));
+        order.setUser(user);
+        order.setProducts(List.of(product));
+        order.setTotal_price(totalPrice);
+        return order;
+    }
+
+    @Test
+    public void testBill_ReusesTheBillOfAnUnchangedOrder() throws Exception {
+        Path first = billStore.bill(order("o1", 45), BillFormat.TXT);
+        Files.setLastModifiedTime(first, FileTime.fromMillis(0));
+
+        Path second = billStore.bill(order("o1", 45), BillFormat.TXT);
+
+        assertEquals(first, second);
+        assertEquals(0, Files.getLastModifiedTime(second).toMillis());
+        assertTrue(Files.readString(second).contains("Total Price: 45.0"));
+    }
+
+    @Test
+    public void testBill_ChangedOrdersAndOtherFormatsGetTheirOwnFiles() throws Exception {
+        Path txt = billStore.bill(order("o1", 45), BillFormat.TXT);
+        Path changed = billStore.bill(order("o1", 50), BillFormat.TXT);
+        Path pdf = billStore.bill(order("o1", 50), BillFormat.PDF);
+
+        assertNotEquals(txt, changed);
+        assertTrue(changed.getFileName().toString().startsWith("o1-"));
+        assertTrue(pdf.getFileName().toString().endsWith(".pdf"));
+        assertTrue(Files.size(pdf) > 0);
+        try (Stream<Path> files = Files.list(directory)) {
+            assertTrue(files.noneMatch(file -> file.toString().endsWith(".tmp")));
+        }
+    }
+
+    @Test
+    public void testBill_DeletesTheOutdatedBillsOfAChangedOrder() throws Exception {
+        billStore.bill(order("o1", 45), BillFormat.TXT);
+        billStore.bill(order("o1", 45), BillFormat.CSV);
+        Path other = billStore.bill(order("o2", 45), BillFormat.TXT);
+
+        Path changed = billStore.bill(order("o1", 50), BillFormat.TXT);
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(List.of(changed, other), files.sorted().toList());
+        }
+    }
+
+    @Test
+    public void testPdfBill_StartsNewPagesForLongOrders() throws Exception {
+        Order order = order("o1", 45);
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            products.add(order.getProducts().get(0));
+        }
+        order.setProducts(products);
+
+        Path bill = billStore.bill(order, BillFormat.PDF);
+
+        try (PDDocument document = PDDocument.load(bill.toFile())) {
+            assertTrue(document.getNumberOfPages() > 1);
+        }
+    }
+
+    @Test
+    public void testBill_ConcurrentGenerationsDoNotOverwriteEachOther() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Path>> bills = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            String id = "o" + (i % 8);
+            bills.add(executor.submit(() -> billStore.bill(order(id, 10), BillFormat.CSV)));
+        }
+        for (int i = 0; i < bills.size(); i++) {
+            Path bill = bills.get(i).get(30, TimeUnit.SECONDS);
+            assertTrue(Files.readString(bill).contains("Order ID: o" + (i % 8)));
+        }
+        executor.shutdown();
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(8, files.count());
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.carturestibackend.services;
+
+import com.example.carturestibackend.repositories.DataMigrationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class DataMigrationsTest {
+
+    private DataMigrationRepository dataMigrationRepository;
+    private PromotionPricingEngine promotionPricingEngine;
+    private ProductRatingService productRatingService;
+    private DataMigrations dataMigrations;
+
+    @BeforeEach
+    public void setUp() {
+        dataMigrationRepository = mock(DataMigrationRepository.class);
+        promotionPricingEngine = mock(PromotionPricingEngine.class);
+        productRatingService = mock(ProductRatingService.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        dataMigrations = new DataMigrations(dataMigrationRepository, promotionPricingEngine, productRatingService, transactionManager);
+    }
+
+    @Test
+    public void testMigrationsRunOnlyWhenRecordedByThisStart() {
+        when(dataMigrationRepository.markApplied(DataMigrations.RESTORE_PROMOTION_LIST_PRICES)).thenReturn(0);
+        when(dataMigrationRepository.markApplied(DataMigrations.BACKFILL_PRODUCT_RATINGS)).thenReturn(1);
+
+        dataMigrations.afterSingletonsInstantiated();
+
+        verify(promotionPricingEngine, never()).restoreListPrices();
+        verify(productRatingService).recomputeFromReviews();
+    }
+}
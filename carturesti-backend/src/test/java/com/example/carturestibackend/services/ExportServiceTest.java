@@ -0,0 +1,72 @@
+package com.example.carturestibackend.services;
+
+import com.example.carturestibackend.repositories.ExportRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExportServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private ExportService exportService;
+
+    @BeforeEach
+    public void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE productdb (id_product VARCHAR(36) PRIMARY KEY, name VARCHAR(255), author VARCHAR(255),"
+                + " description VARCHAR(255), price DOUBLE, price_promotion DOUBLE, stock BIGINT, category_id VARCHAR(36), promotion_id VARCHAR(36))");
+        exportService = new ExportService(new ExportRepository(dataSource, 2), new ObjectMapper(), new DataSourceTransactionManager(dataSource));
+    }
+
+    private void product(String id, String name, String description) {
+        jdbcTemplate.update("INSERT INTO productdb (id_product, name, author, description, price, price_promotion, stock)"
+                + " VALUES (?, ?, 'Liviu Rebreanu', ?, 45.5, 0, 3)", id, name, description);
+    }
+
+    private String export(ExportService.Format format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(ExportService.Dataset.PRODUCTS, format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testExport_WritesCsvWithHeaderAndQuotedValues() throws Exception {
+        product("p2", "Padurea spanzuratilor", "Roman");
+        product("p1", "Ion", "Roman \"realist\", 1920");
+        product("p3", "Rascoala", "Roman");
+
+        assertEquals("id_product,name,author,description,price,price_promotion,stock,category_id,promotion_id\r\n"
+                + "p1,Ion,Liviu Rebreanu,\"Roman \"\"realist\"\", 1920\",45.5,0.0,3,,\r\n"
+                + "p2,Padurea spanzuratilor,Liviu Rebreanu,Roman,45.5,0.0,3,,\r\n"
+                + "p3,Rascoala,Liviu Rebreanu,Roman,45.5,0.0,3,,\r\n", export(ExportService.Format.CSV));
+    }
+
+    @Test
+    public void testExport_WritesOneJsonObjectPerLine() throws Exception {
+        product("p1", "Ion", "Roman");
+        product("p2", "Rascoala", "Roman");
+
+        String[] lines = export(ExportService.Format.JSONL).split("\n");
+
+        assertEquals(2, lines.length);
+        assertEquals("{\"id_product\":\"p1\",\"name\":\"Ion\",\"author\":\"Liviu Rebreanu\",\"description\":\"Roman\","
+                + "\"price\":45.5,\"price_promotion\":0.0,\"stock\":3,\"category_id\":null,\"promotion_id\":null}", lines[0]);
+        assertTrue(lines[1].startsWith("{\"id_product\":\"p2\""));
+    }
+
+    @Test
+    public void testExport_WritesTheHeaderOfAnEmptyTable() throws Exception {
+        assertEquals("id_product,name,author,description,price,price_promotion,stock,category_id,promotion_id\r\n",
+                export(ExportService.Format.CSV));
+    }
+}
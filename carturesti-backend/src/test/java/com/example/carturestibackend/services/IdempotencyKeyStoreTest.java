@@ -0,0 +1,110 @@
+package com.example.carturestibackend.services;
+
+import com.example.carturestibackend.entities.IdempotencyKey;
+import com.example.carturestibackend.repositories.IdempotencyKeyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class IdempotencyKeyStoreTest {
+
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    private IdempotencyKeyStore idempotencyKeyStore;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(idempotencyKeyRepository.findById(any())).thenReturn(Optional.empty());
+        idempotencyKeyStore = new IdempotencyKeyStore(idempotencyKeyRepository, 100, 60);
+    }
+
+    @Test
+    public void testExecute_ReplaysTheFirstResult() {
+        AtomicInteger placed = new AtomicInteger();
+
+        String first = idempotencyKeyStore.execute("place:u:k", () -> "order-" + placed.incrementAndGet());
+        String retry = idempotencyKeyStore.execute("place:u:k", () -> "order-" + placed.incrementAndGet());
+
+        assertEquals("order-1", first);
+        assertEquals("order-1", retry);
+        assertEquals(1, placed.get());
+        verify(idempotencyKeyRepository, times(1)).save(any(IdempotencyKey.class));
+    }
+
+    @Test
+    public void testExecute_RecallsKeysStoredByAnotherInstanceUntilTheyExpire() {
+        when(idempotencyKeyRepository.findById("fresh"))
+                .thenReturn(Optional.of(new IdempotencyKey("fresh", "order-1", LocalDateTime.now().minusMinutes(5))));
+        when(idempotencyKeyRepository.findById("stale"))
+                .thenReturn(Optional.of(new IdempotencyKey("stale", "order-2", LocalDateTime.now().minusMinutes(61))));
+
+        assertEquals("order-1", idempotencyKeyStore.execute("fresh", () -> fail("must not run")));
+        assertEquals("order-3", idempotencyKeyStore.execute("stale", () -> "order-3"));
+    }
+
+    @Test
+    public void testExecute_ConcurrentDuplicatesShareOneComputation() throws Exception {
+        int threads = 16;
+        AtomicInteger placed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return idempotencyKeyStore.execute("place:u:k", () -> {
+                    sleep(50);
+                    return "order-" + placed.incrementAndGet();
+                });
+            }));
+        }
+        start.countDown();
+        for (Future<String> result : results) {
+            assertEquals("order-1", result.get(10, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        assertEquals(1, placed.get());
+    }
+
+    @Test
+    public void testExecute_FailureIsNotRemembered() {
+        assertThrows(IllegalArgumentException.class, () -> idempotencyKeyStore.execute("place:u:k", () -> {
+            throw new IllegalArgumentException("Insufficient stock for product: p");
+        }));
+
+        assertEquals("order-1", idempotencyKeyStore.execute("place:u:k", () -> "order-1"));
+    }
+
+    @Test
+    public void testScope_IgnoresMissingKeys() {
+        assertNull(IdempotencyKeyStore.scope("place", "u", null));
+        assertNull(IdempotencyKeyStore.scope("place", "u", " "));
+        assertEquals("place:u:k", IdempotencyKeyStore.scope("place", "u", "k"));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
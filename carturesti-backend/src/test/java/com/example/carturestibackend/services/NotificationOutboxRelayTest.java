@@ -0,0 +1,102 @@
+package com.example.carturestibackend.services;
+
+import com.example.carturestibackend.dtos.NotificationRequestDTO;
+import com.example.carturestibackend.entities.OutboxMessage;
+import com.example.carturestibackend.repositories.OutboxMessageRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.amqp.AmqpException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class NotificationOutboxRelayTest {
+
+    @Mock
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Mock
+    private BatchingNotificationPublisher batchingNotificationPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private NotificationOutboxRelay notificationOutboxRelay;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        notificationOutboxRelay = new NotificationOutboxRelay(outboxMessageRepository, batchingNotificationPublisher, objectMapper, transactionManager, 2, 1000, 60000, 3);
+    }
+
+    private OutboxMessage message(String id, String email) throws Exception {
+        NotificationRequestDTO notification = new NotificationRequestDTO();
+        notification.setSubject("Order Confirmation");
+        notification.setEmail(email);
+        return OutboxMessage.builder()
+                .id(id)
+                .payload(objectMapper.writeValueAsString(notification))
+                .created_at(LocalDateTime.now())
+                .build();
+    }
+
+    @Test
+    public void testRelay_PublishesFullBatchesAndDeletesThemOnceConfirmed() throws Exception {
+        when(outboxMessageRepository.lockOldest(any(LocalDateTime.class), eq(2)))
+                .thenReturn(List.of(message("1", "a@x.ro"), message("2", "b@x.ro")))
+                .thenReturn(List.of(message("3", "c@x.ro")));
+        when(batchingNotificationPublisher.submit(anyString(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        notificationOutboxRelay.relay();
+
+        ArgumentCaptor<NotificationRequestDTO> published = ArgumentCaptor.forClass(NotificationRequestDTO.class);
+        verify(batchingNotificationPublisher, times(3)).submit(anyString(), published.capture());
+        assertEquals("a@x.ro", published.getAllValues().get(0).getEmail());
+        assertEquals("c@x.ro", published.getAllValues().get(2).getEmail());
+        verify(outboxMessageRepository).deleteAllByIdInBatch(List.of("1", "2"));
+        verify(outboxMessageRepository).deleteAllByIdInBatch(List.of("3"));
+    }
+
+    @Test
+    public void testRelay_KeepsUnconfirmedMessagesInTheOutbox() throws Exception {
+        when(outboxMessageRepository.lockOldest(any(LocalDateTime.class), eq(2))).thenReturn(List.of(message("1", "a@x.ro"), message("2", "b@x.ro")));
+        when(batchingNotificationPublisher.submit(anyString(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null))
+                .thenReturn(CompletableFuture.failedFuture(new AmqpException("Notification not confirmed")));
+
+        notificationOutboxRelay.relay();
+
+        verify(outboxMessageRepository, times(1)).lockOldest(any(LocalDateTime.class), eq(2));
+        verify(outboxMessageRepository).deleteAllByIdInBatch(List.of("1"));
+        verify(outboxMessageRepository).release(List.of("2"));
+        verify(outboxMessageRepository).deadLetter(eq(List.of("2")), eq(3), any(LocalDateTime.class));
+    }
+
+    @Test
+    public void testRelay_CommitsTheClaimBeforeAwaitingTheBroker() throws Exception {
+        when(outboxMessageRepository.lockOldest(any(LocalDateTime.class), eq(2))).thenReturn(List.of(message("1", "a@x.ro")));
+        when(batchingNotificationPublisher.submit(anyString(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        notificationOutboxRelay.relay();
+
+        InOrder inOrder = inOrder(outboxMessageRepository, transactionManager, batchingNotificationPublisher);
+        inOrder.verify(outboxMessageRepository).claim(eq(List.of("1")), any(LocalDateTime.class));
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(batchingNotificationPublisher).submit(eq("1"), any());
+        inOrder.verify(outboxMessageRepository).deleteAllByIdInBatch(List.of("1"));
+        inOrder.verify(transactionManager).commit(any());
+    }
+}
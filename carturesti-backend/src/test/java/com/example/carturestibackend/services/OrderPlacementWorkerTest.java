@@ -0,0 +1,68 @@
+package com.example.carturestibackend.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class OrderPlacementWorkerTest {
+
+    @Mock
+    private OrderService orderService;
+
+    private OrderPlacementWorker orderPlacementWorker;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        orderPlacementWorker = new OrderPlacementWorker(orderService, 3, 1, 2);
+    }
+
+    @Test
+    public void testDrain_CompletesQueuedOrdersAndMarksFailuresFailed() {
+        doThrow(new IllegalArgumentException("Insufficient stock for product: p")).when(orderService).completeOrder("b");
+        assertTrue(orderPlacementWorker.enqueue("a"));
+        assertTrue(orderPlacementWorker.enqueue("b"));
+        assertTrue(orderPlacementWorker.enqueue("c"));
+        assertFalse(orderPlacementWorker.enqueue("d"));
+
+        assertTrue(orderPlacementWorker.claim());
+        orderPlacementWorker.drain();
+
+        InOrder inOrder = inOrder(orderService);
+        inOrder.verify(orderService).completeOrder("a");
+        inOrder.verify(orderService).completeOrder("b");
+        inOrder.verify(orderService).failOrder("b");
+        inOrder.verify(orderService).completeOrder("c");
+        verify(orderService, never()).failOrder("a");
+        verify(orderService, never()).failOrder("c");
+    }
+
+    @Test
+    public void testClaim_IsBoundedByTheNumberOfWorkers() {
+        assertTrue(orderPlacementWorker.claim());
+        assertFalse(orderPlacementWorker.claim());
+
+        // The drain gives its slot back once the queue is empty.
+        orderPlacementWorker.drain();
+        assertTrue(orderPlacementWorker.claim());
+    }
+
+    @Test
+    public void testResumePending_CompletesTheOrdersLeftPendingByAPreviousRun() {
+        when(orderService.findPendingOrderIds()).thenReturn(List.of("a", "b"));
+
+        new OrderPlacementService(orderService, orderPlacementWorker).resumePending();
+
+        verify(orderService).completeOrder("a");
+        verify(orderService).completeOrder("b");
+        verify(orderService, never()).failOrder(anyString());
+    }
+}
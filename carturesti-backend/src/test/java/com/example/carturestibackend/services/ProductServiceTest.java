@@ -0,0 +1,115 @@
+package com.example.carturestibackend.services;
+
+import com.example.carturestibackend.catalog.CatalogCursor;
+import com.example.carturestibackend.catalog.InvalidCursorException;
+import com.example.carturestibackend.catalog.ProductCatalogCache;
+import com.example.carturestibackend.catalog.ProductCatalogIndexer;
+import com.example.carturestibackend.catalog.ProductSortIndex;
+import com.example.carturestibackend.dtos.CatalogPageDTO;
+import com.example.carturestibackend.dtos.ProductCatalogDTO;
+import com.example.carturestibackend.entities.Product;
+import com.example.carturestibackend.entities.Review;
+import com.example.carturestibackend.repositories.ProductRepository;
+import com.example.carturestibackend.repositories.ReviewRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ProductServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ReviewRepository reviewRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ProductRatingService productRatingService;
+
+    @Mock
+    private ProductCatalogIndexer productCatalogIndexer;
+
+    @Mock
+    private ProductCatalogCache productCatalogCache;
+
+    @Mock
+    private ProductSortIndex productSortIndex;
+
+    @InjectMocks
+    private ProductService productService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(productService, "productRatingService", productRatingService);
+        when(productRepository.findById("product")).thenReturn(Optional.of(Product.builder().id_product("product").build()));
+        when(productCatalogCache.get(anyString(), any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+    }
+
+    private static List<ProductCatalogDTO> products(String... names) {
+        List<ProductCatalogDTO> products = new ArrayList<>();
+        for (String name : names) {
+            products.add(ProductCatalogDTO.builder().id_product("id-" + name).name(name).build());
+        }
+        return products;
+    }
+
+    @Test
+    public void testAddReviewToProduct_CountsTheRating() {
+        Review review = Review.builder().rating(4).comment("Great read").build();
+
+        productService.addReviewToProduct("product", review);
+
+        verify(reviewRepository).save(review);
+        verify(productRatingService).addReview("product", 4);
+        assertNotNull(review.getCreated_at());
+    }
+
+    @Test
+    public void testAddReviewToProduct_RejectsAnInvalidRatingBeforeCountingIt() {
+        Review review = Review.builder().rating(0).comment("Great read").build();
+
+        assertThrows(IllegalArgumentException.class, () -> productService.addReviewToProduct("product", review));
+
+        verify(reviewRepository, never()).save(any());
+        verifyNoInteractions(productRatingService);
+    }
+
+    @Test
+    public void testSortedByName_ListingStartedOnTheDatabaseStaysOnIt() {
+        when(productRepository.findCatalogPageByNameAsc(any(Pageable.class))).thenReturn(products("Ana", "Ion"));
+        CatalogPageDTO first = productService.getProductsSortedByName(true, null, 1);
+
+        when(productCatalogIndexer.isReady()).thenReturn(true);
+        when(productRepository.findCatalogPageByNameAscAfter(eq("Ana"), eq("id-Ana"), any(Pageable.class))).thenReturn(products("Ion"));
+        CatalogPageDTO second = productService.getProductsSortedByName(true, first.getNextCursor(), 1);
+
+        assertEquals("Ion", second.getProducts().get(0).getName());
+        verifyNoInteractions(productSortIndex);
+    }
+
+    @Test
+    public void testSortedByName_RejectsAnIndexCursorWhileTheIndexIsNotReady() {
+        String indexCursor = new CatalogCursor("Ana", "id-Ana").encode();
+
+        assertThrows(InvalidCursorException.class, () -> productService.getProductsSortedByName(true, indexCursor, 1));
+        verify(productRepository, never()).findCatalogPageByNameAscAfter(anyString(), anyString(), any(Pageable.class));
+    }
+}
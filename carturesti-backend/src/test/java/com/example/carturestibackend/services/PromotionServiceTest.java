@@ -1,6 +1,7 @@
 package com.example.carturestibackend.services;
 
 import com.example.carturestibackend.dtos.PromotionDTO;
+import com.example.carturestibackend.dtos.PromotionWindowDTO;
 import com.example.carturestibackend.entities.Product;
 import com.example.carturestibackend.entities.Promotion;
 import com.example.carturestibackend.repositories.ProductRepository;
@@ -11,6 +12,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.rest.webmvc.ResourceNotFoundException;
 
 import java.util.ArrayList;
@@ -30,7 +32,13 @@ public class PromotionServiceTest {
     private PromotionValidator promotionValidator;
 
     @Mock
-    private ProductRepository productRepository;
+    private PromotionPricingEngine promotionPricingEngine;
+
+    @Mock
+    private PromotionWindowIndex promotionWindowIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private PromotionService promotionService;
@@ -107,8 +115,39 @@ public class PromotionServiceTest {
 
         promotionService.deletePromotionById(id);
 
-        verify(productRepository, times(1)).save(any());
-        verify(promotionRepository, times(1)).delete(promotion);
+        verify(promotionPricingEngine, times(1)).release(id);
+        verify(promotionRepository, times(1)).deleteById(id);
+    }
+
+    @Test
+    public void testDeletePromotionById_WithoutProductsPublishesNothing() {
+        String id = "1";
+        Promotion promotion = new Promotion();
+        promotion.setId_promotion(id);
+        promotion.setProducts(new ArrayList<>());
+
+        when(promotionRepository.findById(id)).thenReturn(Optional.of(promotion));
+
+        promotionService.deletePromotionById(id);
+
+        // An empty event would make the catalog reload every product.
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    public void testFindPromotions_DoesNotReprice() {
+        Promotion promotion = new Promotion();
+        promotion.setId_promotion("1");
+        Product product = new Product();
+        product.setId_product("p1");
+        promotion.setProducts(List.of(product));
+
+        when(promotionRepository.findAll()).thenReturn(List.of(promotion));
+
+        List<PromotionDTO> promotions = promotionService.findPromotions();
+
+        assertEquals(List.of("p1"), promotions.get(0).getId_products());
+        verifyNoInteractions(promotionPricingEngine);
     }
 
     @Test
@@ -118,4 +157,23 @@ public class PromotionServiceTest {
         when(promotionRepository.findById(id)).thenReturn(Optional.empty());
         assertThrows(ResourceNotFoundException.class, () -> promotionService.deletePromotionById(id));
     }
+
+    @Test
+    public void testRestoreListPricesUndoesTheDiscountOfActivePromotions() {
+        ProductRepository productRepository = mock(ProductRepository.class);
+        PromotionPricingEngine engine = new PromotionPricingEngine(productRepository, promotionRepository);
+        when(promotionRepository.findWindows()).thenReturn(List.of(
+                new PromotionWindowDTO("a", 20, null, null, true),
+                new PromotionWindowDTO("b", 100, null, null, true),
+                new PromotionWindowDTO("c", 10, null, null, false),
+                new PromotionWindowDTO("d", 20, null, null, true),
+                new PromotionWindowDTO("e", 0, null, null, true)));
+        when(productRepository.undiscountPrices(List.of("a", "d"), 0.8)).thenReturn(3);
+
+        assertEquals(3, engine.restoreListPrices());
+
+        verify(productRepository).undiscountPrices(List.of("a", "d"), 0.8);
+        verify(productRepository).repricePromotions(List.of("a", "d"), 0.8);
+        verifyNoMoreInteractions(productRepository);
+    }
 }
@@ -0,0 +1,91 @@
+package com.example.carturestibackend.services;
+
+import com.example.carturestibackend.dtos.PromotionWindowDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PromotionWindowIndexTest {
+
+    private static final LocalDateTime MAY_1 = LocalDateTime.of(2024, 5, 1, 0, 0);
+    private static final LocalDateTime MAY_8 = LocalDateTime.of(2024, 5, 8, 0, 0);
+
+    private PromotionWindowIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new PromotionWindowIndex();
+        index.rebuild(List.of(
+                new PromotionWindowDTO("week", 20, MAY_1, MAY_8, false),
+                new PromotionWindowDTO("forever", 10, null, null, true),
+                new PromotionWindowDTO("stale", 50, null, null, false)
+        ));
+    }
+
+    private static List<String> ids(List<PromotionWindowDTO> windows) {
+        return windows.stream().map(PromotionWindowDTO::getId_promotion).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testFirstSweepCatchesUpWithEveryWindow() {
+        assertEquals(List.of("stale"), ids(index.transitions(null, MAY_1.minusDays(1))));
+        assertEquals(List.of("week", "stale"), ids(index.transitions(null, MAY_1)));
+    }
+
+    @Test
+    public void testSweepOnlyConsidersCrossedBoundaries() {
+        assertTrue(index.transitions(MAY_1, MAY_1.plusDays(1)).isEmpty());
+
+        List<PromotionWindowDTO> opened = index.transitions(MAY_1.minusMinutes(1), MAY_1);
+        assertEquals(List.of("week"), ids(opened));
+        assertFalse(opened.get(0).isActive());
+
+        index.markActive(List.of("week"), true);
+        List<PromotionWindowDTO> closed = index.transitions(MAY_8.minusMinutes(1), MAY_8);
+        assertEquals(List.of("week"), ids(closed));
+        assertTrue(closed.get(0).isActive());
+    }
+
+    @Test
+    public void testEffectivePriceFollowsTheWindow() {
+        assertEquals(100, index.effectivePrice(100, 80, "week", MAY_1.minusSeconds(1)));
+        assertEquals(80, index.effectivePrice(100, 0, "week", MAY_1), 1e-9);
+        assertEquals(100, index.effectivePrice(100, 80, "week", MAY_8));
+        assertEquals(100, index.effectivePrice(100, 80, null, MAY_1));
+        // Unknown promotions fall back to the stored promotional price.
+        assertEquals(70, index.effectivePrice(100, 70, "unknown", MAY_1));
+    }
+
+    @Test
+    public void testPutMovesTheBoundaries() {
+        index.put(new PromotionWindowDTO("week", 20, MAY_8, null, false));
+
+        assertTrue(index.transitions(MAY_1.minusMinutes(1), MAY_1).isEmpty());
+        assertEquals(List.of("week"), ids(index.transitions(MAY_8.minusMinutes(1), MAY_8)));
+
+        index.remove("week");
+        assertTrue(index.transitions(MAY_8.minusMinutes(1), MAY_8).isEmpty());
+    }
+
+    @Test
+    public void testChangesInATransactionApplyOnlyOnCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.put(new PromotionWindowDTO("new", 30, MAY_1, MAY_8, false));
+            index.remove("week");
+            assertEquals(List.of("week", "stale"), ids(index.transitions(null, MAY_1)));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(List.of("new", "stale"), ids(index.transitions(null, MAY_1)));
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.carturestibackend.services;
+
+import com.example.carturestibackend.catalog.CatalogCursor;
+import com.example.carturestibackend.catalog.InvalidCursorException;
+import com.example.carturestibackend.catalog.InvalidSortException;
+import com.example.carturestibackend.dtos.ProductRatingDTO;
+import com.example.carturestibackend.dtos.ReviewDTO;
+import com.example.carturestibackend.dtos.ReviewPageDTO;
+import com.example.carturestibackend.entities.Product;
+import com.example.carturestibackend.entities.ProductRating;
+import com.example.carturestibackend.entities.Review;
+import com.example.carturestibackend.repositories.ProductRatingRepository;
+import com.example.carturestibackend.repositories.ProductRepository;
+import com.example.carturestibackend.repositories.ReviewRepository;
+import com.example.carturestibackend.repositories.UserRepository;
+import com.example.carturestibackend.validators.ReviewValidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ReviewServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 1, 12, 30);
+
+    @Mock
+    private ReviewRepository reviewRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ReviewValidator reviewValidator;
+
+    @Mock
+    private ProductRatingRepository productRatingRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private ReviewService reviewService;
+
+    private ProductRatingService productRatingService;
+
+    private final Map<String, ProductRating> ratings = new HashMap<>();
+
+    private final AtomicInteger savedReviews = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        productRatingService = new ProductRatingService(productRatingRepository);
+        ReflectionTestUtils.setField(reviewService, "productRatingService", productRatingService);
+        ReflectionTestUtils.setField(reviewService, "eventPublisher", eventPublisher);
+        keepRatingsInMemory();
+    }
+
+    /**
+     * Applies the upserts of ProductRatingRepository to in-memory aggregates, the way the database does.
+     */
+    private void keepRatingsInMemory() {
+        when(productRatingRepository.addRating(anyString(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            String productId = invocation.getArgument(0);
+            int rating = invocation.getArgument(1);
+            int delta = invocation.getArgument(2);
+            ProductRating aggregate = ratings.computeIfAbsent(productId, id -> ProductRating.builder().id_product(id).build());
+            aggregate.setReview_count(aggregate.getReview_count() + delta);
+            aggregate.setRating_sum(aggregate.getRating_sum() + (long) delta * rating);
+            switch (rating) {
+                case 1:
+                    aggregate.setRating_1(aggregate.getRating_1() + delta);
+                    break;
+                case 2:
+                    aggregate.setRating_2(aggregate.getRating_2() + delta);
+                    break;
+                case 3:
+                    aggregate.setRating_3(aggregate.getRating_3() + delta);
+                    break;
+                case 4:
+                    aggregate.setRating_4(aggregate.getRating_4() + delta);
+                    break;
+                default:
+                    aggregate.setRating_5(aggregate.getRating_5() + delta);
+            }
+            return 1;
+        });
+        when(productRatingRepository.findById(anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(ratings.get(invocation.<String>getArgument(0))));
+        when(reviewRepository.save(any(Review.class))).thenAnswer(invocation -> {
+            Review review = invocation.getArgument(0);
+            if (review.getId() == null) {
+                review.setId("r" + savedReviews.incrementAndGet());
+            }
+            return review;
+        });
+    }
+
+    private static Review storedReview(String id, int rating) {
+        Product product = Product.builder().id_product("product").reviews(new ArrayList<>()).build();
+        return Review.builder().id(id).rating(rating).comment("comment").product(product).created_at(NOW).build();
+    }
+
+    private void assertRating(long count, double average, long... histogram) {
+        ProductRatingDTO rating = productRatingService.findRating("product");
+        assertEquals(count, rating.getReview_count());
+        assertEquals(average, rating.getAverage_rating(), 1e-9);
+        assertArrayEquals(histogram, rating.getHistogram());
+    }
+
+    private static ReviewDTO review(String id, int rating, int minutesAgo) {
+        return new ReviewDTO(id, rating, "comment", "user", "product", NOW.minusMinutes(minutesAgo));
+    }
+
+    @Test
+    public void testProductPageByRecencyContinuesAfterTheLastReview() {
+        when(reviewRepository.findProductPageByRecency(eq("product"), any(Pageable.class)))
+                .thenReturn(List.of(review("r3", 5, 0), review("r2", 1, 1), review("r1", 4, 2)));
+
+        ReviewPageDTO first = reviewService.findProductReviews("product", ReviewService.ReviewSort.RECENT, null, 2);
+
+        assertEquals(2, first.getReviews().size());
+        CatalogCursor cursor = CatalogCursor.decode(first.getNextCursor());
+        assertEquals("r2", cursor.getId());
+
+        when(reviewRepository.findProductPageByRecencyAfter(eq("product"), eq(NOW.minusMinutes(1)), eq("r2"), any(Pageable.class)))
+                .thenReturn(List.of(review("r1", 4, 2)));
+        ReviewPageDTO second = reviewService.findProductReviews("product", ReviewService.ReviewSort.RECENT, first.getNextCursor(), 2);
+
+        assertEquals("r1", second.getReviews().get(0).getId());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    public void testUserPageByRatingUsesTheRatingCursor() {
+        when(reviewRepository.findUserPageByRating(eq("user"), any(Pageable.class)))
+                .thenReturn(List.of(review("r3", 5, 0), review("r1", 4, 2)));
+
+        ReviewPageDTO first = reviewService.findUserReviews("user", ReviewService.ReviewSort.RATING, null, 1);
+        reviewService.findUserReviews("user", ReviewService.ReviewSort.RATING, first.getNextCursor(), 1);
+
+        verify(reviewRepository).findUserPageByRatingAfter(eq("user"), eq(5), eq("r3"), any(Pageable.class));
+    }
+
+    @Test
+    public void testInvalidCursorsAndOrdersAreRejected() {
+        String ratingCursor = new CatalogCursor("5", "r3").encode();
+
+        assertThrows(InvalidCursorException.class,
+                () -> reviewService.findProductReviews("product", ReviewService.ReviewSort.RECENT, ratingCursor, 10));
+        assertThrows(InvalidCursorException.class,
+                () -> reviewService.findUserReviews("user", ReviewService.ReviewSort.RATING, "not a cursor!", 10));
+        assertThrows(InvalidSortException.class, () -> ReviewService.ReviewSort.fromName("oldest"));
+        assertEquals(ReviewService.ReviewSort.RATING, ReviewService.ReviewSort.fromName("rating"));
+    }
+
+    @Test
+    public void testReviewWritesKeepTheRatingAggregatesConsistent() {
+        reviewService.insert(review(null, 4, 0));
+        reviewService.insert(review(null, 2, 0));
+        assertRating(2, 3.0, 0, 1, 0, 1, 0);
+
+        when(reviewRepository.findById("r1")).thenReturn(Optional.of(storedReview("r1", 4)));
+        reviewService.updateReview("r1", review("r1", 5, 0));
+        assertRating(2, 3.5, 0, 1, 0, 0, 1);
+
+        when(reviewRepository.findById("r2")).thenReturn(Optional.of(storedReview("r2", 2)));
+        reviewService.deleteReviewById("r2");
+        assertRating(1, 5.0, 0, 0, 0, 0, 1);
+
+        reviewService.updateReview("r1", review("r1", 5, 0));
+        verify(productRatingRepository, times(5)).addRating(anyString(), anyInt(), anyInt());
+    }
+
+    @Test
+    public void testInvalidRatingsLeaveTheAggregatesUntouched() {
+        assertThrows(IllegalArgumentException.class, () -> reviewService.insert(review(null, 6, 0)));
+        when(reviewRepository.findById("r1")).thenReturn(Optional.of(storedReview("r1", 4)));
+        assertThrows(IllegalArgumentException.class, () -> reviewService.updateReview("r1", review("r1", 0, 0)));
+
+        verify(reviewRepository, never()).save(any(Review.class));
+        verify(productRatingRepository, never()).addRating(anyString(), anyInt(), anyInt());
+        assertRating(0, 0, 0, 0, 0, 0, 0);
+    }
+
+    @Test
+    public void testRecomputeReplacesTheAggregatesUnderTheTableLock() {
+        when(productRatingRepository.insertFromReviews()).thenReturn(2);
+
+        assertEquals(2, productRatingService.recomputeFromReviews());
+
+        InOrder inOrder = inOrder(productRatingRepository);
+        inOrder.verify(productRatingRepository).lockTable();
+        inOrder.verify(productRatingRepository).deleteAllInBatch();
+        inOrder.verify(productRatingRepository).insertFromReviews();
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.carturestibackend.services;
+
+import com.example.carturestibackend.entities.Category;
+import com.example.carturestibackend.entities.Order;
+import com.example.carturestibackend.entities.Product;
+import com.example.carturestibackend.entities.SalesDelta;
+import com.example.carturestibackend.repositories.SalesSummaryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class SalesAnalyticsServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 5, 1);
+
+    @Mock
+    private SalesSummaryRepository salesSummaryRepository;
+
+    private SalesAnalyticsService salesAnalyticsService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        salesAnalyticsService = new SalesAnalyticsService(salesSummaryRepository);
+    }
+
+    private static Product product(String id, String author, String categoryId) {
+        Product product = new Product();
+        product.setId_product(id);
+        product.setAuthor(author);
+        if (categoryId != null) {
+            Category category = new Category();
+            category.setId_category(categoryId);
+            product.setCategory(category);
+        }
+        return product;
+    }
+
+    private static Order order(String status, List<Product> products) {
+        Order order = new Order();
+        order.setOrder_date(DAY);
+        order.setStatus(status);
+        order.setProducts(products);
+        order.setTotal_price(120);
+        return order;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<SalesDelta> insertedDeltas() {
+        ArgumentCaptor<List<SalesDelta>> deltas = ArgumentCaptor.forClass(List.class);
+        verify(salesSummaryRepository).insertDeltas(deltas.capture());
+        return deltas.getValue();
+    }
+
+    private static Map<String, Long> unitsByProduct(List<SalesDelta> deltas) {
+        Map<String, Long> units = new TreeMap<>();
+        deltas.forEach(delta -> units.merge(delta.getId_product(), delta.getUnits(), Long::sum));
+        return units;
+    }
+
+    @Test
+    public void testRecord_AddsOneCopyPerProductEntry() {
+        Product ion = product("p1", "Liviu Rebreanu", "c1");
+        Product rascoala = product("p2", "Liviu Rebreanu", null);
+
+        salesAnalyticsService.record(order(Order.PLACED, List.of(ion, ion, rascoala)));
+
+        List<SalesDelta> deltas = insertedDeltas();
+        assertEquals(Map.of("p1", 2L, "p2", 1L), unitsByProduct(deltas));
+        assertEquals(1, deltas.stream().mapToLong(SalesDelta::getOrders).sum());
+        assertEquals(120.0, deltas.stream().mapToDouble(SalesDelta::getRevenue).sum());
+        assertTrue(deltas.stream().allMatch(delta -> DAY.equals(delta.getSale_date()) && "Liviu Rebreanu".equals(delta.getAuthor())));
+        assertEquals("c1", deltas.get(0).getId_category());
+        assertNull(deltas.get(1).getId_category());
+    }
+
+    @Test
+    public void testRecord_CountsTheQuantitiesOfCartOrders() {
+        Product ion = product("p1", "Liviu Rebreanu", "c1");
+        Product poezii = product("p2", "Mihai Eminescu", "c1");
+        Order order = order(Order.PLACED, List.of(ion, poezii));
+        order.setQuantities(Map.of("p1", 3L, "p2", 2L));
+
+        salesAnalyticsService.record(order);
+
+        assertEquals(Map.of("p1", 3L, "p2", 2L), unitsByProduct(insertedDeltas()));
+    }
+
+    @Test
+    public void testRetract_TakesTheSameCountersBackOut() {
+        salesAnalyticsService.retract(order(null, List.of(product("p1", "Mihai Eminescu", "c1"))));
+
+        List<SalesDelta> deltas = insertedDeltas();
+        assertEquals(1, deltas.size());
+        assertEquals(-1, deltas.get(0).getOrders());
+        assertEquals(-1, deltas.get(0).getUnits());
+        assertEquals(-120.0, deltas.get(0).getRevenue());
+    }
+
+    @Test
+    public void testRecord_IgnoresOrdersThatAreNotPlaced() {
+        salesAnalyticsService.record(order(Order.PENDING, List.of(product("p1", "Ion Creanga", null))));
+        salesAnalyticsService.record(order(Order.FAILED, List.of(product("p1", "Ion Creanga", null))));
+        salesAnalyticsService.record(order(Order.PLACED, List.of()));
+
+        verifyNoInteractions(salesSummaryRepository);
+    }
+
+    @Test
+    public void testGetDashboard_FoldsThePendingDeltasFirst() {
+        salesAnalyticsService.getDashboard(DAY, DAY, 10);
+
+        InOrder inOrder = inOrder(salesSummaryRepository);
+        inOrder.verify(salesSummaryRepository).fold();
+        inOrder.verify(salesSummaryRepository).findDays(DAY, DAY);
+    }
+
+    @Test
+    public void testGetDashboard_RejectsAnEmptyRange() {
+        assertThrows(IllegalArgumentException.class, () -> salesAnalyticsService.getDashboard(DAY, DAY.minusDays(1), 10));
+        assertThrows(IllegalArgumentException.class, () -> salesAnalyticsService.getDashboard(DAY, DAY, 0));
+    }
+}
@@ -0,0 +1,268 @@
+package com.example.carturestibackend.services;
+
+import com.example.carturestibackend.repositories.ProductStockRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StockReservationServiceTest {
+
+    private static final int THREADS = 64;
+
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+    private FlashSaleInventory flashSaleInventory;
+    private StockReservationService stockReservationService;
+
+    @BeforeEach
+    public void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE productdb (id_product VARCHAR(36) PRIMARY KEY, stock BIGINT NOT NULL)");
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        ProductStockRepository productStockRepository = new ProductStockRepository(jdbcTemplate);
+        flashSaleInventory = new FlashSaleInventory(productStockRepository, transactionManager, event -> {
+        }, 8);
+        stockReservationService = new StockReservationService(productStockRepository, flashSaleInventory, transactionManager);
+    }
+
+    private void stock(String productId, long stock) {
+        jdbcTemplate.update("INSERT INTO productdb (id_product, stock) VALUES (?, ?)", productId, stock);
+    }
+
+    private long stockOf(String productId) {
+        return jdbcTemplate.queryForObject("SELECT stock FROM productdb WHERE id_product = ?", Long.class, productId);
+    }
+
+    /**
+     * Reserves the quantities the way a checkout does, in a transaction of its own that commits.
+     */
+    private void checkout(Map<String, Long> quantities) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> stockReservationService.reserveForCurrentTransaction(quantities));
+    }
+
+    /**
+     * Runs the checkouts from THREADS threads released at once.
+     *
+     * @return The number of successful checkouts.
+     */
+    private int hammer(List<Map<String, Long>> reservations, Runnable afterEach) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (Map<String, Long> reservation : reservations) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    checkout(reservation);
+                    succeeded.incrementAndGet();
+                } catch (IllegalArgumentException e) {
+                    assertTrue(e.getMessage().startsWith("Insufficient stock"));
+                }
+                afterEach.run();
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        return succeeded.get();
+    }
+
+    @Test
+    public void testConcurrentReservationsNeverOversell() throws Exception {
+        stock("last-copies", 40);
+        AtomicLong lowestSeen = new AtomicLong(Long.MAX_VALUE);
+        List<Map<String, Long>> reservations = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            reservations.add(Map.of("last-copies", 1L));
+        }
+
+        int succeeded = hammer(reservations, () -> lowestSeen.accumulateAndGet(stockOf("last-copies"), Math::min));
+
+        assertEquals(40, succeeded);
+        assertEquals(0, stockOf("last-copies"));
+        assertTrue(lowestSeen.get() >= 0);
+    }
+
+    @Test
+    public void testMultiProductReservationsAreAllOrNothing() throws Exception {
+        stock("a", 100);
+        stock("b", 10);
+        List<Map<String, Long>> reservations = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            // Alternate the order in which the products are named.
+            Map<String, Long> reservation = new LinkedHashMap<>();
+            if (i % 2 == 0) {
+                reservation.put("a", 1L);
+                reservation.put("b", 1L);
+            } else {
+                reservation.put("b", 1L);
+                reservation.put("a", 1L);
+            }
+            reservations.add(reservation);
+        }
+
+        int succeeded = hammer(reservations, () -> {
+        });
+
+        assertEquals(10, succeeded);
+        assertEquals(90, stockOf("a"));
+        assertEquals(0, stockOf("b"));
+    }
+
+    @Test
+    public void testReservationIsReleasedWhenTheCallerRollsBack() {
+        stock("p", 3);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            stockReservationService.reserveForCurrentTransaction(Map.of("p", 2L));
+            assertEquals(1, stockOf("p"));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(3, stockOf("p"));
+        assertThrows(IllegalArgumentException.class, () -> checkout(Map.of("p", 4L)));
+        assertEquals(3, stockOf("p"));
+    }
+
+    @Test
+    public void testReleaseGivesTheUnitsBackToTheRowAndTheSaleOnCommit() {
+        stock("p", 5);
+        stock("q", 5);
+        flashSaleInventory.start("p");
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            stockReservationService.releaseForCurrentTransaction(Map.of("p", 2L, "q", 3L));
+            status.setRollbackOnly();
+        });
+        assertEquals(5, stockOf("q"));
+        assertEquals(5, flashSaleInventory.findFlashSales().get(0).getAvailable());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                stockReservationService.releaseForCurrentTransaction(Map.of("p", 2L, "q", 3L)));
+        assertEquals(7, stockOf("p"));
+        assertEquals(8, stockOf("q"));
+        assertEquals(7, flashSaleInventory.findFlashSales().get(0).getAvailable());
+    }
+
+    @Test
+    public void testCheckoutReservationNeedsNoSecondConnection() {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        pool.setMaximumPoolSize(1);
+        pool.setConnectionTimeout(250);
+        try {
+            JdbcTemplate pooled = new JdbcTemplate(pool);
+            pooled.execute("CREATE TABLE productdb (id_product VARCHAR(36) PRIMARY KEY, stock BIGINT NOT NULL)");
+            pooled.update("INSERT INTO productdb (id_product, stock) VALUES ('p', 3)");
+            DataSourceTransactionManager pooledTransactions = new DataSourceTransactionManager(pool);
+            ProductStockRepository repository = new ProductStockRepository(pooled);
+            StockReservationService service = new StockReservationService(repository,
+                    new FlashSaleInventory(repository, pooledTransactions, event -> {
+                    }, 8), pooledTransactions);
+
+            // The checkout holds the only connection of the pool while it reserves.
+            new TransactionTemplate(pooledTransactions).executeWithoutResult(status -> service.reserveForCurrentTransaction(Map.of("p", 2L)));
+
+            assertEquals(1L, pooled.queryForObject("SELECT stock FROM productdb WHERE id_product = 'p'", Long.class));
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testFlashSaleReservesFromShardsAndWritesBehind() throws Exception {
+        stock("hot", 40);
+        stock("cold", 100);
+        flashSaleInventory.start("hot");
+        List<Map<String, Long>> reservations = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            reservations.add(Map.of("hot", 1L, "cold", 1L));
+        }
+
+        int succeeded = hammer(reservations, () -> {
+        });
+
+        assertEquals(40, succeeded);
+        assertEquals(60, stockOf("cold"));
+        // The hot row is only written by the flusher.
+        assertEquals(40, stockOf("hot"));
+        flashSaleInventory.flush();
+        assertEquals(0, stockOf("hot"));
+    }
+
+    @Test
+    public void testRowReservationsStayInStepWithAStoppingSale() {
+        stock("p", 5);
+        flashSaleInventory.start("p");
+        checkout(Map.of("p", 3L));
+        flashSaleInventory.stop("p");
+
+        // The row still shows 5 until the flush, but only 2 units are left.
+        assertThrows(IllegalArgumentException.class, () -> checkout(Map.of("p", 3L)));
+        checkout(Map.of("p", 2L));
+        assertEquals(3, stockOf("p"));
+
+        flashSaleInventory.flush();
+        assertEquals(0, stockOf("p"));
+        for (int i = 0; i <= FlashSaleInventory.RETIRE_AFTER_FLUSHES; i++) {
+            flashSaleInventory.flush();
+        }
+        assertTrue(flashSaleInventory.findFlashSales().isEmpty());
+    }
+
+    @Test
+    public void testConcurrentStartsKeepTheFirstCounter() throws Exception {
+        stock("hot", 10);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger started = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    flashSaleInventory.start("hot");
+                    started.incrementAndGet();
+                    checkout(Map.of("hot", 1L));
+                } catch (IllegalArgumentException e) {
+                    assertTrue(e.getMessage().contains("already in flash-sale mode"));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(1, started.get());
+        flashSaleInventory.flush();
+        assertEquals(9, stockOf("hot"));
+    }
+}